@@ -0,0 +1,235 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.grid.Grid.Column;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * Exports the grid in Apache Arrow IPC streaming format. Columns configured as numbers (through
+ * {@link GridExporter#setNumberColumnFormat}) are exported as 64-bit floating point vectors,
+ * columns configured as dates (through {@link GridExporter#setDateColumnFormat}) are exported as
+ * millisecond timestamps, and all the other columns are exported as UTF-8 strings.
+ * <p>
+ * The rows are accumulated into record batches, which are written into a {@linkplain SpillBuffer
+ * spill buffer} as soon as they are full. This format requires {@code org.apache.arrow:arrow-vector}
+ * and an Arrow memory implementation (such as {@code arrow-memory-unsafe}) in the classpath.
+ */
+@SuppressWarnings("serial")
+class ArrowStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
+
+  /** The number of rows in each record batch. */
+  static final int BATCH_SIZE = 4096;
+
+  public ArrowStreamResourceWriter(GridExporter<T> exporter) {
+    super(exporter, null, null);
+  }
+
+  @Override
+  ExportFormat getFormat() {
+    return ExportFormat.ARROW;
+  }
+
+  @Override
+  ExportSink createSink() {
+    return new ArrowExportSink();
+  }
+
+  private class ArrowExportSink extends ExportSink {
+
+    private List<Column<T>> columns;
+    private String[] types;
+    private SpillBuffer buffer;
+    private BufferAllocator allocator;
+    private VectorSchemaRoot root;
+    private ArrowStreamWriter writer;
+    private int batchRowCount;
+
+    @Override
+    void begin() throws IOException {
+      columns = exporter.getColumnsOrdered();
+      List<String> names = getColumnNames();
+      types = new String[columns.size()];
+      List<Field> fields = new ArrayList<>();
+      for (int i = 0; i < types.length; i++) {
+        types[i] = (String) ComponentUtil.getData(columns.get(i), GridExporter.COLUMN_TYPE_DATA);
+        fields.add(Field.nullable(names.get(i), getArrowType(types[i])));
+      }
+
+      buffer = new SpillBuffer();
+      allocator = new RootAllocator();
+      root = VectorSchemaRoot.create(new Schema(fields), allocator);
+      root.allocateNew();
+      writer = new ArrowStreamWriter(root, null, Channels.newChannel(buffer));
+      writer.start();
+    }
+
+    @Override
+    void appendRow(T item, Object[] values) {
+      for (int i = 0; i < values.length; i++) {
+        setValue(root.getVector(i), types[i], batchRowCount,
+            transformToType(values[i], columns.get(i)));
+      }
+      if (++batchRowCount == BATCH_SIZE) {
+        writeBatch();
+      }
+    }
+
+    @Override
+    void appendNotice(String text) {
+      // Arrow has no place for notices: the truncated stream is just shorter
+    }
+
+    private void writeBatch() {
+      root.setRowCount(batchRowCount);
+      try {
+        writer.writeBatch();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      batchRowCount = 0;
+      root.allocateNew();
+    }
+
+    @Override
+    void end() throws IOException {
+      if (batchRowCount > 0) {
+        writeBatch();
+      }
+      writer.end();
+      close();
+      buffer.close();
+    }
+
+    @Override
+    void write(OutputStream out) throws IOException {
+      buffer.writeTo(out);
+    }
+
+    @Override
+    void dispose() {
+      close();
+      if (buffer != null) {
+        buffer.discard();
+      }
+    }
+
+    private void close() {
+      if (writer != null) {
+        writer.close();
+        writer = null;
+      }
+      if (root != null) {
+        root.close();
+        root = null;
+      }
+      if (allocator != null) {
+        allocator.close();
+        allocator = null;
+      }
+    }
+  }
+
+  private static ArrowType getArrowType(String type) {
+    if (GridExporter.COLUMN_TYPE_NUMBER.equals(type)) {
+      return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+    } else if (GridExporter.COLUMN_TYPE_DATE.equals(type)) {
+      return new ArrowType.Timestamp(TimeUnit.MILLISECOND, null);
+    } else {
+      return ArrowType.Utf8.INSTANCE;
+    }
+  }
+
+  private static void setValue(FieldVector vector, String type, int index, Object value) {
+    if (GridExporter.COLUMN_TYPE_NUMBER.equals(type)) {
+      Float8Vector v = (Float8Vector) vector;
+      if (value instanceof Number) {
+        v.setSafe(index, ((Number) value).doubleValue());
+      } else {
+        v.setNull(index);
+      }
+    } else if (GridExporter.COLUMN_TYPE_DATE.equals(type)) {
+      TimeStampMilliVector v = (TimeStampMilliVector) vector;
+      Long millis = toEpochMillis(value);
+      if (millis != null) {
+        v.setSafe(index, millis);
+      } else {
+        v.setNull(index);
+      }
+    } else {
+      VarCharVector v = (VarCharVector) vector;
+      if (value != null) {
+        v.setSafe(index, value.toString().getBytes(StandardCharsets.UTF_8));
+      } else {
+        v.setNull(index);
+      }
+    }
+  }
+
+  /** Converts a date value into milliseconds since the epoch (local dates are taken as UTC). */
+  private static Long toEpochMillis(Object value) {
+    if (value instanceof Date) {
+      return ((Date) value).getTime();
+    } else if (value instanceof Calendar) {
+      return ((Calendar) value).getTimeInMillis();
+    } else if (value instanceof Instant) {
+      return ((Instant) value).toEpochMilli();
+    } else if (value instanceof LocalDate) {
+      return ((LocalDate) value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    } else if (value instanceof LocalDateTime) {
+      return ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli();
+    } else if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toInstant().toEpochMilli();
+    } else if (value instanceof ZonedDateTime) {
+      return ((ZonedDateTime) value).toInstant().toEpochMilli();
+    } else {
+      return null;
+    }
+  }
+
+}
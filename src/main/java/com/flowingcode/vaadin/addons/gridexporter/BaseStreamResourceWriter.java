@@ -19,26 +19,54 @@
  */
 package com.flowingcode.vaadin.addons.gridexporter;
 
+import com.flowingcode.vaadin.addons.gridexporter.ParallelRowMaterializer.Row;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.Grid.Column;
 import com.vaadin.flow.component.grid.HeaderRow;
 import com.vaadin.flow.component.grid.HeaderRow.HeaderCell;
-import com.vaadin.flow.component.grid.dataview.GridLazyDataView;
 import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
 import com.vaadin.flow.data.provider.DataCommunicator;
 import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.ListDataProvider;
 import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
 import com.vaadin.flow.data.provider.hierarchy.HierarchicalDataProvider;
 import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
+import com.vaadin.flow.function.SerializableComparator;
 import com.vaadin.flow.function.SerializableFunction;
 import com.vaadin.flow.server.StreamResourceWriter;
-import java.lang.reflect.Method;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +76,9 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseStreamResourceWriter.class);
 
+  /** Minimum number of in-memory items that are filtered and sorted in parallel. */
+  private static final int PARALLEL_IN_MEMORY_THRESHOLD = 10_000;
+
   protected final GridExporter<T> exporter;
   private String template;
 
@@ -67,6 +98,318 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
     return template;
   }
 
+  /**
+   * Renders a single export. A new sink is created for each download, so that concurrent downloads
+   * handled by the same writer don't share any state.
+   */
+  abstract class ExportSink {
+
+    /** The footer aggregates of the rendered rows, available when {@link #end()} is called. */
+    FooterAggregator<T> footerAggregator;
+
+    /** Returns the writer that created this sink. */
+    BaseStreamResourceWriter<T> getWriter() {
+      return BaseStreamResourceWriter.this;
+    }
+
+    /** Prepares the document before the rows are appended. Called under the session lock. */
+    abstract void begin() throws IOException;
+
+    /**
+     * Appends a row, given the values of the exported columns in {@linkplain
+     * GridExporter#getColumnsOrdered() export order}. Called under the session lock.
+     */
+    abstract void appendRow(T item, Object[] values);
+
+    /** Completes the document after all the rows were appended. Called under the session lock. */
+    abstract void end() throws IOException;
+
+    /** Writes the document into the output stream. Not called under the session lock. */
+    abstract void write(OutputStream out) throws IOException;
+
+    /**
+     * Releases the resources held by this sink. Called after the document is written, or after
+     * the export fails.
+     */
+    void dispose() {
+      // nothing to release by default
+    }
+
+    /**
+     * Writes the document into a {@link SpillBuffer} on the given executor, and then releases the
+     * resources held by this sink. The buffer is discarded if the document cannot be written.
+     *
+     * @see BaseStreamResourceWriter#join(CompletableFuture)
+     */
+    CompletableFuture<SpillBuffer> writeAsync(Executor executor) {
+      return CompletableFuture.supplyAsync(() -> {
+        SpillBuffer buffer = new SpillBuffer();
+        try (buffer) {
+          write(buffer);
+        } catch (IOException e) {
+          buffer.discard();
+          throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+          buffer.discard();
+          throw e;
+        } finally {
+          dispose();
+        }
+        return buffer;
+      }, executor);
+    }
+
+    /**
+     * Returns the footers of the exported columns. The footers of the columns with a {@linkplain
+     * ColumnAggregate footer aggregate} contain the aggregate of the rendered rows.
+     */
+    List<GridFooter<T>> getFooters() {
+      return getGridFooters(exporter.getGrid(), footerAggregator);
+    }
+
+    /**
+     * Appends a row that contains a notice (e.g. that the export was truncated) in its first
+     * cell. Called under the session lock.
+     */
+    void appendNotice(String text) {
+      Object[] values = new Object[exporter.getColumns().size()];
+      Arrays.fill(values, "");
+      values[0] = text;
+      appendRow(null, values);
+    }
+  }
+
+  /**
+   * Waits for a document written by {@link ExportSink#writeAsync(Executor)}, and rethrows the
+   * exception that prevented it from being written, if any.
+   */
+  static SpillBuffer join(CompletableFuture<SpillBuffer> future) throws IOException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** Creates the sink that renders one export in the format of this writer. */
+  abstract ExportSink createSink();
+
+  /** The format of the exports rendered by this writer. */
+  abstract ExportFormat getFormat();
+
+  @Override
+  public void accept(OutputStream out, VaadinSession session) throws IOException {
+    ExportSink sink = createSink();
+    try {
+      render(session, List.of(sink));
+      sink.write(out);
+    } finally {
+      sink.dispose();
+    }
+  }
+
+  /**
+   * Renders the exported rows into the given sinks. Each row is fetched and its values are
+   * extracted only once, regardless of the number of sinks.
+   */
+  void render(VaadinSession session, List<? extends ExportSink> sinks) throws IOException {
+    session.lock();
+    try {
+      render(sinks, () -> obtainDataStream(exporter.getGrid().getDataProvider()));
+    } finally {
+      session.unlock();
+    }
+  }
+
+  /**
+   * Renders the given items into the sinks. Unlike {@link #render(VaadinSession, List)}, this
+   * method doesn't acquire any lock, and the items are not fetched from the grid.
+   */
+  void render(List<? extends ExportSink> sinks, Supplier<Stream<T>> items) throws IOException {
+    // in a delta export, only the items that changed since the previous export are rendered
+    DeltaExport<T> delta = exporter.createDeltaExport();
+    long rowCount = render(sinks,
+        delta == null ? items : () -> items.get().filter(delta::isChanged), delta);
+
+    if (delta != null) {
+      // the token of a truncated export would skip the rows that were not written
+      boolean truncated = sinks.stream()
+          .anyMatch(sink -> rowCount > exporter.getMaxRowCount(sink.getWriter().getFormat()));
+      int maxRowCount = sinks.stream()
+          .mapToInt(sink -> exporter.getMaxRowCount(sink.getWriter().getFormat())).max().orElse(0);
+      exporter.fireDeltaExport(delta, Math.min(rowCount, maxRowCount), truncated);
+    }
+  }
+
+  /**
+   * Renders the given items into the sinks, and records them into the delta export, if any.
+   *
+   * @return the number of rendered rows, or the maximum row count plus one if the rows were
+   *         truncated
+   */
+  long render(List<? extends ExportSink> sinks, Supplier<Stream<T>> items, DeltaExport<T> delta)
+      throws IOException {
+    setExportableColumns();
+    return renderRows(sinks, items, delta);
+  }
+
+  /** Sets the exportable columns of the grid as the columns of the exporter. */
+  void setExportableColumns() {
+    exporter.setColumns(exporter.getGrid().getColumns().stream().filter(this::isExportable)
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Renders the given items into the sinks, with the columns that were last {@linkplain
+   * #setExportableColumns() set} to the exporter, and records them into the delta export, if any.
+   *
+   * @return the number of rendered rows, or the maximum row count plus one if the rows were
+   *         truncated
+   */
+  long renderRows(List<? extends ExportSink> sinks, Supplier<Stream<T>> items,
+      DeltaExport<T> delta) throws IOException {
+    for (ExportSink sink : sinks) {
+      sink.begin();
+    }
+
+    List<Column<T>> columns = exporter.getColumnsOrdered();
+    int[] maxRowCounts = sinks.stream()
+        .mapToInt(sink -> exporter.getMaxRowCount(sink.getWriter().getFormat())).toArray();
+    int maxRowCount = IntStream.of(maxRowCounts).max().orElse(0);
+
+    // the footer aggregates are shared by the sinks with the same row limit
+    Map<Integer, FooterAggregator<T>> aggregators = new HashMap<>();
+    for (int limit : maxRowCounts) {
+      aggregators.computeIfAbsent(limit,
+          k -> FooterAggregator.create(columns, this::transformToType));
+    }
+
+    long rowCount = 0;
+    try (Stream<Row<T>> rows = extractRows(items.get(), columns, maxRowCount + 1L)) {
+      for (Row<T> row : (Iterable<Row<T>>) rows::iterator) {
+        if (++rowCount > maxRowCount) {
+          break;
+        }
+        if (delta != null) {
+          delta.accept(row.item);
+        }
+        for (int i = 0; i < sinks.size(); i++) {
+          if (rowCount <= maxRowCounts[i]) {
+            sinks.get(i).appendRow(row.item, row.values);
+          }
+        }
+        for (Map.Entry<Integer, FooterAggregator<T>> aggregator : aggregators.entrySet()) {
+          if (rowCount <= aggregator.getKey()) {
+            aggregator.getValue().accept(row.values);
+          }
+        }
+      }
+    }
+
+    for (int i = 0; i < sinks.size(); i++) {
+      if (rowCount > maxRowCounts[i]) {
+        // the row count was not known in advance (or was not checked before rendering)
+        if (exporter.getRowLimitPolicy() == RowLimitPolicy.REJECT) {
+          ExportFormat format = sinks.get(i).getWriter().getFormat();
+          exporter.fireRowLimitExceeded(format, -1);
+          throw new IOException("The export exceeds the maximum row count for " + format);
+        }
+        sinks.get(i).appendNotice(exporter.formatRowLimitNotice(maxRowCounts[i]));
+      }
+    }
+
+    for (int i = 0; i < sinks.size(); i++) {
+      sinks.get(i).footerAggregator = aggregators.get(maxRowCounts[i]);
+      sinks.get(i).end();
+    }
+    return rowCount;
+  }
+
+  /**
+   * Extracts the values of the given columns for the items, either in the calling thread or, if
+   * {@linkplain GridExporter#setParallelValueExtractionEnabled(boolean) parallel value extraction}
+   * is enabled, on the value extraction executor. The rows are returned in the order of the items.
+   */
+  private Stream<Row<T>> extractRows(Stream<T> items, List<Column<T>> columns, long limit) {
+    if (!exporter.isParallelValueExtractionEnabled()) {
+      return items.limit(limit).map(item -> new Row<>(item, extractRow(item, columns)));
+    }
+
+    Executor executor = exporter.getValueExtractionExecutor();
+    int parallelism;
+    if (executor instanceof ForkJoinPool) {
+      parallelism = ((ForkJoinPool) executor).getParallelism();
+    } else if (executor instanceof ThreadPoolExecutor) {
+      parallelism = ((ThreadPoolExecutor) executor).getMaximumPoolSize();
+    } else {
+      parallelism = Runtime.getRuntime().availableProcessors();
+    }
+    // keep the workers busy while the batch at the head is being written
+    ParallelRowMaterializer<T> materializer = new ParallelRowMaterializer<>(items.iterator(),
+        item -> extractRow(item, columns), executor, exporter.getValueExtractionBatchSize(),
+        2 * parallelism, limit);
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(materializer, Spliterator.ORDERED), false)
+        .onClose(materializer::close)
+        .onClose(items::close);
+  }
+
+  /** Extracts the values of the given columns for an item. */
+  private Object[] extractRow(T item, List<Column<T>> columns) {
+    if (columns.isEmpty()) {
+      throw new IllegalStateException("Grid has no columns");
+    }
+
+    Object[] values = new Object[columns.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = exporter.extractValueFromColumn(item, columns.get(i));
+    }
+    return values;
+  }
+
+  /**
+   * Parses a string value into a number or date, according to the parsing format configured for
+   * its column (if any).
+   */
+  protected Object transformToType(Object value, Column<T> column) {
+    Object result = value;
+    if (value instanceof String && StringUtils.isNotBlank((String) value)) {
+      String stringValue = (String) value;
+      try {
+        if (ComponentUtil.getData(column, GridExporter.COLUMN_PARSING_FORMAT_PATTERN_DATA)
+            != null) {
+          switch ((String) ComponentUtil.getData(column, GridExporter.COLUMN_TYPE_DATA)) {
+            case GridExporter.COLUMN_TYPE_NUMBER:
+              DecimalFormat decimalFormat =
+                  (DecimalFormat)
+                      ComponentUtil.getData(
+                          column, GridExporter.COLUMN_PARSING_FORMAT_PATTERN_DATA);
+              decimalFormat.setParseBigDecimal(true);
+              result = decimalFormat.parse(stringValue).doubleValue();
+              break;
+            case GridExporter.COLUMN_TYPE_DATE:
+              result =
+                  ((DateFormat)
+                          ComponentUtil.getData(
+                              column, GridExporter.COLUMN_PARSING_FORMAT_PATTERN_DATA))
+                      .parse(stringValue);
+              break;
+          }
+        }
+      } catch (ParseException e) {
+        throw new IllegalStateException("Problem parsing grid cell value", e);
+      }
+    }
+    return result;
+  }
+
   /**
    * If a column was configured to be exported or not, that will be honored. If not, it will
    * exported based on the visibility
@@ -75,20 +418,31 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
    * @return
    */
   protected boolean isExportable(Grid.Column<T> column) {
-    Boolean exported =
-        (Boolean) ComponentUtil.getData(column, GridExporter.COLUMN_EXPORTED_PROVIDER_DATA);
-    return exported != null ? exported : column.isVisible();
+    return exporter.isExportable(column);
   }
 
-  @SuppressWarnings({"unchecked", "rawtypes"})
+  @SuppressWarnings("rawtypes")
   protected Stream<T> getDataStream(Query newQuery) {
-    Stream<T> stream = exporter.getGrid().getDataProvider().fetch(newQuery);
+    return getDataStream(exporter.getGrid().getDataProvider(), newQuery);
+  }
+
+  /** Fetches the items of a query from the given data provider, without accessing the grid. */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <T> Stream<T> getDataStream(DataProvider dataProvider, Query newQuery) {
+    Stream<T> stream;
+    if (newQuery instanceof GridExportQuery) {
+      stream = ((GridExportQuery<?, ?>) newQuery).fetch(() -> dataProvider.fetch(newQuery));
+    } else {
+      stream = dataProvider.fetch(newQuery);
+    }
     if (stream.isParallel()) {
       LoggerFactory.getLogger(DataCommunicator.class)
           .debug(
               "Data provider {} has returned " + "parallel stream on 'fetch' call",
-              exporter.getGrid().getDataProvider().getClass());
-      stream = stream.collect(Collectors.toList()).stream();
+              dataProvider.getClass());
+      try (Stream<T> parallel = stream) {
+        stream = parallel.collect(Collectors.toList()).stream();
+      }
       assert !stream.isParallel();
     }
     return stream;
@@ -100,6 +454,32 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns unique names for the exported columns (in export order), for formats that identify
+   * the columns by name. The name of a column is its key or, if the column has no key, its header.
+   */
+  protected List<String> getColumnNames() {
+    List<Column<T>> columns = exporter.getColumnsOrdered();
+    List<GridHeader<T>> headers = getGridHeaders(exporter.getGrid());
+    List<String> names = new ArrayList<>();
+    Set<String> usedNames = new HashSet<>();
+    for (int i = 0; i < columns.size(); i++) {
+      String name = columns.get(i).getKey();
+      if (StringUtils.isBlank(name)) {
+        name = headers.get(i).getText();
+      }
+      if (StringUtils.isBlank(name)) {
+        name = "column" + (i + 1);
+      }
+      String uniqueName = name;
+      for (int n = 2; !usedNames.add(uniqueName); n++) {
+        uniqueName = name + "_" + n;
+      }
+      names.add(uniqueName);
+    }
+    return names;
+  }
+
   private GridHeader<T> getGridHeader(Grid<T> grid, Column<T> column) {
       List<String> headerTexts = new ArrayList<>();
       List<HeaderRow> headerRows = grid.getHeaderRows();
@@ -113,14 +493,19 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
   }
 
   protected List<GridFooter<T>> getGridFooters(Grid<T> grid) {
-    return exporter.getColumnsOrdered().stream()
-        .map(
-            column ->
-                new GridFooter<>(
-                renderFooterCellTextContent(grid, column), column
-                    )
-            )
-        .collect(Collectors.toList());
+    return getGridFooters(grid, null);
+  }
+
+  private List<GridFooter<T>> getGridFooters(Grid<T> grid, FooterAggregator<T> aggregator) {
+    List<Column<T>> columns = exporter.getColumnsOrdered();
+    List<GridFooter<T>> footers = new ArrayList<>(columns.size());
+    for (int i = 0; i < columns.size(); i++) {
+      String text = aggregator != null && aggregator.getAggregate(i) != null
+          ? aggregator.getText(i)
+          : renderFooterCellTextContent(grid, columns.get(i));
+      footers.add(new GridFooter<>(text, columns.get(i)));
+    }
+    return footers;
   }
 
   private String obtainCellFunction(HeaderCell headerCell, Column<T> column) {
@@ -183,38 +568,180 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
 
   protected Stream<T> obtainDataStream(DataProvider<T, ?> dataProvider) {
     Grid<T> grid = exporter.getGrid();
-
-    Object filter = null;
-    try {
-      Method method = DataCommunicator.class.getDeclaredMethod("getFilter");
-      method.setAccessible(true);
-      filter = method.invoke(grid.getDataCommunicator());
-    } catch (Exception e) {
-      LOGGER.error("Unable to get filter from DataCommunicator", e);
-    }
+    Object filter = exporter.getExportFilter();
 
     Stream<T> dataStream;
 
+    if (exporter.getExportScope() == ExportScope.SELECTED) {
+      return obtainSelectedDataStream(grid);
+    } else if (exporter.getExportScope() == ExportScope.VIEWPORT) {
+      return obtainViewportDataStream(grid);
+    }
+
     // special handling for hierarchical data provider
     if (grid.getDataProvider() instanceof HierarchicalDataProvider) {
       return obtainFlattenedHierarchicalDataStream(grid);
-    } else if (dataProvider instanceof AbstractBackEndDataProvider) {
-      GridLazyDataView<T> gridLazyDataView = grid.getLazyDataView();
-      dataStream = gridLazyDataView.getItems();
+    } else if (exporter.getReactiveDataSource() != null) {
+      dataStream = obtainPublishedDataStream(exporter.getReactiveDataSource(), filter);
+    } else if (exporter.getKeysetPagination() != null) {
+      dataStream = obtainKeysetPagedDataStream(exporter.getKeysetPagination(), filter);
+    } else if (dataProvider instanceof AbstractBackEndDataProvider
+        && exporter.getExportFetchParallelism() > 1) {
+      dataStream = obtainParallelPagedDataStream(filter);
+    } else if (dataProvider instanceof ListDataProvider) {
+      dataStream = obtainListDataStream((ListDataProvider<T>) dataProvider, filter);
     } else {
-      @SuppressWarnings({"rawtypes", "unchecked"})
-      Query<T, ?> streamQuery =
-          new Query<>(
-              0,
-              grid.getDataProvider().size(new Query(filter)),
-              grid.getDataCommunicator().getBackEndSorting(),
-              grid.getDataCommunicator().getInMemorySorting(),
-              filter);
-      dataStream = getDataStream(streamQuery);
+      // fetch all the items with a single query (with the filter of the grid, unless the export
+      // scope is ALL), without sizing them first
+      dataStream = getDataStream(new GridExportQuery<>(
+          0,
+          Integer.MAX_VALUE,
+          grid.getDataCommunicator().getBackEndSorting(),
+          grid.getDataCommunicator().getInMemorySorting(),
+          filter,
+          exporter,
+          true));
     }
     return dataStream;
   }
 
+  /**
+   * Fetches the items in pages of {@linkplain GridExporter#setExportPageSize(int) export page
+   * size} items, continuing each page from the last item of the previous one. All the pages are
+   * queried with the sort orders that the grid had when the stream was obtained.
+   */
+  @SuppressWarnings("unchecked")
+  private <F> Stream<T> obtainKeysetPagedDataStream(KeysetPagination<T, F> pagination,
+      Object filter) {
+    DataCommunicator<T> dataCommunicator = exporter.getGrid().getDataCommunicator();
+    List<QuerySortOrder> sortOrders = dataCommunicator.getBackEndSorting();
+    SerializableComparator<T> inMemorySorting = dataCommunicator.getInMemorySorting();
+    KeysetPageIterator<T, F> iterator = new KeysetPageIterator<>(pagination,
+        limit -> new GridExportQuery<>(0, limit, sortOrders, inMemorySorting, (F) filter,
+            exporter, true),
+        exporter.getExportPageSize());
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+  }
+
+  /**
+   * Fetches pages of {@linkplain GridExporter#setExportPageSize(int) export page size} items
+   * concurrently, with up to {@linkplain GridExporter#setExportFetchParallelism(int) export fetch
+   * parallelism} pages in flight. The pending pages are cancelled when the stream is closed.
+   * <p>
+   * The pages are fetched without holding the session lock, so the data provider and the sort
+   * orders are captured here, and the page queries don't access the grid.
+   */
+  private Stream<T> obtainParallelPagedDataStream(Object filter) {
+    Grid<T> grid = exporter.getGrid();
+    DataProvider<T, ?> dataProvider = grid.getDataProvider();
+    List<QuerySortOrder> sortOrders = grid.getDataCommunicator().getBackEndSorting();
+    SerializableComparator<T> inMemorySorting = grid.getDataCommunicator().getInMemorySorting();
+    int pageSize = exporter.getExportPageSize();
+    ParallelPageIterator<T> iterator = new ParallelPageIterator<>(
+        offset -> getDataStream(dataProvider, new GridExportQuery<>(offset, pageSize, sortOrders,
+            inMemorySorting, filter, exporter, true)),
+        pageSize, exporter.getValueExtractionExecutor(), exporter.getExportFetchParallelism());
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Returns the selected items, sorted by the in-memory sorting of the grid, or else by the
+   * comparators of the sorted columns. Nothing is fetched from the data provider.
+   */
+  private Stream<T> obtainSelectedDataStream(Grid<T> grid) {
+    List<T> items = new ArrayList<>(grid.getSelectedItems());
+    Comparator<T> comparator = grid.getDataCommunicator().getInMemorySorting();
+    if (comparator == null) {
+      comparator = grid.getSortOrder().stream()
+          .<Comparator<T>>map(order -> order.getSorted().getComparator(order.getDirection()))
+          .filter(Objects::nonNull)
+          .reduce(Comparator::thenComparing).orElse(null);
+    }
+    if (comparator != null) {
+      items.sort(comparator);
+    }
+    return items.stream();
+  }
+
+  /**
+   * Returns the rows in the range requested by the client, as they are indexed by the data
+   * communicator (i.e. with the filter and the sort order of the grid, and the expanded items of
+   * a tree grid).
+   */
+  private Stream<T> obtainViewportDataStream(Grid<T> grid) {
+    DataCommunicator<T> dataCommunicator = grid.getDataCommunicator();
+    int[] range = exporter.getRequestedRange();
+    int end = Math.min(range[1], dataCommunicator.getItemCount());
+    // the viewport is small: take the items now, instead of while the rows are rendered
+    List<T> items = IntStream.range(Math.min(range[0], end), end)
+        .mapToObj(dataCommunicator::getItem).collect(Collectors.toList());
+    return items.stream();
+  }
+
+  /**
+   * Subscribes to the publisher of the reactive data source, requesting {@linkplain
+   * GridExporter#setExportPageSize(int) export page size} items at once. The subscription is
+   * cancelled when the stream is closed.
+   */
+  @SuppressWarnings("unchecked")
+  private <F> Stream<T> obtainPublishedDataStream(ReactiveDataSource<T, F> source, Object filter) {
+    DataCommunicator<T> dataCommunicator = exporter.getGrid().getDataCommunicator();
+    GridExportQuery<T, F> query = new GridExportQuery<>(0, Integer.MAX_VALUE,
+        dataCommunicator.getBackEndSorting(), dataCommunicator.getInMemorySorting(), (F) filter,
+        exporter, true);
+    PublisherIterator<T> iterator = PublisherIterator
+        .subscribe(query.fetch(() -> source.publish(query)), exporter.getExportPageSize());
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Filters and sorts a snapshot of the items of a list data provider in place, with the same
+   * semantics as {@link ListDataProvider#fetch(Query)}, but without counting the items first. Large
+   * lists are filtered and sorted in parallel if {@linkplain
+   * GridExporter#setParallelValueExtractionEnabled(boolean) parallel value extraction} is enabled.
+   * With {@link ExportScope#ALL}, the filter of the data provider is ignored as well, but the items
+   * are still sorted.
+   */
+  @SuppressWarnings("unchecked")
+  private Stream<T> obtainListDataStream(ListDataProvider<T> dataProvider, Object filter) {
+    T[] items = (T[]) dataProvider.getItems().toArray();
+    boolean parallel = exporter.isParallelValueExtractionEnabled()
+        && items.length >= PARALLEL_IN_MEMORY_THRESHOLD;
+
+    Predicate<T> listFilter =
+        exporter.getExportScope() == ExportScope.ALL ? null : dataProvider.getFilter();
+    Predicate<T> predicate = Stream.<Predicate<T>>of(listFilter, (Predicate<T>) filter)
+        .filter(Objects::nonNull).reduce(Predicate::and).orElse(null);
+    int size = items.length;
+    if (predicate != null && parallel) {
+      items = (T[]) Arrays.stream(items).parallel().filter(predicate).toArray();
+      size = items.length;
+    } else if (predicate != null) {
+      size = 0;
+      for (T item : items) {
+        if (predicate.test(item)) {
+          items[size++] = item;
+        }
+      }
+    }
+
+    Comparator<T> comparator = Stream.<Comparator<T>>of(
+        exporter.getGrid().getDataCommunicator().getInMemorySorting(),
+        dataProvider.getSortComparator())
+        .filter(Objects::nonNull).reduce(Comparator::thenComparing).orElse(null);
+    if (comparator != null && parallel) {
+      Arrays.parallelSort(items, 0, size, comparator);
+    } else if (comparator != null) {
+      Arrays.sort(items, 0, size, comparator);
+    }
+    return Arrays.stream(items, 0, size);
+  }
+
   private Stream<T> obtainFlattenedHierarchicalDataStream(final Grid<T> grid) {
     ArrayList<T> flattenedData = fetchDataRecursive(grid, null);
     return flattenedData.stream();
@@ -243,7 +770,9 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
                 parent));
 
     if (childCount > 0) {
-      hDataProvider
+      // close the stream of children before descending, so that no more than one is open
+      List<T> children;
+      try (Stream<T> stream = hDataProvider
           .fetchChildren(
               new HierarchicalQuery<>(
                   0,
@@ -253,12 +782,14 @@ abstract class BaseStreamResourceWriter<T> implements StreamResourceWriter {
                       .collect(Collectors.toList()),
                   grid.getDataCommunicator().getInMemorySorting(),
                   null,
-                  parent))
-          .forEach(
-              child -> {
-                ArrayList<T> subTree = fetchDataRecursive(grid, child);
-                result.addAll(subTree);
-              });
+                  parent))) {
+        children = stream.collect(Collectors.toList());
+      }
+      children.forEach(
+          child -> {
+            ArrayList<T> subTree = fetchDataRecursive(grid, child);
+            result.addAll(subTree);
+          });
     }
 
     return result;
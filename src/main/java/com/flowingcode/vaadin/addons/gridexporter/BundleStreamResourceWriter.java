@@ -0,0 +1,103 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+/**
+ * A {@link StreamResourceWriter} that exports the grid in several formats at once, and writes them
+ * into a ZIP archive. The data is fetched and the values of each row are extracted only once, and
+ * then appended to the documents of all the formats.
+ */
+@SuppressWarnings("serial")
+class BundleStreamResourceWriter<T> implements StreamResourceWriter {
+
+  private final List<BaseStreamResourceWriter<T>> writers;
+  private final List<String> entryNames;
+
+  /**
+   * Creates a new bundle writer.
+   *
+   * @param writers the writers of each format
+   * @param entryNames the names of the archive entries, in the same order as the writers
+   */
+  BundleStreamResourceWriter(List<BaseStreamResourceWriter<T>> writers, List<String> entryNames) {
+    if (writers.isEmpty() || writers.size() != entryNames.size()) {
+      throw new IllegalArgumentException();
+    }
+    this.writers = writers;
+    this.entryNames = entryNames;
+  }
+
+  @Override
+  public void accept(OutputStream out, VaadinSession session) throws IOException {
+    List<BaseStreamResourceWriter<T>.ExportSink> sinks = new ArrayList<>();
+    for (BaseStreamResourceWriter<T> writer : writers) {
+      sinks.add(writer.createSink());
+    }
+
+    try {
+      writers.get(0).render(session, sinks);
+    } catch (IOException | RuntimeException e) {
+      sinks.forEach(sink -> sink.dispose());
+      throw e;
+    }
+
+    // The first document is written directly into the archive, while the others are written
+    // concurrently into buffers.
+    List<CompletableFuture<SpillBuffer>> buffers = new ArrayList<>();
+    Executor executor = writers.get(0).exporter.getValueExtractionExecutor();
+    for (BaseStreamResourceWriter<T>.ExportSink sink : sinks.subList(1, sinks.size())) {
+      buffers.add(sink.writeAsync(executor));
+    }
+
+    try {
+      ZipOutputStream zip = new ZipOutputStream(out);
+      zip.putNextEntry(new ZipEntry(entryNames.get(0)));
+      try {
+        sinks.get(0).write(CloseShieldOutputStream.wrap(zip));
+      } finally {
+        sinks.get(0).dispose();
+      }
+      zip.closeEntry();
+      for (int i = 1; i < sinks.size(); i++) {
+        SpillBuffer buffer = BaseStreamResourceWriter.join(buffers.get(i - 1));
+        zip.putNextEntry(new ZipEntry(entryNames.get(i)));
+        buffer.writeTo(zip);
+        zip.closeEntry();
+      }
+      zip.finish();
+    } finally {
+      // discard the buffers when they complete, even if the archive was not completed
+      buffers.forEach(future -> future.thenAccept(SpillBuffer::discard));
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link StreamResourceWriter} that serves exports from the {@link GridExporterCache} configured
+ * in the exporter, and stores the exports rendered by its delegate into the cache.
+ */
+@SuppressWarnings("serial")
+class CachingStreamResourceWriter implements StreamResourceWriter {
+
+  private final GridExporter<?> exporter;
+  private final StreamResourceWriter delegate;
+  private final String format;
+  private final String template;
+
+  CachingStreamResourceWriter(GridExporter<?> exporter, StreamResourceWriter delegate,
+      String format, String template) {
+    this.exporter = exporter;
+    this.delegate = delegate;
+    this.format = format;
+    this.template = template;
+  }
+
+  /** Returns the exporter whose cache is used by this writer. */
+  GridExporter<?> getExporter() {
+    return exporter;
+  }
+
+  /** Returns the export cache, or {@code null} if exports are not cached. */
+  private GridExporterCache getCache() {
+    // the content of a delta export depends on the token, and it must produce a new token
+    return exporter.getDeltaVersionProvider() == null ? exporter.getExportCache() : null;
+  }
+
+  /** Returns the key that identifies the export for the current state of the grid. */
+  GridExporterCache.Key createKey(VaadinSession session) {
+    return exporter.createCacheKey(session, format, template);
+  }
+
+  /**
+   * Returns the cached export for the current state of the grid, or {@code null} if the export is
+   * not cached.
+   */
+  byte[] getCachedContent(VaadinSession session) {
+    GridExporterCache cache = getCache();
+    if (cache == null) {
+      return null;
+    }
+    return cache.get(createKey(session));
+  }
+
+  @Override
+  public void accept(OutputStream out, VaadinSession session) throws IOException {
+    GridExporterCache cache = getCache();
+    if (cache == null) {
+      delegate.accept(out, session);
+      return;
+    }
+
+    GridExporterCache.Key key = createKey(session);
+    byte[] content = cache.get(key);
+    if (content != null) {
+      out.write(content);
+      return;
+    }
+
+    cache.recordMiss();
+    CapturingOutputStream capture = new CapturingOutputStream(out, cache.getMaxSize());
+    delegate.accept(capture, session);
+    content = capture.getCapturedContent();
+    if (content != null) {
+      cache.put(key, content);
+    }
+  }
+
+  /**
+   * An output stream that keeps a copy of the written bytes, unless they exceed the given limit.
+   */
+  private static final class CapturingOutputStream extends FilterOutputStream {
+
+    private final long limit;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    CapturingOutputStream(OutputStream out, long limit) {
+      super(out);
+      this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      if (reserve(1)) {
+        buffer.write(b);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      if (reserve(len)) {
+        buffer.write(b, off, len);
+      }
+    }
+
+    /** Discards the captured content if it would exceed the limit after writing len bytes. */
+    private boolean reserve(int len) {
+      if (buffer != null && buffer.size() + (long) len > limit) {
+        buffer = null;
+      }
+      return buffer != null;
+    }
+
+    byte[] getCapturedContent() {
+      return buffer == null ? null : buffer.toByteArray();
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+/**
+ * An aggregate computed over the exported values of a column, and written into its footer.
+ *
+ * @see GridExporter#setFooterAggregate(com.vaadin.flow.component.grid.Grid.Column,
+ *      ColumnAggregate)
+ * @since 3.2.0
+ */
+public enum ColumnAggregate {
+
+  /** The sum of the numeric values. */
+  SUM,
+
+  /** The average of the numeric values. */
+  AVG,
+
+  /**
+   * The minimum value (numbers, dates or any other comparable values). Numeric strings are
+   * compared as numbers.
+   */
+  MIN,
+
+  /**
+   * The maximum value (numbers, dates or any other comparable values). Numeric strings are
+   * compared as numbers.
+   */
+  MAX,
+
+  /** The number of non-null values (blank strings are not counted either). */
+  COUNT,
+
+  /**
+   * An estimate of the number of distinct non-null values. The estimate uses a fixed amount of
+   * memory, and its typical error is below 1%.
+   */
+  DISTINCT_COUNT;
+
+}
@@ -0,0 +1,89 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+/**
+ * A {@link StreamResourceWriter} that compresses the output of its delegate as it is written.
+ */
+@SuppressWarnings("serial")
+class CompressingStreamResourceWriter implements StreamResourceWriter {
+
+  private final StreamResourceWriter delegate;
+  private final FileCompression compression;
+  private final int level;
+  private final String entryName;
+
+  /**
+   * Creates a new compressing writer.
+   *
+   * @param delegate the writer whose output is compressed
+   * @param compression the compression to apply
+   * @param level the compression level (0-9, or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION})
+   * @param entryName the name of the file stored in the archive, when compressing with
+   *        {@link FileCompression#ZIP}
+   */
+  CompressingStreamResourceWriter(StreamResourceWriter delegate, FileCompression compression,
+      int level, String entryName) {
+    this.delegate = delegate;
+    this.compression = compression;
+    this.level = level;
+    this.entryName = entryName;
+  }
+
+  @Override
+  public void accept(OutputStream out, VaadinSession session) throws IOException {
+    switch (compression) {
+      case GZIP:
+        GZIPOutputStream gzip = newGzipOutputStream(out, level);
+        delegate.accept(CloseShieldOutputStream.wrap(gzip), session);
+        gzip.finish();
+        break;
+      case ZIP:
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(level);
+        zip.putNextEntry(new ZipEntry(entryName));
+        delegate.accept(CloseShieldOutputStream.wrap(zip), session);
+        zip.closeEntry();
+        zip.finish();
+        break;
+      default:
+        delegate.accept(out, session);
+    }
+  }
+
+  /** Creates a {@link GZIPOutputStream} with the given compression level. */
+  static GZIPOutputStream newGzipOutputStream(OutputStream out, int level) throws IOException {
+    return new GZIPOutputStream(out, 8192) {
+      {
+        def.setLevel(level);
+      }
+    };
+  }
+
+}
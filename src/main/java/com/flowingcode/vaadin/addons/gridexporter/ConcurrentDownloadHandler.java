@@ -23,7 +23,12 @@ import com.vaadin.flow.server.streams.DownloadHandler;
 import com.vaadin.flow.server.streams.DownloadEvent;
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.nio.channels.InterruptedByTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
 
 /**
  * An implementation of {@link DownloadHandler} that controls access to the
@@ -62,6 +67,10 @@ abstract class ConcurrentDownloadHandler extends ConcurrentOperationBase impleme
    * will be acquired from the semaphore, if one becomes available within the
    * given waiting time and
    * the current thread has not been {@linkplain Thread#interrupt interrupted}.
+   * <p>
+   * If {@linkplain GridExporterConcurrentSettings#setVirtualThreadsEnabled(boolean) virtual
+   * threads are enabled}, the permit is acquired and the download is rendered on a virtual thread,
+   * and the current thread only writes the rendered content into the response.
    *
    * @param event the download event containing the output stream and session
    * @throws IOException                   if an IO error occurred
@@ -71,7 +80,74 @@ abstract class ConcurrentDownloadHandler extends ConcurrentOperationBase impleme
    */
   @Override
   public final void handleDownloadRequest(DownloadEvent event) throws IOException {
-    runWithSemaphore(event.getSession(), () -> delegate.handleDownloadRequest(event));
+    if (tryHandleWithoutPermits(event)) {
+      return;
+    }
+
+    ExecutorService executor = virtualThreadExecutor;
+    if (executor == null) {
+      runWithSemaphore(event.getSession(), () -> delegate.handleDownloadRequest(event));
+    } else {
+      SpillBuffer buffer = renderOnVirtualThread(executor, event.getSession(), out -> {
+        BufferedDownloadEvent bufferedEvent = new BufferedDownloadEvent(event, out);
+        delegate.handleDownloadRequest(bufferedEvent);
+        bufferedEvent.flush();
+      });
+      try {
+        buffer.writeTo(event.getOutputStream());
+      } finally {
+        buffer.discard();
+      }
+    }
+  }
+
+  /**
+   * Attempts to handle the download request before acquiring any permit from the semaphore (for
+   * instance, by serving a previously rendered export). The default implementation does nothing.
+   * <p>
+   * Note that the method is not called under the session lock.
+   *
+   * @param event the download event containing the output stream and session
+   * @return {@code true} if the request was handled, {@code false} if it must be handled by the
+   *         delegate
+   * @throws IOException if an IO error occurred
+   */
+  protected boolean tryHandleWithoutPermits(DownloadEvent event) throws IOException {
+    return false;
+  }
+
+  /**
+   * A download event that sets the headers of the response, but writes the content into another
+   * output stream.
+   */
+  private static final class BufferedDownloadEvent extends DownloadEvent {
+
+    private final OutputStream out;
+    private PrintWriter writer;
+
+    BufferedDownloadEvent(DownloadEvent event, OutputStream out) {
+      super(event.getRequest(), event.getResponse(), event.getSession(), event.getOwningElement());
+      this.out = out;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return out;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+      if (writer == null) {
+        writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      }
+      return writer;
+    }
+
+    void flush() {
+      if (writer != null) {
+        writer.flush();
+      }
+    }
   }
 
 }
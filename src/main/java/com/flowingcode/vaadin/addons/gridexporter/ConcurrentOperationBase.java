@@ -20,11 +20,18 @@
 package com.flowingcode.vaadin.addons.gridexporter;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.server.VaadinSession;
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.nio.channels.InterruptedByTimeoutException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
@@ -48,6 +55,7 @@ abstract class ConcurrentOperationBase {
   static final ConfigurableSemaphore semaphore = new ConfigurableSemaphore();
   static volatile boolean enabled;
   static volatile boolean failOnUiChange;
+  static volatile ExecutorService virtualThreadExecutor;
 
   static final class ConfigurableSemaphore extends Semaphore {
 
@@ -110,6 +118,29 @@ abstract class ConcurrentOperationBase {
     ConcurrentOperationBase.failOnUiChange = failOnUiChange;
   }
 
+  /**
+   * Configures whether waiting for permits and rendering the operations is done on virtual threads.
+   *
+   * @throws UnsupportedOperationException if virtual threads are not supported by the runtime
+   */
+  static synchronized void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+    if (!virtualThreadsEnabled) {
+      virtualThreadExecutor = null;
+    } else if (virtualThreadExecutor == null) {
+      // Executors.newVirtualThreadPerTaskExecutor is only available since Java 21
+      try {
+        virtualThreadExecutor = (ExecutorService) Executors.class
+            .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later", e);
+      }
+    }
+  }
+
+  static boolean isVirtualThreadsEnabled() {
+    return virtualThreadExecutor != null;
+  }
+
   /**
    * Returns the limit for the number of concurrent operations.
    *
@@ -217,6 +248,58 @@ abstract class ConcurrentOperationBase {
     void run() throws IOException;
   }
 
+  @FunctionalInterface
+  protected interface OutputTask {
+    void write(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Waits for the permits and renders the output of the task into a {@link SpillBuffer} on a
+   * virtual thread, with the same current instances (e.g. the current session) as the calling
+   * thread. The calling thread waits for the rendered buffer, which it must write into the response
+   * and then discard. If the calling thread is interrupted, the virtual thread is interrupted as
+   * well.
+   */
+  protected SpillBuffer renderOnVirtualThread(ExecutorService executor, VaadinSession session,
+      OutputTask task) throws IOException {
+    Map<Class<?>, CurrentInstance> instances = CurrentInstance.getInstances();
+    Future<SpillBuffer> future = executor.submit(() -> {
+      CurrentInstance.restoreInstances(instances);
+      SpillBuffer buffer = new SpillBuffer();
+      try {
+        runWithSemaphore(session, () -> task.write(buffer));
+        buffer.close();
+        if (Thread.interrupted()) {
+          throw new InterruptedIOException();
+        }
+        return buffer;
+      } catch (IOException | RuntimeException | Error e) {
+        buffer.discard();
+        throw e;
+      } finally {
+        CurrentInstance.clearAll();
+      }
+    });
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw (IOException) new InterruptedIOException().initCause(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
   protected void runWithSemaphore(VaadinSession session, RunnableWithIOException task)
       throws IOException {
     onAccept();
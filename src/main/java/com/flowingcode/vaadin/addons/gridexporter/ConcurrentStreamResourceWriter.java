@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.channels.InterruptedByTimeoutException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * An implementation of {@link StreamResourceWriter} that controls access to the
@@ -73,6 +74,10 @@ abstract class ConcurrentStreamResourceWriter extends ConcurrentOperationBase im
    * will be acquired from the semaphore, if one becomes available within the
    * given waiting time and
    * the current thread has not been {@linkplain Thread#interrupt interrupted}.
+   * <p>
+   * If {@linkplain GridExporterConcurrentSettings#setVirtualThreadsEnabled(boolean) virtual
+   * threads are enabled}, the permit is acquired and the data is rendered on a virtual thread, and
+   * the current thread only writes the rendered data into {@code stream}.
    *
    * @param stream  data output stream
    * @param session vaadin session
@@ -83,7 +88,18 @@ abstract class ConcurrentStreamResourceWriter extends ConcurrentOperationBase im
    */
   @Override
   public final void accept(OutputStream stream, VaadinSession session) throws IOException {
-    runWithSemaphore(session, () -> delegate.accept(stream, session));
+    ExecutorService executor = virtualThreadExecutor;
+    if (executor == null) {
+      runWithSemaphore(session, () -> delegate.accept(stream, session));
+    } else {
+      SpillBuffer buffer =
+          renderOnVirtualThread(executor, session, out -> delegate.accept(out, session));
+      try {
+        buffer.writeTo(stream);
+      } finally {
+        buffer.discard();
+      }
+    }
   }
 
 }
@@ -21,14 +21,12 @@
 package com.flowingcode.vaadin.addons.gridexporter;
 
 import com.opencsv.CSVWriter;
-import com.vaadin.flow.component.grid.Grid;
-import com.vaadin.flow.server.VaadinSession;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,64 +44,65 @@ class CsvStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
   }
 
   @Override
-  public void accept(OutputStream out, VaadinSession session) throws IOException {
+  ExportFormat getFormat() {
+    return ExportFormat.CSV;
+  }
+
+  @Override
+  ExportSink createSink() {
+    return new CsvExportSink();
+  }
 
-    String[] headers;
-    List<String[]> data;
-    String[] footers;
+  private class CsvExportSink extends ExportSink {
 
-    session.lock();
-    try {
-      Grid<T> grid = exporter.getGrid();
-      exporter.setColumns(
-          grid.getColumns().stream()
-          .filter(this::isExportable)
-          .collect(Collectors.toList()));
+    private String[] headers;
+    private final List<String[]> data = new ArrayList<>();
+    private String[] footers;
+
+    @Override
+    void begin() {
+      headers = getGridHeaders(exporter.getGrid()).stream()
+          .map(GridHeader::getText)
+          .toArray(String[]::new);
+    }
 
-      headers = getGridHeaders(grid).stream().map(GridHeader::getText).toArray(String[]::new);
-      data = obtainDataStream(grid.getDataProvider())
-          .map(this::buildRow)
-          .collect(Collectors.toList());
-      footers = getGridFooters(grid).stream()
+    @Override
+    void appendRow(T item, Object[] values) {
+      data.add(buildRow(values));
+    }
+
+    @Override
+    void end() {
+      footers = getFooters().stream()
           .map(GridFooter::getText)
           .filter(StringUtils::isNotBlank)
           .toArray(String[]::new);
-    } finally {
-      session.unlock();
     }
 
-    try (
-        OutputStreamWriter os = new OutputStreamWriter(out, exporter.getCsvCharset());
-        CSVWriter writer = new CSVWriter(os)) {
-      if (StandardCharsets.UTF_8.equals(exporter.getCsvCharset())) {
-        // write BOM
-        os.write(0xfeff);
-      }
+    @Override
+    void write(OutputStream out) throws IOException {
+      try (
+          OutputStreamWriter os = new OutputStreamWriter(out, exporter.getCsvCharset());
+          CSVWriter writer = new CSVWriter(os)) {
+        if (StandardCharsets.UTF_8.equals(exporter.getCsvCharset())) {
+          // write BOM
+          os.write(0xfeff);
+        }
 
-      writer.writeNext(headers);
-      writer.writeAll(data);
-      if (footers.length > 0) {
-        writer.writeNext(footers);
+        writer.writeNext(headers);
+        writer.writeAll(data);
+        if (footers.length > 0) {
+          writer.writeNext(footers);
+        }
       }
     }
   }
 
-  private String[] buildRow(T item) {
-
-    if (exporter.getColumns().isEmpty()) {
-      throw new IllegalStateException("Grid has no columns");
+  private String[] buildRow(Object[] values) {
+    String[] result = new String[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = "" + values[i];
     }
-
-    String[] result = new String[exporter.getColumns().size()];
-    int[] currentColumn = new int[1];
-    exporter.getColumnsOrdered().stream()
-        .forEach(
-            column -> {
-              Object value = exporter.extractValueFromColumn(item, column);
-
-              result[currentColumn[0]] = "" + value;
-              currentColumn[0] = currentColumn[0] + 1;
-            });
     return result;
   }
 }
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * Selects the items that changed since the token of a previous delta export, and tracks the
+ * highest version among the exported items, which is the token of the current export.
+ */
+final class DeltaExport<T> {
+
+  private final SerializableFunction<T, ? extends Comparable<?>> versionProvider;
+  private final Comparable<Object> since;
+  private Comparable<Object> highWaterMark;
+
+  @SuppressWarnings("unchecked")
+  DeltaExport(SerializableFunction<T, ? extends Comparable<?>> versionProvider, Object since) {
+    this.versionProvider = versionProvider;
+    this.since = (Comparable<Object>) since;
+    highWaterMark = this.since;
+  }
+
+  /** Returns whether the item changed since the previous export, or has no version. */
+  boolean isChanged(T item) {
+    Comparable<Object> version = version(item);
+    return since == null || version == null || version.compareTo(since) > 0;
+  }
+
+  /** Records the version of an exported item. */
+  void accept(T item) {
+    Comparable<Object> version = version(item);
+    if (version != null && (highWaterMark == null || version.compareTo(highWaterMark) > 0)) {
+      highWaterMark = version;
+    }
+  }
+
+  /** Returns the highest version among the exported items and the previous token. */
+  Object getToken() {
+    return highWaterMark;
+  }
+
+  /** Returns the token of the previous export. */
+  Object getPreviousToken() {
+    return since;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Comparable<Object> version(T item) {
+    return (Comparable<Object>) versionProvider.apply(item);
+  }
+
+}
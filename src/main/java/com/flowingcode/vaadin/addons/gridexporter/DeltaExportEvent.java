@@ -0,0 +1,84 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.EventObject;
+import java.util.Objects;
+
+/**
+ * An event that is fired when a delta export has been rendered. It carries the token that selects
+ * the rows changed after this export, which should be passed to {@link
+ * GridExporter#setDeltaToken(Object)} before the next delta export.
+ *
+ * @see GridExporter#setDeltaVersionProvider(com.vaadin.flow.function.SerializableFunction)
+ * @since 3.2.0
+ */
+@SuppressWarnings("serial")
+public class DeltaExportEvent extends EventObject {
+
+  private final Object previousToken;
+  private final Object token;
+  private final long rowCount;
+
+  /**
+   * Constructs a new DeltaExportEvent.
+   *
+   * @param source the {@link GridExporter} that is the source of this event
+   * @param previousToken the token the export started from, or {@code null} for a full export
+   * @param token the token of this export
+   * @param rowCount the number of exported rows
+   * @throws IllegalArgumentException if source is null
+   */
+  public DeltaExportEvent(
+      GridExporter<?> source, Object previousToken, Object token, long rowCount) {
+    super(Objects.requireNonNull(source));
+    this.previousToken = previousToken;
+    this.token = token;
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * Returns the source of this event.
+   *
+   * @return the {@code GridExporter} that is the source of this event
+   */
+  @Override
+  public GridExporter<?> getSource() {
+    return (GridExporter<?>) super.getSource();
+  }
+
+  /** Returns the token the export started from, or {@code null} if it was a full export. */
+  public Object getPreviousToken() {
+    return previousToken;
+  }
+
+  /**
+   * Returns the token of this export: the highest version among the exported rows, or the
+   * previous token if no row was exported (or if the export was truncated by a row limit).
+   */
+  public Object getToken() {
+    return token;
+  }
+
+  /** Returns the number of exported rows. */
+  public long getRowCount() {
+    return rowCount;
+  }
+}
@@ -22,17 +22,19 @@ package com.flowingcode.vaadin.addons.gridexporter;
 import com.vaadin.flow.component.grid.ColumnTextAlign;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.Grid.Column;
-import com.vaadin.flow.data.provider.DataProvider;
-import com.vaadin.flow.server.VaadinSession;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Calendar;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
@@ -63,162 +65,137 @@ class DocxStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
   }
 
   @Override
-  public void accept(OutputStream out, VaadinSession session) throws IOException {
-    createDoc(session).write(out);
+  ExportFormat getFormat() {
+    return ExportFormat.DOCX;
   }
 
-  protected XWPFDocument createDoc(VaadinSession session) throws IOException {
-    session.lock();
-    try {
-      return createDoc();
-    } finally {
-      session.unlock();
-    }
+  @Override
+  ExportSink createSink() {
+    return new DocxExportSink();
   }
 
-  private XWPFDocument createDoc() throws IOException {
-    Grid<T> grid = exporter.getGrid();
-    exporter.setColumns(
-        grid.getColumns().stream()
-            .filter(this::isExportable)
-            .collect(Collectors.toList()));
+  class DocxExportSink extends ExportSink {
 
-    XWPFDocument doc = getBaseTemplateDoc();
+    private List<Column<T>> columns;
+    private XWPFDocument doc;
+    private XWPFTable table;
+    private XWPFTableCell dataCell;
+    private XWPFTableCell startingCell;
+    private XWPFTableCell footersCell;
+    private boolean firstRow = true;
 
-    doc.getParagraphs()
-        .forEach(
-            paragraph -> {
-              paragraph
-                  .getRuns()
-                  .forEach(
-                      run -> {
-                        String text = run.getText(0);
-                        if (text != null && text.contains(exporter.titlePlaceHolder)) {
-                          text = text.replace(exporter.titlePlaceHolder, exporter.title);
-                          run.setText(text, 0);
-                        }
-                        for (Map.Entry<String, String> entry :
-                            exporter.additionalPlaceHolders.entrySet()) {
-                          if (text != null && text.contains(entry.getKey())) {
-                            text = text.replace(entry.getKey(), entry.getValue());
-                            run.setText(text, 0);
-                          }
-                        }
-                      });
-            });
+    @Override
+    void begin() throws IOException {
+      Grid<T> grid = exporter.getGrid();
+      columns = exporter.getColumnsOrdered();
+      doc = getBaseTemplateDoc();
 
-    XWPFTable table = findTable(doc);
-    PoiHelper.setWonCTTblWidth(table.getCTTbl().getTblPr().getTblW(), "9638");
-    table
-        .getCTTbl()
-        .getTblPr()
-        .getTblW()
-        .setType(
-            org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblWidth.Enum.forString(
-                "dxa"));
-
-    table.getCTTbl().getTblGrid().getGridColList().clear();
-    exporter
-        .getColumnsOrdered()
-        .forEach(
-            col -> {
-              CTTblGridCol cctblgridcol = table.getCTTbl().getTblGrid().addNewGridCol();
-              PoiHelper.setWonCTTblGridCol(
-                  cctblgridcol, "" + Math.round(9638 / exporter.getColumns().size()));
-            });
+      replaceTextPlaceHolders(doc);
+
+      table = findTable(doc);
+      PoiHelper.setWonCTTblWidth(table.getCTTbl().getTblPr().getTblW(), "9638");
+      table
+          .getCTTbl()
+          .getTblPr()
+          .getTblW()
+          .setType(
+              org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblWidth.Enum.forString(
+                  "dxa"));
+
+      table.getCTTbl().getTblGrid().getGridColList().clear();
+      columns.forEach(
+          col -> {
+            CTTblGridCol cctblgridcol = table.getCTTbl().getTblGrid().addNewGridCol();
+            PoiHelper.setWonCTTblGridCol(
+                cctblgridcol, "" + Math.round(9638 / exporter.getColumns().size()));
+          });
+
+      // the footers cell is located before the data rows are inserted, so that it cannot be
+      // confused with a data cell
+      Map<String, XWPFTableCell> cells = findCellsWithPlaceHolders(table);
+      footersCell = cells.get(exporter.footersPlaceHolder);
+
+      List<GridHeader<T>> headers = getGridHeaders(grid);
+      XWPFTableCell cell = cells.get(exporter.headersPlaceHolder);
+      if (cell != null) {
+        fillHeaderOrFooter(table, cell, headers, true, exporter.headersPlaceHolder);
+      }
 
-    List<GridHeader<T>> headers = getGridHeaders(grid);
-    XWPFTableCell cell = findCellWithPlaceHolder(table, exporter.headersPlaceHolder);
-    if (cell != null) {
-      fillHeaderOrFooter(table, cell, headers, true, exporter.headersPlaceHolder);
+      dataCell = cells.get(exporter.dataPlaceHolder);
+      startingCell = dataCell;
     }
 
-    cell = findCellWithPlaceHolder(table, exporter.dataPlaceHolder);
-    fillData(table, cell, grid.getDataProvider());
+    @Override
+    void appendRow(T item, Object[] values) {
+      XWPFTableRow currentRow = startingCell.getTableRow();
+      if (!firstRow) {
+        currentRow =
+            table.insertNewTableRow(
+                dataCell.getTableRow().getTable().getRows().indexOf(startingCell.getTableRow())
+                    + 1);
+        for (int i = 0; i < columns.size(); i++) {
+          // preserve increment for deprecated attribute
+          exporter.totalcells = exporter.totalcells + 1;
+          currentRow.createCell();
+        }
+        startingCell = currentRow.getCell(0);
+      }
+      buildRow(values, columns, currentRow, startingCell, dataCell.getCTTc().getTcPr(), dataCell);
+      firstRow = false;
+    }
 
-    cell = findCellWithPlaceHolder(table, exporter.footersPlaceHolder);
-    List<GridFooter<T>> footers = getGridFooters(grid);
-    if (cell != null) {
-      fillHeaderOrFooter(table, cell, footers, false, exporter.footersPlaceHolder);
+    @Override
+    void end() {
+      List<GridFooter<T>> footers = getFooters();
+      if (footersCell != null) {
+        fillHeaderOrFooter(table, footersCell, footers, false, exporter.footersPlaceHolder);
+      }
     }
-    return doc;
-  }
 
-  private void fillData(XWPFTable table, XWPFTableCell dataCell, DataProvider<T, ?> dataProvider) {
-    Stream<T> dataStream = obtainDataStream(dataProvider);
-
-    boolean[] firstRow = new boolean[] {true};
-    XWPFTableCell[] startingCell = new XWPFTableCell[1];
-    startingCell[0] = dataCell;
-    dataStream.forEach(
-        t -> {
-          XWPFTableRow currentRow = startingCell[0].getTableRow();
-          if (!firstRow[0]) {
-            currentRow =
-                table.insertNewTableRow(
-                    dataCell
-                            .getTableRow()
-                            .getTable()
-                            .getRows()
-                            .indexOf(startingCell[0].getTableRow())
-                        + 1);
-            Iterator<Column<T>> iterator = exporter.getColumns().iterator();
-            while (iterator.hasNext()) {
-              iterator.next();
-              // preserve increment for deprecated attribute
-              exporter.totalcells = exporter.totalcells + 1;
-              currentRow.createCell();
-            }
-            startingCell[0] = currentRow.getCell(0);
-          }
-          buildRow(t, currentRow, startingCell[0], dataCell.getCTTc().getTcPr(), dataCell);
-          firstRow[0] = false;
-        });
+    @Override
+    void write(OutputStream out) throws IOException {
+      doc.write(out);
+    }
   }
 
   private void buildRow(
-      T item,
+      Object[] values,
+      List<Column<T>> columns,
       XWPFTableRow row,
       XWPFTableCell startingCell,
       CTTcPr tcpr,
       XWPFTableCell templateCell) {
 
-    if (exporter.getColumns().isEmpty()) {
-      throw new IllegalStateException("Grid has no columns");
-    }
+    int currentColumn = row.getTableCells().indexOf(startingCell);
+    for (int i = 0; i < values.length; i++) {
+      Column<T> column = columns.get(i);
+      Object value = values[i];
 
-    int[] currentColumn = new int[1];
-    currentColumn[0] = row.getTableCells().indexOf(startingCell);
-    exporter.getColumnsOrdered().stream()
-        .forEach(
-            column -> {
-              Object value = exporter.extractValueFromColumn(item, column);
-
-              XWPFTableCell currentCell = startingCell;
-              if (row.getTableCells().indexOf(startingCell) < currentColumn[0]) {
-                currentCell = startingCell.getTableRow().getCell(currentColumn[0]);
-                if (currentCell == null) {
-                  currentCell = startingCell.getTableRow().createCell();
-                }
-              }
-              PoiHelper.setWidth(currentCell, "" + Math.round(9638 / exporter.getColumns().size()));
-              currentCell.getCTTc().setTcPr(tcpr);
-              currentColumn[0] = currentColumn[0] + 1;
-              buildCell(
-                  value,
-                  currentCell,
-                  templateCell.getParagraphs().iterator().next().getCTP().getPPr(),
-                  templateCell
-                      .getParagraphs()
-                      .iterator()
-                      .next()
-                      .getRuns()
-                      .iterator()
-                      .next()
-                      .getCTR()
-                      .getRPr());
-              setCellAlignment(currentCell, column.getTextAlign());
-            });
+      XWPFTableCell currentCell = startingCell;
+      if (row.getTableCells().indexOf(startingCell) < currentColumn) {
+        currentCell = startingCell.getTableRow().getCell(currentColumn);
+        if (currentCell == null) {
+          currentCell = startingCell.getTableRow().createCell();
+        }
+      }
+      PoiHelper.setWidth(currentCell, "" + Math.round(9638 / exporter.getColumns().size()));
+      currentCell.getCTTc().setTcPr(tcpr);
+      currentColumn++;
+      buildCell(
+          value,
+          currentCell,
+          templateCell.getParagraphs().iterator().next().getCTP().getPPr(),
+          templateCell
+              .getParagraphs()
+              .iterator()
+              .next()
+              .getRuns()
+              .iterator()
+              .next()
+              .getCTR()
+              .getRPr());
+      setCellAlignment(currentCell, column.getTextAlign());
+    }
   }
 
   private void buildCell(Object value, XWPFTableCell cell, CTPPr ctpPr, CTRPr ctrPr) {
@@ -326,15 +303,56 @@ class DocxStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
             });
   }
 
-  private XWPFTableCell findCellWithPlaceHolder(XWPFTable table, String placeHolder) {
+  /**
+   * Returns the first cell of the table that contains each of the headers, data and footers
+   * placeholders, scanning the table once.
+   */
+  private Map<String, XWPFTableCell> findCellsWithPlaceHolders(XWPFTable table) {
+    Set<String> placeHolders = Set.copyOf(List.of(exporter.headersPlaceHolder,
+        exporter.dataPlaceHolder, exporter.footersPlaceHolder));
+    Map<String, XWPFTableCell> result = new HashMap<>();
     for (XWPFTableRow row : table.getRows()) {
       for (XWPFTableCell cell : row.getTableCells()) {
-        if (cell.getText().equals(placeHolder)) {
-          return cell;
+        String text = cell.getText();
+        if (placeHolders.contains(text)) {
+          result.putIfAbsent(text, cell);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Replaces the title and the additional placeholders in the text runs of the document body,
+   * looking for all of them in a single pass over each run.
+   */
+  private void replaceTextPlaceHolders(XWPFDocument doc) {
+    Map<String, String> replacements = new LinkedHashMap<>();
+    replacements.put(exporter.titlePlaceHolder, exporter.title);
+    exporter.additionalPlaceHolders.forEach(replacements::putIfAbsent);
+    // longer placeholders first, so that a placeholder that contains another one is preferred
+    Pattern pattern = Pattern.compile(replacements.keySet().stream()
+        .sorted(Comparator.comparingInt(String::length).reversed())
+        .map(Pattern::quote)
+        .collect(Collectors.joining("|")));
+
+    for (XWPFParagraph paragraph : doc.getParagraphs()) {
+      for (XWPFRun run : paragraph.getRuns()) {
+        String text = run.getText(0);
+        if (text != null) {
+          Matcher matcher = pattern.matcher(text);
+          if (matcher.find()) {
+            StringBuilder sb = new StringBuilder();
+            do {
+              String value = replacements.get(matcher.group());
+              matcher.appendReplacement(sb, Matcher.quoteReplacement(String.valueOf(value)));
+            } while (matcher.find());
+            matcher.appendTail(sb);
+            run.setText(sb.toString(), 0);
+          }
         }
       }
     }
-    return null;
   }
 
   private XWPFTable findTable(XWPFDocument doc) {
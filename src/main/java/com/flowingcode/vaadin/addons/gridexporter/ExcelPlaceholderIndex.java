@@ -0,0 +1,72 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * The cells of a template sheet that contain a placeholder, indexed by a single scan of the
+ * sheet. A cell contains a placeholder if its (trimmed) string value is the placeholder.
+ */
+final class ExcelPlaceholderIndex {
+
+  private final Map<String, List<Cell>> cells = new HashMap<>();
+
+  private ExcelPlaceholderIndex() {}
+
+  /** Scans the sheet for the given placeholders. */
+  static ExcelPlaceholderIndex scan(Sheet sheet, Collection<String> placeholders) {
+    ExcelPlaceholderIndex index = new ExcelPlaceholderIndex();
+    Set<String> keys = Set.copyOf(placeholders);
+    for (Row row : sheet) {
+      for (Cell cell : row) {
+        if (PoiHelper.cellTypeEquals(cell, CellType.STRING)) {
+          String text = cell.getRichStringCellValue().getString().trim();
+          if (keys.contains(text)) {
+            index.cells.computeIfAbsent(text, k -> new ArrayList<>()).add(cell);
+          }
+        }
+      }
+    }
+    return index;
+  }
+
+  /** Returns the first cell (in row-major order) that contains the placeholder, or null. */
+  Cell first(String placeholder) {
+    List<Cell> result = cells.get(placeholder);
+    return result == null ? null : result.get(0);
+  }
+
+  /** Returns all the cells that contain the placeholder, in row-major order. */
+  List<Cell> all(String placeholder) {
+    return cells.getOrDefault(placeholder, Collections.emptyList());
+  }
+
+}
@@ -24,28 +24,19 @@ import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.grid.ColumnTextAlign;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.Grid.Column;
-import com.vaadin.flow.data.provider.DataProvider;
 import com.vaadin.flow.function.ValueProvider;
-import com.vaadin.flow.server.VaadinSession;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.text.DateFormat;
-import java.text.DecimalFormat;
-import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.ConditionalFormatting;
 import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
@@ -55,6 +46,7 @@ import org.apache.poi.ss.usermodel.SheetConditionalFormatting;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 /**
@@ -73,126 +65,223 @@ class ExcelStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
   }
 
   @Override
-  public void accept(OutputStream out, VaadinSession session) throws IOException {
-    createWorkbook(session).write(out);
+  ExportFormat getFormat() {
+    return ExportFormat.EXCEL;
   }
 
-  private Workbook createWorkbook(VaadinSession session) {
-    session.lock();
-    try {
-      Grid<T> grid = exporter.getGrid();
-      exporter.setColumns(grid.getColumns().stream().filter(this::isExportable)
-          .peek(col -> ComponentUtil.setData(col, COLUMN_CELLSTYLE_MAP, null))
-          .collect(Collectors.toList()));
-      Workbook wb = getBaseTemplateWorkbook();
-      Sheet sheet = wb.getSheetAt(exporter.sheetNumber);
+  @Override
+  ExportSink createSink() {
+    return new ExcelExportSink();
+  }
 
-      Cell titleCell = findCellWithPlaceHolder(sheet, exporter.titlePlaceHolder);
+  private class ExcelExportSink extends ExportSink {
+
+    private List<Column<T>> columns;
+    private Workbook wb;
+    private Sheet sheet;
+    private ExcelTemplateRegion region;
+    private int templateDataRow;
+    private Cell titleCell;
+    private Cell dataCell;
+    private Cell startingCell;
+    private CellRangeAddress dataRange;
+    private boolean notFirstRow;
+    private ExcelStringMode[] stringModes;
+    private ExcelStringWriter stringWriter;
+    private int dataRowCount;
+    private Cell footersCell;
+    private int footersRow;
+    private int footersColumn = -1;
+
+    @Override
+    void begin() {
+      Grid<T> grid = exporter.getGrid();
+      exporter.getColumns().forEach(col -> ComponentUtil.setData(col, COLUMN_CELLSTYLE_MAP, null));
+      columns = exporter.getColumnsOrdered();
+      stringModes = columns.stream().map(exporter::getExcelStringMode)
+          .toArray(ExcelStringMode[]::new);
+      stringWriter = new ExcelStringWriter(exporter.getExcelSharedStringsLimit());
+      wb = getBaseTemplateWorkbook();
+      sheet = wb.getSheetAt(exporter.sheetNumber);
+
+      ExcelPlaceholderIndex index = ExcelPlaceholderIndex.scan(sheet,
+          List.of(exporter.titlePlaceHolder, exporter.headersPlaceHolder,
+              exporter.dataPlaceHolder, exporter.footersPlaceHolder));
+
+      titleCell = index.first(exporter.titlePlaceHolder);
       if (titleCell != null) {
         titleCell.setCellValue(exporter.title);
       }
 
-      Cell cell = findCellWithPlaceHolder(sheet, exporter.headersPlaceHolder);
+      Cell cell = index.first(exporter.headersPlaceHolder);
       List<GridHeader<T>> headers = getGridHeaders(grid);
 
+      // Split the template into the prefix (which stays in place), the data row and the
+      // trailer (the rows below the data row, which are pasted after the last data row).
+      // If there are multiple header rows, the rows between the headers and the data are
+      // pasted below the last header row.
+      Cell templateDataCell = index.first(exporter.dataPlaceHolder);
+      templateDataRow = templateDataCell.getRowIndex();
+      int dataColumn = templateDataCell.getColumnIndex();
+      int headerRows = headers.isEmpty() ? 1 : headers.get(0).getTexts().size();
+      int headersShift = 0;
+      int splitRow = templateDataRow;
+      if (cell != null && cell.getRowIndex() < templateDataRow && headerRows > 1) {
+        headersShift = headerRows - 1;
+        splitRow = cell.getRowIndex();
+      }
+
+      Cell cellwf = index.first(exporter.footersPlaceHolder);
+      if (cellwf != null) {
+        footersRow = cellwf.getRowIndex();
+        footersColumn = cellwf.getColumnIndex();
+        footersCell = footersRow <= splitRow ? cellwf : null;
+      }
+
+      region = ExcelTemplateRegion.cut(sheet, splitRow + 1);
+      if (headersShift > 0) {
+        region.paste(sheet, splitRow + 1, templateDataRow, splitRow + 1 + headersShift);
+        if (footersCell == null && footersRow <= templateDataRow) {
+          footersCell = sheet.getRow(footersRow + headersShift).getCell(footersColumn);
+        }
+      }
+
       fillHeaderOrFooter(sheet, cell, headers, true);
       if (exporter.autoMergeTitle && titleCell != null && exporter.getColumns().size()>1) {
         sheet.addMergedRegion(new CellRangeAddress(titleCell.getRowIndex(), titleCell.getRowIndex(),
             titleCell.getColumnIndex(), titleCell.getColumnIndex() + headers.size() - 1));
       }
 
-      cell = findCellWithPlaceHolder(sheet, exporter.dataPlaceHolder);
-      int[] dataStartingColumn = new int[1];
-      dataStartingColumn[0] = cell.getColumnIndex();
+      dataCell = sheet.getRow(templateDataRow + headersShift).getCell(dataColumn);
+      startingCell = dataCell;
 
       // initialize the data range with tne coordinates of tha data placeholder cell
-      CellRangeAddress dataRange = new CellRangeAddress(cell.getRowIndex(), cell.getRowIndex(),
-          cell.getColumnIndex(), cell.getColumnIndex());
+      dataRange = new CellRangeAddress(dataCell.getRowIndex(), dataCell.getRowIndex(),
+          dataCell.getColumnIndex(), dataCell.getColumnIndex());
+    }
 
-      Sheet tempSheet = wb.cloneSheet(exporter.sheetNumber);
+    @Override
+    void appendRow(T item, Object[] values) {
+      nextRow();
+      buildRow(item, values, columns, startingCell, stringModes, stringWriter);
+      dataRowCount++;
+    }
 
-      int lastRow =
-          fillData(sheet, cell, grid.getDataProvider(), dataRange, titleCell != null);
+    @Override
+    void appendNotice(String text) {
+      // the notice is not subject to the parsing and formats of the first column
+      nextRow();
+      startingCell.setCellValue(text);
+    }
 
-      applyConditionalFormattings(sheet, dataRange);
+    private void nextRow() {
+      if (notFirstRow) {
+        CellStyle cellStyle = startingCell.getCellStyle();
+        Row newRow = sheet.createRow(startingCell.getRowIndex() + 1);
+        startingCell = newRow.createCell(startingCell.getColumnIndex());
+        startingCell.setCellStyle(cellStyle);
+      }
+      // update the data range by updating last row
+      dataRange.setLastRow(dataRange.getLastRow() + 1);
+      notFirstRow = true;
+    }
+
+    @Override
+    void end() {
+      // since we initialized the cell range with the data placeholder cell, we use
+      // the existing 'getLastColumn' to keep the offset of the data range
+      dataRange.setLastColumn(dataRange.getLastColumn() + exporter.getColumns().size() - 1);
+      int lastRow = dataRange.getLastRow();
 
-      copyBottomOfSheetStartingOnRow(wb, tempSheet, sheet, cell.getRowIndex() + 1, lastRow);
+      applyConditionalFormattings(sheet, dataRange);
 
-      wb.removeSheetAt(exporter.sheetNumber + 1);
+      // the trailer starts at the row after the last data row (or replaces the data row, if
+      // there is no data)
+      region.paste(sheet, templateDataRow + 1, Integer.MAX_VALUE, lastRow);
 
-      cell = findCellWithPlaceHolder(sheet, exporter.footersPlaceHolder);
-      List<GridFooter<T>> footers = getGridFooters(grid);
+      Cell cell = footersCell;
+      if (cell == null && footersColumn >= 0) {
+        Row row = sheet.getRow(lastRow + footersRow - templateDataRow - 1);
+        cell = row == null ? null : row.getCell(footersColumn);
+      }
+      List<GridFooter<T>> footers = getFooters();
       if (cell != null) {
         fillFooter(sheet, cell, footers, false);
+        applyFooterFormulas(cell);
       }
 
       if (exporter.isAutoSizeColumns()) {
-        exporter.getColumns().forEach(column -> {
-          sheet.autoSizeColumn(dataStartingColumn[0]);
-          dataStartingColumn[0]++;
-        });
+        int dataStartingColumn = dataCell.getColumnIndex();
+        for (int i = 0; i < exporter.getColumns().size(); i++) {
+          sheet.autoSizeColumn(dataStartingColumn + i);
+        }
       }
 
-      exporter.additionalPlaceHolders.entrySet().forEach(entry -> {
-        Cell cellwp;
-        cellwp = findCellWithPlaceHolder(sheet, entry.getKey());
-        while (cellwp != null) {
-          cellwp.setCellValue(entry.getValue());
-          cellwp = findCellWithPlaceHolder(sheet, entry.getKey());
+      // the additional placeholders are replaced last, after the trailer has been pasted
+      if (!exporter.additionalPlaceHolders.isEmpty()) {
+        ExcelPlaceholderIndex additional =
+            ExcelPlaceholderIndex.scan(sheet, exporter.additionalPlaceHolders.keySet());
+        exporter.additionalPlaceHolders.forEach((placeholder, value) -> additional
+            .all(placeholder).forEach(cellwp -> cellwp.setCellValue(value)));
+      }
+    }
+
+    /**
+     * Replaces the footers of the columns with a numeric (or date) aggregate by the equivalent
+     * formula over the data rows, keeping the aggregate as the cached result. Footers with a custom
+     * formatter keep their text.
+     */
+    private void applyFooterFormulas(Cell footersCell) {
+      if (footerAggregator == null || dataRowCount == 0) {
+        return;
+      }
+      int firstRow = dataCell.getRowIndex() + 1;
+      int lastRow = dataCell.getRowIndex() + dataRowCount;
+      for (int i = 0; i < columns.size(); i++) {
+        String function = getFormulaFunction(footerAggregator.getAggregate(i));
+        if (function == null || FooterAggregator.hasFormatter(columns.get(i))) {
+          continue;
+        }
+        Object result = footerAggregator.getResult(i);
+        Cell cell = footersCell.getRow().getCell(footersCell.getColumnIndex() + i);
+        if (cell == null || !(result instanceof Number || result instanceof Date)) {
+          continue;
+        }
+        String column = CellReference.convertNumToColString(dataCell.getColumnIndex() + i);
+        cell.setCellFormula(
+            function + "(" + column + firstRow + ":" + column + lastRow + ")");
+        if (result instanceof Date) {
+          cell.setCellValue((Date) result);
+        } else {
+          cell.setCellValue(((Number) result).doubleValue());
         }
-      });
+      }
+    }
 
-      return wb;
-    } finally {
-      session.unlock();
+    @Override
+    void write(OutputStream out) throws IOException {
+      wb.write(out);
     }
   }
 
-  private void copyBottomOfSheetStartingOnRow(Workbook workbook, Sheet sourceSheet,
-      Sheet targetSheet, int rowIndex, int targetRow) {
-    int fRow = rowIndex;
-    int lRow = sourceSheet.getLastRowNum();
-    for (int iRow = fRow; iRow <= lRow; iRow++) {
-      Row row = sourceSheet.getRow(iRow);
-      Row myRow = targetSheet.createRow(targetRow++);
-      if (row != null) {
-        short fCell = row.getFirstCellNum();
-        short lCell = row.getLastCellNum();
-        for (int iCell = fCell; iCell < lCell; iCell++) {
-          Cell cell = row.getCell(iCell);
-          Cell newCell = myRow.createCell(iCell);
-          newCell.setCellStyle(cell.getCellStyle());
-          if (cell != null) {
-            switch (cell.getCellType()) {
-              case BLANK:
-                newCell.setCellValue("");
-                break;
-
-              case BOOLEAN:
-                newCell.setCellValue(cell.getBooleanCellValue());
-                break;
-
-              case ERROR:
-                newCell.setCellErrorValue(cell.getErrorCellValue());
-                break;
-
-              case FORMULA:
-                newCell.setCellFormula(cell.getCellFormula());
-                break;
-
-              case NUMERIC:
-                newCell.setCellValue(cell.getNumericCellValue());
-                break;
-
-              case STRING:
-                newCell.setCellValue(cell.getStringCellValue());
-                break;
-              default:
-                newCell.setCellFormula(cell.getCellFormula());
-            }
-          }
-        }
-      }
+  private static String getFormulaFunction(ColumnAggregate aggregate) {
+    if (aggregate == null) {
+      return null;
+    }
+    switch (aggregate) {
+      case SUM:
+        return "SUM";
+      case AVG:
+        return "AVERAGE";
+      case MIN:
+        return "MIN";
+      case MAX:
+        return "MAX";
+      case COUNT:
+        return "COUNTA";
+      default:
+        // there is no native formula for the distinct count estimate
+        return null;
     }
   }
 
@@ -207,87 +296,22 @@ class ExcelStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
 
   }
 
-  private int fillData(
-      Sheet sheet, Cell dataCell, DataProvider<T, ?> dataProvider, CellRangeAddress dataRange, boolean titleExists) {
-    Stream<T> dataStream = obtainDataStream(dataProvider);
-
-    boolean notFirstRow = false;
-    Cell startingCell = dataCell;
-
-    Iterable<T> items = dataStream::iterator;
-    for (T item : items) {
-      if (notFirstRow) {
-        CellStyle cellStyle = startingCell.getCellStyle();
-        Row newRow = sheet.createRow(startingCell.getRowIndex() + 1);
-        startingCell = newRow.createCell(startingCell.getColumnIndex());
-        startingCell.setCellStyle(cellStyle);
-      }
-      // update the data range by updating last row
-      dataRange.setLastRow(dataRange.getLastRow() + 1);
-      buildRow(item, sheet, startingCell);
-      notFirstRow = true;
-    }
-    // since we initialized the cell range with the data placeholder cell, we use
-    // the existing 'getLastColumn' to keep the offset of the data range
-    dataRange.setLastColumn(dataRange.getLastColumn() + exporter.getColumns().size() - 1);
-    return dataRange.getLastRow();
-  }
-
-  private void buildRow(T item, Sheet sheet, Cell startingCell) {
-
-    if (exporter.getColumns().isEmpty()) {
-      throw new IllegalStateException("Grid has no columns");
-    }
-
-    int[] currentColumn = new int[1];
-    currentColumn[0] = startingCell.getColumnIndex();
-    exporter.getColumnsOrdered().stream()
-        .forEach(
-            column -> {
-              Object value = exporter.extractValueFromColumn(item, column);
-              value = transformToType(value, column);
-              Cell currentCell = startingCell;
-              if (startingCell.getColumnIndex() < currentColumn[0]) {
-                currentCell = startingCell.getRow().createCell(currentColumn[0]);
-                currentCell.setCellStyle(startingCell.getCellStyle());
-
-                configureAlignment(column, currentCell, ExcelCellType.CELL);
-              }
-              currentColumn[0] = currentColumn[0] + 1;
-              buildCell(value, currentCell, column, item);
-            });
-  }
-
-  private Object transformToType(Object value, Column<T> column) {
-    Object result = value;
-    if (value instanceof String && StringUtils.isNotBlank((String) value)) {
-      String stringValue = (String) value;
-      try {
-        if (ComponentUtil.getData(column, GridExporter.COLUMN_PARSING_FORMAT_PATTERN_DATA)
-            != null) {
-          switch ((String) ComponentUtil.getData(column, GridExporter.COLUMN_TYPE_DATA)) {
-            case GridExporter.COLUMN_TYPE_NUMBER:
-              DecimalFormat decimalFormat =
-                  (DecimalFormat)
-                      ComponentUtil.getData(
-                          column, GridExporter.COLUMN_PARSING_FORMAT_PATTERN_DATA);
-              decimalFormat.setParseBigDecimal(true);
-              result = decimalFormat.parse(stringValue).doubleValue();
-              break;
-            case GridExporter.COLUMN_TYPE_DATE:
-              result =
-                  ((DateFormat)
-                          ComponentUtil.getData(
-                              column, GridExporter.COLUMN_PARSING_FORMAT_PATTERN_DATA))
-                      .parse(stringValue);
-              break;
-          }
-        }
-      } catch (ParseException e) {
-        throw new IllegalStateException("Problem parsing grid cell value", e);
+  private void buildRow(T item, Object[] values, List<Column<T>> columns, Cell startingCell,
+      ExcelStringMode[] stringModes, ExcelStringWriter stringWriter) {
+    int currentColumn = startingCell.getColumnIndex();
+    for (int i = 0; i < values.length; i++) {
+      Column<T> column = columns.get(i);
+      Object value = transformToType(values[i], column);
+      Cell currentCell = startingCell;
+      if (startingCell.getColumnIndex() < currentColumn) {
+        currentCell = startingCell.getRow().createCell(currentColumn);
+        currentCell.setCellStyle(startingCell.getCellStyle());
+
+        configureAlignment(column, currentCell, ExcelCellType.CELL);
       }
+      currentColumn++;
+      buildCell(value, currentCell, column, item, stringModes[i], stringWriter);
     }
-    return result;
   }
 
   private void configureAlignment(Column<T> column, Cell currentCell, ExcelCellType type) {
@@ -338,7 +362,8 @@ class ExcelStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
   }
 
   @SuppressWarnings("unchecked")
-  private void buildCell(Object value, Cell cell, Column<T> column, T item) {
+  private void buildCell(Object value, Cell cell, Column<T> column, T item,
+      ExcelStringMode stringMode, ExcelStringWriter stringWriter) {
     ValueProvider<T,String> provider = (ValueProvider<T, String>) ComponentUtil.getData(column, GridExporter.COLUMN_EXCEL_FORMAT_DATA_PROVIDER);
     Map<String, CellStyle> cellStyles = getCellStyles(column);
     String excelFormat = getExcelFormat(column, item, provider);
@@ -360,8 +385,10 @@ class ExcelStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
       applyExcelFormat(cell, excelFormat, cellStyles);
       cell.setCellValue(
           Date.from(((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant()));
-    } else {
+    } else if (stringWriter == null) {
       cell.setCellValue(value.toString());
+    } else {
+      stringWriter.setCellValue(cell, value.toString(), stringMode);
     }
   }
 
@@ -409,19 +436,6 @@ class ExcelStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
     }
   }
 
-  private Cell findCellWithPlaceHolder(Sheet sheet, String placeholder) {
-    for (Row row : sheet) {
-      for (Cell cell : row) {
-        if (PoiHelper.cellTypeEquals(cell, CellType.STRING)) {
-          if (cell.getRichStringCellValue().getString().trim().equals(placeholder)) {
-            return cell;
-          }
-        }
-      }
-    }
-    return null;
-  }
-
   private void fillFooter(Sheet sheet, Cell headersOrFootersCell,
       List<GridFooter<T>> headersOrFooters, boolean isHeader) {
     fillHeaderOrFooter(sheet, headersOrFootersCell, headersOrFooters, isHeader);
@@ -432,19 +446,12 @@ class ExcelStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
 
     int startRow = headersOrFootersCell.getRowIndex();
     int currentColumn = headersOrFootersCell.getColumnIndex();
-    boolean shiftFirstTime = true;
     for (GridHeaderOrFooter<T> headerOrFooter : headersOrFooters) {
       List<String> headerOrFooterTexts = headerOrFooter.getTexts();
       Column<T> column = headerOrFooter.getColumn();
       if (!isHeader) {
         ComponentUtil.setData(column, COLUMN_CELLSTYLE_MAP, null);
       }
-      if (shiftFirstTime) {
-        if (headerOrFooterTexts.size()>1) {
-          sheet.shiftRows(startRow, sheet.getLastRowNum(), headerOrFooterTexts.size()-1);
-        }
-        shiftFirstTime = false;
-      }
       for (int i = 0; i < headerOrFooterTexts.size(); i++) {
         Row row = sheet.getRow(startRow + i);
         if (row == null) {
@@ -457,7 +464,7 @@ class ExcelStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
         cell.setCellStyle(style);
         Object value =
             (isHeader ? headerOrFooterTexts.get(i) : transformToType(headerOrFooterTexts.get(i), column));
-        buildCell(value, cell, column, null);
+        buildCell(value, cell, column, null, ExcelStringMode.SHARED, null);
         configureAlignment(column, cell, isHeader ? ExcelCellType.HEADER : ExcelCellType.FOOTER);
       }
       currentColumn++;
@@ -0,0 +1,46 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+/**
+ * How the string cells of the data rows are stored in XLSX exports.
+ *
+ * @see GridExporter#setExcelStringMode(ExcelStringMode)
+ * @see GridExporter#setExcelStringMode(com.vaadin.flow.component.grid.Grid.Column, ExcelStringMode)
+ * @since 3.2.0
+ */
+public enum ExcelStringMode {
+
+  /**
+   * The strings are stored in the shared strings table of the workbook, so that repeated values
+   * are stored only once. This produces smaller files for columns with few distinct values. Once
+   * the {@linkplain GridExporter#setExcelSharedStringsLimit(int) limit of shared strings} is
+   * reached, new distinct values are stored inline.
+   */
+  SHARED,
+
+  /**
+   * The strings are stored inline in their cells. The memory used for the strings doesn't grow
+   * with the number of distinct values, at the cost of a larger file. Recommended for columns with
+   * many distinct values, such as identifiers or free text.
+   */
+  INLINE;
+
+}
@@ -0,0 +1,73 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+/**
+ * Sets the string values of the data cells of an XLSX export, either in the shared strings table
+ * or inline, according to their {@link ExcelStringMode}. A new instance is used for each export.
+ * <p>
+ * The distinct values stored in the shared strings table are tracked, up to a maximum number of
+ * entries. Once the maximum is reached, values that are not already shared are stored inline, so
+ * that neither the table nor the tracking set grow without bound.
+ */
+final class ExcelStringWriter {
+
+  private final int sharedStringsLimit;
+  private final Set<String> sharedStrings = new HashSet<>();
+
+  ExcelStringWriter(int sharedStringsLimit) {
+    this.sharedStringsLimit = sharedStringsLimit;
+  }
+
+  void setCellValue(Cell cell, String value, ExcelStringMode mode) {
+    if (!(cell instanceof XSSFCell)) {
+      // binary workbooks (HSSF) have no inline strings
+      cell.setCellValue(value);
+    } else if (mode == ExcelStringMode.SHARED
+        && (sharedStrings.contains(value) || sharedStrings.size() < sharedStringsLimit)) {
+      sharedStrings.add(value);
+      cell.setCellValue(value);
+    } else {
+      setInlineValue((XSSFCell) cell, value);
+    }
+  }
+
+  private static void setInlineValue(XSSFCell cell, String value) {
+    CTCell ctCell = cell.getCTCell();
+    if (ctCell.isSetF()) {
+      ctCell.unsetF();
+    }
+    if (ctCell.isSetV()) {
+      ctCell.unsetV();
+    }
+    ctCell.setT(STCellType.INLINE_STR);
+    // XSSFRichTextString preserves the leading and trailing spaces
+    ctCell.setIs(new XSSFRichTextString(value).getCTRst());
+  }
+
+}
@@ -0,0 +1,184 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
+
+/**
+ * A region of a template sheet (all the rows from a given row to the end of the sheet) that is
+ * cut from the sheet, and pasted back at a different position once the rows above it have been
+ * written. This allows the rows below the data placeholder to be written after the last data row
+ * (and the rows below the headers to make room for multiple header rows) without cloning the
+ * sheet or shifting its rows.
+ */
+final class ExcelTemplateRegion {
+
+  private final List<RowSnapshot> rows = new ArrayList<>();
+  private final List<CellRangeAddress> mergedRegions = new ArrayList<>();
+
+  private ExcelTemplateRegion() {}
+
+  /** Removes the rows of the sheet starting at {@code firstRow}, and returns them. */
+  static ExcelTemplateRegion cut(Sheet sheet, int firstRow) {
+    ExcelTemplateRegion region = new ExcelTemplateRegion();
+    List<Row> removed = new ArrayList<>();
+    for (Row row : sheet) {
+      if (row.getRowNum() >= firstRow) {
+        region.rows.add(new RowSnapshot(row));
+        removed.add(row);
+      }
+    }
+    removed.forEach(sheet::removeRow);
+
+    List<Integer> removedRegions = new ArrayList<>();
+    for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+      CellRangeAddress mergedRegion = sheet.getMergedRegion(i);
+      if (mergedRegion.getFirstRow() >= firstRow) {
+        region.mergedRegions.add(mergedRegion);
+        removedRegions.add(i);
+      }
+    }
+    sheet.removeMergedRegions(removedRegions);
+    return region;
+  }
+
+  /**
+   * Writes the template rows from {@code firstRow} to {@code lastRow} (inclusive, in template
+   * coordinates) into the sheet, so that {@code firstRow} is written into {@code targetRow}.
+   */
+  void paste(Sheet sheet, int firstRow, int lastRow, int targetRow) {
+    int shift = targetRow - firstRow;
+    for (RowSnapshot row : rows) {
+      if (row.index >= firstRow && row.index <= lastRow) {
+        row.paste(sheet, row.index + shift);
+      }
+    }
+    for (CellRangeAddress mergedRegion : mergedRegions) {
+      if (mergedRegion.getFirstRow() >= firstRow && mergedRegion.getFirstRow() <= lastRow) {
+        sheet.addMergedRegion(new CellRangeAddress(mergedRegion.getFirstRow() + shift,
+            mergedRegion.getLastRow() + shift, mergedRegion.getFirstColumn(),
+            mergedRegion.getLastColumn()));
+      }
+    }
+  }
+
+  private static final class RowSnapshot {
+    private final int index;
+    private final short height;
+    private final boolean zeroHeight;
+    private final CellStyle rowStyle;
+    private final List<CellSnapshot> cells = new ArrayList<>();
+
+    RowSnapshot(Row row) {
+      index = row.getRowNum();
+      height = row.getHeight();
+      zeroHeight = row.getZeroHeight();
+      rowStyle = row.isFormatted() ? row.getRowStyle() : null;
+      for (Cell cell : row) {
+        cells.add(new CellSnapshot(cell));
+      }
+    }
+
+    void paste(Sheet sheet, int targetRow) {
+      Row row = sheet.createRow(targetRow);
+      row.setHeight(height);
+      row.setZeroHeight(zeroHeight);
+      if (rowStyle != null) {
+        row.setRowStyle(rowStyle);
+      }
+      for (CellSnapshot cell : cells) {
+        cell.paste(row);
+      }
+    }
+  }
+
+  private static final class CellSnapshot {
+    private final int column;
+    private final CellStyle style;
+    private final CellType type;
+    private final Object value;
+
+    CellSnapshot(Cell cell) {
+      column = cell.getColumnIndex();
+      style = cell.getCellStyle();
+      type = cell.getCellType();
+      switch (type) {
+        case BOOLEAN:
+          value = cell.getBooleanCellValue();
+          break;
+        case ERROR:
+          value = cell.getErrorCellValue();
+          break;
+        case FORMULA:
+          value = cell.getCellFormula();
+          break;
+        case NUMERIC:
+          value = cell.getNumericCellValue();
+          break;
+        case STRING:
+          RichTextString text = cell.getRichStringCellValue();
+          if (text instanceof XSSFRichTextString) {
+            // inline strings belong to the cell, which is removed from the sheet
+            text = new XSSFRichTextString(
+                (CTRst) ((XSSFRichTextString) text).getCTRst().copy());
+          }
+          value = text;
+          break;
+        default:
+          value = null;
+      }
+    }
+
+    void paste(Row row) {
+      Cell cell = row.createCell(column);
+      cell.setCellStyle(style);
+      switch (type) {
+        case BOOLEAN:
+          cell.setCellValue((Boolean) value);
+          break;
+        case ERROR:
+          cell.setCellErrorValue((Byte) value);
+          break;
+        case FORMULA:
+          cell.setCellFormula((String) value);
+          break;
+        case NUMERIC:
+          cell.setCellValue((Double) value);
+          break;
+        case STRING:
+          cell.setCellValue((RichTextString) value);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor owned by the add-on, where the exports run their concurrent work when no executor
+ * has been configured. It has at most one daemon thread per available processor, which are
+ * stopped after a minute without work, so that exports don't compete for the {@linkplain
+ * java.util.concurrent.ForkJoinPool#commonPool() common pool} with the rest of the application.
+ */
+final class ExportExecutor {
+
+  private ExportExecutor() {}
+
+  private static final class Holder {
+    private static final ThreadPoolExecutor EXECUTOR = create();
+
+    private static ThreadPoolExecutor create() {
+      int threads = Runtime.getRuntime().availableProcessors();
+      AtomicInteger count = new AtomicInteger();
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+          new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread =
+                new Thread(runnable, "grid-exporter-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          });
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
+  /** Returns the executor owned by the add-on. */
+  static Executor getDefault() {
+    return Holder.EXECUTOR;
+  }
+
+}
@@ -0,0 +1,50 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+/**
+ * The formats supported by {@link GridExporter}.
+ *
+ * @since 3.2.0
+ */
+public enum ExportFormat {
+
+  /** Excel workbook ({@code .xlsx}). */
+  EXCEL,
+
+  /** Word document ({@code .docx}). */
+  DOCX,
+
+  /** PDF document ({@code .pdf}). */
+  PDF,
+
+  /** Comma-separated values ({@code .csv}). */
+  CSV,
+
+  /** JSON Lines ({@code .jsonl}), one JSON object per row. */
+  JSON_LINES,
+
+  /** Apache Arrow IPC stream ({@code .arrows}), with typed columns. */
+  ARROW,
+
+  /** Self-contained HTML table ({@code .html}), styled for printing from the browser. */
+  HTML;
+
+}
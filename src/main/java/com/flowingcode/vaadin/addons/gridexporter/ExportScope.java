@@ -0,0 +1,51 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+/**
+ * The rows of the grid that are exported.
+ *
+ * @see GridExporter#setExportScope(ExportScope)
+ * @since 3.2.0
+ */
+public enum ExportScope {
+
+  /**
+   * All the items of the data provider, ignoring the filter applied to the grid (including the
+   * filter of an in-memory data provider), in the sort order of the grid.
+   */
+  ALL,
+
+  /** The items that match the filter applied to the grid. This is the default. */
+  FILTERED,
+
+  /**
+   * The selected items, in the sort order of the grid. They are taken from the selection of the
+   * grid, without fetching any item from the data provider.
+   */
+  SELECTED,
+
+  /**
+   * The rows that the client has requested for the current scroll position of the grid: the
+   * visible rows, plus the rows that the grid preloads around them.
+   */
+  VIEWPORT;
+
+}
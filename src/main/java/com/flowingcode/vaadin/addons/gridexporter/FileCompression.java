@@ -0,0 +1,38 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+/**
+ * Compression applied to the files produced by text exports (such as CSV).
+ *
+ * @see GridExporter#setTextExportCompression(FileCompression)
+ */
+public enum FileCompression {
+
+  /** The exported file is not compressed. */
+  NONE,
+
+  /** The exported file is compressed with gzip (e.g. {@code export.csv.gz}). */
+  GZIP,
+
+  /** The exported file is stored in a zip archive (e.g. {@code export.zip}). */
+  ZIP;
+
+}
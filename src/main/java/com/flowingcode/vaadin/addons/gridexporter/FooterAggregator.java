@@ -0,0 +1,281 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.function.SerializableFunction;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.text.Format;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Accumulates the {@linkplain ColumnAggregate footer aggregates} of the exported columns while the
+ * rows are rendered, so that the footers don't require a second pass over the data.
+ */
+final class FooterAggregator<T> {
+
+  private final List<Column<T>> columns;
+  private final BiFunction<Object, Column<T>, Object> transformer;
+  private final Accumulator[] accumulators;
+
+  private FooterAggregator(List<Column<T>> columns,
+      BiFunction<Object, Column<T>, Object> transformer, Accumulator[] accumulators) {
+    this.columns = columns;
+    this.transformer = transformer;
+    this.accumulators = accumulators;
+  }
+
+  /**
+   * Creates an aggregator for the given columns, or returns {@code null} if none of them has a
+   * footer aggregate.
+   *
+   * @param transformer converts the exported values into their typed values
+   */
+  static <T> FooterAggregator<T> create(List<Column<T>> columns,
+      BiFunction<Object, Column<T>, Object> transformer) {
+    Accumulator[] accumulators = new Accumulator[columns.size()];
+    boolean any = false;
+    for (int i = 0; i < accumulators.length; i++) {
+      ColumnAggregate aggregate = getAggregate(columns.get(i));
+      if (aggregate != null) {
+        accumulators[i] = new Accumulator(aggregate);
+        any = true;
+      }
+    }
+    return any ? new FooterAggregator<>(columns, transformer, accumulators) : null;
+  }
+
+  static ColumnAggregate getAggregate(Column<?> column) {
+    return (ColumnAggregate) ComponentUtil.getData(column,
+        GridExporter.COLUMN_FOOTER_AGGREGATE_DATA);
+  }
+
+  /** Returns whether the footer aggregate of the column is formatted by a custom formatter. */
+  static boolean hasFormatter(Column<?> column) {
+    return ComponentUtil.getData(column,
+        GridExporter.COLUMN_FOOTER_AGGREGATE_FORMATTER_DATA) != null;
+  }
+
+  /** Accumulates the exported values of a row. */
+  void accept(Object[] values) {
+    for (int i = 0; i < accumulators.length; i++) {
+      if (accumulators[i] != null) {
+        accumulators[i].accept(transformer.apply(values[i], columns.get(i)));
+      }
+    }
+  }
+
+  /** Returns the aggregate of the column at the given index, or {@code null}. */
+  ColumnAggregate getAggregate(int index) {
+    return accumulators[index] == null ? null : accumulators[index].aggregate;
+  }
+
+  /** Returns the result of the aggregate of the column at the given index. */
+  Object getResult(int index) {
+    return accumulators[index].getResult();
+  }
+
+  /**
+   * Returns the footer text of the column at the given index, formatted with the formatter of the
+   * aggregate or, if there is none, with the parsing format of the column (so that the text can be
+   * parsed back into a number or date). Counts are not formatted with the parsing format.
+   */
+  @SuppressWarnings("unchecked")
+  String getText(int index) {
+    Column<T> column = columns.get(index);
+    Object result = getResult(index);
+    SerializableFunction<Object, String> formatter =
+        (SerializableFunction<Object, String>) ComponentUtil.getData(column,
+            GridExporter.COLUMN_FOOTER_AGGREGATE_FORMATTER_DATA);
+    if (formatter != null) {
+      return formatter.apply(result);
+    }
+    if (result == null) {
+      return "";
+    }
+
+    Object format =
+        ComponentUtil.getData(column, GridExporter.COLUMN_PARSING_FORMAT_PATTERN_DATA);
+    boolean counting = accumulators[index].aggregate == ColumnAggregate.COUNT
+        || accumulators[index].aggregate == ColumnAggregate.DISTINCT_COUNT;
+    if (!counting && format instanceof Format
+        && (result instanceof Number || result instanceof Date)) {
+      return ((Format) format).format(result);
+    } else if (result instanceof BigDecimal) {
+      return ((BigDecimal) result).stripTrailingZeros().toPlainString();
+    }
+    return result.toString();
+  }
+
+  private static final class Accumulator {
+
+    private final ColumnAggregate aggregate;
+    private long count;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private long numericCount;
+    private Object extreme;
+    private HyperLogLog distinct;
+
+    Accumulator(ColumnAggregate aggregate) {
+      this.aggregate = aggregate;
+      if (aggregate == ColumnAggregate.DISTINCT_COUNT) {
+        distinct = new HyperLogLog();
+      }
+    }
+
+    void accept(Object value) {
+      if (value == null || value instanceof String && ((String) value).isBlank()) {
+        // the grid renders null values as empty strings
+        return;
+      }
+      count++;
+      switch (aggregate) {
+        case SUM:
+        case AVG:
+          BigDecimal number = toBigDecimal(value);
+          if (number != null) {
+            sum = sum.add(number);
+            numericCount++;
+          }
+          break;
+        case MIN:
+        case MAX:
+          // numeric strings are compared as numbers, as they are summed
+          BigDecimal numeric = toBigDecimal(value);
+          Object comparable = numeric != null ? numeric : value;
+          if (comparable instanceof Comparable && isExtreme(comparable)) {
+            extreme = comparable;
+          }
+          break;
+        case DISTINCT_COUNT:
+          BigDecimal key = value instanceof Number ? toBigDecimal(value) : null;
+          distinct.add(key != null ? key.stripTrailingZeros() : value);
+          break;
+        default:
+          break;
+      }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean isExtreme(Object value) {
+      if (extreme == null) {
+        return true;
+      }
+      if (!extreme.getClass().isInstance(value) && !value.getClass().isInstance(extreme)) {
+        // values of unrelated types cannot be compared
+        return false;
+      }
+      int c = ((Comparable) value).compareTo(extreme);
+      return aggregate == ColumnAggregate.MIN ? c < 0 : c > 0;
+    }
+
+    Object getResult() {
+      switch (aggregate) {
+        case SUM:
+          return sum;
+        case AVG:
+          return numericCount == 0 ? null
+              : sum.divide(BigDecimal.valueOf(numericCount), MathContext.DECIMAL64);
+        case MIN:
+        case MAX:
+          return extreme;
+        case COUNT:
+          return count;
+        case DISTINCT_COUNT:
+          return distinct.estimate();
+        default:
+          throw new IllegalStateException(aggregate.name());
+      }
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+      if (value instanceof BigDecimal) {
+        return (BigDecimal) value;
+      } else if (value instanceof BigInteger) {
+        return new BigDecimal((BigInteger) value);
+      } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+          || value instanceof Byte) {
+        return BigDecimal.valueOf(((Number) value).longValue());
+      } else if (value instanceof Number) {
+        double d = ((Number) value).doubleValue();
+        return Double.isNaN(d) || Double.isInfinite(d) ? null : BigDecimal.valueOf(d);
+      } else if (value instanceof String) {
+        try {
+          return new BigDecimal(((String) value).trim());
+        } catch (NumberFormatException e) {
+          return null;
+        }
+      }
+      return null;
+    }
+  }
+
+  /** A HyperLogLog cardinality estimator with 2^14 registers. */
+  private static final class HyperLogLog {
+
+    private static final int P = 14;
+    private static final int M = 1 << P;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    private final byte[] registers = new byte[M];
+
+    void add(Object value) {
+      long hash = mix(value.hashCode());
+      int index = (int) (hash >>> (64 - P));
+      int rank = Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1;
+      if (rank > registers[index]) {
+        registers[index] = (byte) rank;
+      }
+    }
+
+    long estimate() {
+      double sum = 0;
+      int zeros = 0;
+      for (byte register : registers) {
+        sum += 1.0 / (1L << register);
+        if (register == 0) {
+          zeros++;
+        }
+      }
+      double estimate = ALPHA * M * M / sum;
+      if (estimate <= 2.5 * M && zeros > 0) {
+        // linear counting for small cardinalities
+        estimate = M * Math.log((double) M / zeros);
+      }
+      return Math.round(estimate);
+    }
+
+    /** The finalizer of MurmurHash3, which spreads the bits of the hash code. */
+    private static long mix(long h) {
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+    }
+  }
+
+}
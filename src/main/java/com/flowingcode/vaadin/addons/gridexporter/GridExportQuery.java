@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A query issued by {@link GridExporter} for fetching the items of an export, rather than a page
+ * of items to be shown in the grid. Backends can use it for switching to a bulk-fetch strategy,
+ * such as a server-side cursor with the suggested fetch size.
+ * <p>
+ * The stream returned for an export query is always closed by the exporter once the items were
+ * exported (or the export failed), so it may hold resources such as an open result set.
+ * <p>
+ * Some data provider wrappers (e.g. those created by {@code withConfigurableFilter}) pass a copy
+ * of the query to the wrapped provider. The query being fetched by the exporter is therefore also
+ * available through {@link #getCurrent()} while its {@code fetch} call is running.
+ *
+ * @param <T> the type of the items
+ * @param <F> the type of the filter
+ * @since 3.2.0
+ */
+@SuppressWarnings("serial")
+public class GridExportQuery<T, F> extends Query<T, F> {
+
+  private static final ThreadLocal<GridExportQuery<?, ?>> CURRENT = new ThreadLocal<>();
+
+  private final int fetchSizeHint;
+  private final boolean countSkippable;
+  private final List<String> requiredProperties;
+  private final Object deltaToken;
+
+  GridExportQuery(int offset, int limit, List<QuerySortOrder> sortOrders,
+      Comparator<T> inMemorySorting, F filter, GridExporter<T> exporter, boolean countSkippable) {
+    super(offset, limit, sortOrders, inMemorySorting, filter);
+    fetchSizeHint = exporter.getExportFetchSizeHint();
+    requiredProperties = exporter.getRequiredProperties();
+    deltaToken =
+        exporter.getDeltaVersionProvider() == null ? null : exporter.getDeltaToken();
+    this.countSkippable = countSkippable;
+  }
+
+  /**
+   * Returns the suggested number of rows fetched from the database in each round trip, or 0 if
+   * there is no suggestion.
+   *
+   * @see GridExporter#setExportFetchSizeHint(int)
+   */
+  public int getFetchSizeHint() {
+    return fetchSizeHint;
+  }
+
+  /**
+   * Returns whether the exporter doesn't need the number of items for this export. If so, a
+   * backend that computes the total count along with the items (e.g. a paged repository) may skip
+   * it.
+   */
+  public boolean isCountSkippable() {
+    return countSkippable;
+  }
+
+  /**
+   * Returns the properties of the items that are read by the exported columns, so that a
+   * projection-aware backend can load only those (e.g. with a JPA tuple query) instead of full
+   * entities. Returns an empty optional if the properties read by some exported column are not
+   * known, in which case the full items must be loaded.
+   *
+   * @see GridExporter#setExportProperties(com.vaadin.flow.component.grid.Grid.Column, String...)
+   */
+  public Optional<List<String>> getRequiredProperties() {
+    return Optional.ofNullable(requiredProperties);
+  }
+
+  /**
+   * Returns the token of the previous delta export, or {@code null} if this is not a delta export.
+   * The exporter writes only the items whose version is greater than the token, so the backend
+   * may fetch only those (e.g. with a {@code WHERE updated_at > ?} condition).
+   *
+   * @see GridExporter#setDeltaVersionProvider(com.vaadin.flow.function.SerializableFunction)
+   */
+  public Object getDeltaToken() {
+    return deltaToken;
+  }
+
+  /**
+   * Returns the export query being fetched by the exporter in the current thread, or {@code null}
+   * if the exporter is not fetching items in this thread.
+   */
+  public static GridExportQuery<?, ?> getCurrent() {
+    return CURRENT.get();
+  }
+
+  /** Runs the given fetch call with this query as the current export query. */
+  <R> R fetch(Supplier<R> fetch) {
+    GridExportQuery<?, ?> previous = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      return fetch.get();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+}
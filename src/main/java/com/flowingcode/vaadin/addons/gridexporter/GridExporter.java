@@ -26,26 +26,38 @@ import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.HasEnabled;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.grid.ColumnPathRenderer;
+import com.vaadin.flow.component.grid.FooterRow;
+import com.vaadin.flow.component.grid.FooterRow.FooterCell;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.component.grid.HeaderRow;
+import com.vaadin.flow.component.grid.HeaderRow.HeaderCell;
 import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.orderedlayout.FlexComponent.JustifyContentMode;
 import com.vaadin.flow.component.shared.Tooltip;
 import com.vaadin.flow.data.binder.BeanPropertySet;
 import com.vaadin.flow.data.binder.PropertyDefinition;
 import com.vaadin.flow.data.binder.PropertySet;
+import com.vaadin.flow.data.provider.DataCommunicator;
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalDataProvider;
 import com.vaadin.flow.data.renderer.BasicRenderer;
 import com.vaadin.flow.data.renderer.LitRenderer;
 import com.vaadin.flow.data.renderer.Renderer;
 import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
 import com.vaadin.flow.function.SerializableSupplier;
 import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.server.StreamResourceWriter;
 import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.streams.DownloadEvent;
 import com.vaadin.flow.server.streams.DownloadHandler;
 
 import com.vaadin.flow.shared.Registration;
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -53,16 +65,24 @@ import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,11 +97,15 @@ public class GridExporter<T> implements Serializable {
   /** Templates configured through {@link #createFor(Grid, String, String)}. */
   private String excelCustomTemplate;
   private String docxCustomTemplate;
+  private String htmlCustomTemplate;
 
   private final ExcelFormatExporter excel = new ExcelFormatExporter();
   private final DocxFormatExporter docx = new DocxFormatExporter();
   private final PdfFormatExporter pdf = new PdfFormatExporter();
   private final CsvFormatExporter csv = new CsvFormatExporter();
+  private final JsonLinesFormatExporter jsonLines = new JsonLinesFormatExporter();
+  private final ArrowFormatExporter arrow = new ArrowFormatExporter();
+  private final HtmlFormatExporter html = new HtmlFormatExporter();
 
   /** Represents all the permits available to the semaphore. */
   public static final float MAX_COST = ConcurrentStreamResourceWriter.MAX_COST;
@@ -103,6 +127,11 @@ public class GridExporter<T> implements Serializable {
   static final String COLUMN_PARSING_FORMAT_PATTERN_DATA = "column-parsing-format-pattern-data";
   static final String COLUMN_EXCEL_FORMAT_DATA = "column-excel-format-data";
   static final String COLUMN_EXCEL_FORMAT_DATA_PROVIDER = "column-excel-format-data-provider";
+  static final String COLUMN_EXCEL_STRING_MODE_DATA = "column-excel-string-mode-data";
+  static final String COLUMN_FOOTER_AGGREGATE_DATA = "column-footer-aggregate-data";
+  static final String COLUMN_FOOTER_AGGREGATE_FORMATTER_DATA =
+      "column-footer-aggregate-formatter-data";
+  static final String COLUMN_EXPORT_PROPERTIES_DATA = "column-export-properties-data";
   static final String COLUMN_TYPE_DATA = "column-type-data";
   static final String COLUMN_TYPE_NUMBER = "number";
   static final String COLUMN_TYPE_DATE = "date";
@@ -110,6 +139,15 @@ public class GridExporter<T> implements Serializable {
   static final String COLUMN_FOOTER = "column-footer";
   static final String COLUMN_POSITION = "column-position";
 
+  /** The data of the columns that affects the content of the rendered exports. */
+  private static final List<String> COLUMN_OUTPUT_DATA = List.of(COLUMN_VALUE_PROVIDER_DATA,
+      COLUMN_EXPORTED_PROVIDER_DATA, COLUMN_PARSING_FORMAT_PATTERN_DATA, COLUMN_EXCEL_FORMAT_DATA,
+      COLUMN_EXCEL_FORMAT_DATA_PROVIDER, COLUMN_EXCEL_STRING_MODE_DATA,
+      COLUMN_FOOTER_AGGREGATE_DATA, COLUMN_FOOTER_AGGREGATE_FORMATTER_DATA, COLUMN_TYPE_DATA,
+      COLUMN_HEADER, COLUMN_FOOTER, COLUMN_POSITION);
+
+  private static final int HTTP_PAYLOAD_TOO_LARGE = 413;
+
   @Getter
   private Grid<T> grid;
 
@@ -145,6 +183,62 @@ public class GridExporter<T> implements Serializable {
 
   private SerializableSupplier<Charset> csvCharset;
 
+  private transient GridExporterCache exportCache;
+
+  private SerializableSupplier<?> dataVersionSupplier;
+
+  private FileCompression textExportCompression = FileCompression.NONE;
+
+  private boolean transferCompressionEnabled;
+
+  private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+  private boolean renderToFileEnabled;
+
+  private Duration renderedFileRetention = Duration.ofMinutes(5);
+
+  private transient RenderedExportStore renderedExportStore;
+
+  private boolean parallelValueExtractionEnabled;
+
+  private transient Executor valueExtractionExecutor;
+
+  private int valueExtractionBatchSize = 256;
+
+  private KeysetPagination<T, ?> keysetPagination;
+
+  private ReactiveDataSource<T, ?> reactiveDataSource;
+
+  private int exportPageSize = 1000;
+
+  private int exportFetchSizeHint;
+
+  private int shardParallelism = 2;
+
+  private int exportFetchParallelism = 1;
+
+  private ExcelStringMode excelStringMode = ExcelStringMode.SHARED;
+
+  private ExportScope exportScope = ExportScope.FILTERED;
+
+  private int excelSharedStringsLimit = 100_000;
+
+  private final Map<ExportFormat, Integer> maxRowCounts = new EnumMap<>(ExportFormat.class);
+
+  private RowLimitPolicy rowLimitPolicy = RowLimitPolicy.REJECT;
+
+  private String rowLimitNotice = "Export truncated to the first %d rows";
+
+  private final List<SerializableConsumer<RowLimitExceededEvent>> rowLimitExceededListeners =
+      new CopyOnWriteArrayList<>();
+
+  private SerializableFunction<T, ? extends Comparable<?>> deltaVersionProvider;
+
+  private Object deltaToken;
+
+  private final List<SerializableConsumer<DeltaExportEvent>> deltaExportListeners =
+      new CopyOnWriteArrayList<>();
+
   private GridExporter(Grid<T> grid) {
     this.grid = grid;
   }
@@ -180,6 +274,9 @@ public class GridExporter<T> implements Serializable {
                 GridHelper.addToolbarFooter(grid, footerToolbar);
               }
             });
+    // the rendered exports are discarded when the grid is detached (which also happens when its UI
+    // is closed or its session is destroyed)
+    grid.addDetachListener(ev -> exporter.clearRenderedExports());
     return exporter;
   }
 
@@ -187,7 +284,38 @@ public class GridExporter<T> implements Serializable {
    * Returns the per-format exporters in the order their buttons are attached to the footer.
    */
   private List<FormatExporter> getFormatExporters() {
-    return List.of(excel, docx, pdf, csv);
+    return List.of(excel, docx, pdf, csv, jsonLines, arrow, html);
+  }
+
+  /**
+   * Creates a writer for the given format, using the templates configured through
+   * {@link #createFor(Grid, String, String)}.
+   */
+  BaseStreamResourceWriter<T> createWriter(ExportFormat format) {
+    FormatExporter formatExporter = getFormatExporter(format);
+    return formatExporter.createWriter(formatExporter.getConfiguredTemplate());
+  }
+
+  /** Returns the exporter of the given format. */
+  private FormatExporter getFormatExporter(ExportFormat format) {
+    switch (format) {
+      case EXCEL:
+        return excel;
+      case DOCX:
+        return docx;
+      case PDF:
+        return pdf;
+      case CSV:
+        return csv;
+      case JSON_LINES:
+        return jsonLines;
+      case ARROW:
+        return arrow;
+      case HTML:
+        return html;
+      default:
+        throw new IllegalArgumentException(String.valueOf(format));
+    }
   }
 
   /**
@@ -260,6 +388,36 @@ public class GridExporter<T> implements Serializable {
     csv.tooltipText = text;
   }
 
+  /**
+   * Sets the tooltip text shown on the auto-attached JSON Lines export icon. Pass {@code null} to
+   * disable the tooltip. Must be called before the grid is attached.
+   *
+   * @since 3.2.0
+   */
+  public void setJsonLinesExportTooltipText(String text) {
+    jsonLines.tooltipText = text;
+  }
+
+  /**
+   * Sets the tooltip text shown on the auto-attached Arrow export icon. Pass {@code null} to
+   * disable the tooltip. Must be called before the grid is attached.
+   *
+   * @since 3.2.0
+   */
+  public void setArrowExportTooltipText(String text) {
+    arrow.tooltipText = text;
+  }
+
+  /**
+   * Sets the tooltip text shown on the auto-attached HTML export icon. Pass {@code null} to
+   * disable the tooltip. Must be called before the grid is attached.
+   *
+   * @since 3.2.0
+   */
+  public void setHtmlExportTooltipText(String text) {
+    html.tooltipText = text;
+  }
+
   /**
    * Registers a configurator invoked at attach time with the {@link Tooltip} instance bound to the
    * Excel export icon. Allows further customization (position, opening delay, etc.). The
@@ -301,6 +459,85 @@ public class GridExporter<T> implements Serializable {
     csv.tooltipConfigurator = configurator;
   }
 
+  /**
+   * Registers a configurator invoked at attach time with the {@link Tooltip} instance bound to the
+   * JSON Lines export icon. The configurator runs after the text setter, so calling
+   * {@code tooltip.setText(...)} inside it overrides
+   * {@link #setJsonLinesExportTooltipText(String)}. Not invoked if the tooltip has been disabled
+   * via {@code setJsonLinesExportTooltipText(null)}.
+   *
+   * @since 3.2.0
+   */
+  public void setJsonLinesExportTooltipConfigurator(SerializableConsumer<Tooltip> configurator) {
+    jsonLines.tooltipConfigurator = configurator;
+  }
+
+  /**
+   * Registers a configurator invoked at attach time with the {@link Tooltip} instance bound to the
+   * Arrow export icon. The configurator runs after the text setter, so calling
+   * {@code tooltip.setText(...)} inside it overrides {@link #setArrowExportTooltipText(String)}.
+   * Not invoked if the tooltip has been disabled via {@code setArrowExportTooltipText(null)}.
+   *
+   * @since 3.2.0
+   */
+  public void setArrowExportTooltipConfigurator(SerializableConsumer<Tooltip> configurator) {
+    arrow.tooltipConfigurator = configurator;
+  }
+
+  /**
+   * Registers a configurator invoked at attach time with the {@link Tooltip} instance bound to the
+   * HTML export icon. The configurator runs after the text setter, so calling
+   * {@code tooltip.setText(...)} inside it overrides {@link #setHtmlExportTooltipText(String)}.
+   * Not invoked if the tooltip has been disabled via {@code setHtmlExportTooltipText(null)}.
+   *
+   * @since 3.2.0
+   */
+  public void setHtmlExportTooltipConfigurator(SerializableConsumer<Tooltip> configurator) {
+    html.tooltipConfigurator = configurator;
+  }
+
+  /**
+   * If a column was configured to be exported or not, that will be honored. If not, it will
+   * exported based on the visibility
+   */
+  boolean isExportable(Column<T> column) {
+    Boolean exported = (Boolean) ComponentUtil.getData(column, COLUMN_EXPORTED_PROVIDER_DATA);
+    return exported != null ? exported : column.isVisible();
+  }
+
+  /** Returns the filter currently applied by the data communicator of the grid. */
+  Object getFilter() {
+    Object filter = null;
+    try {
+      Method method = DataCommunicator.class.getDeclaredMethod("getFilter");
+      method.setAccessible(true);
+      filter = method.invoke(grid.getDataCommunicator());
+    } catch (Exception e) {
+      LOGGER.error("Unable to get filter from DataCommunicator", e);
+    }
+    return filter;
+  }
+
+  /** Returns the filter for the items in the export scope. */
+  Object getExportFilter() {
+    return exportScope == ExportScope.ALL ? null : getFilter();
+  }
+
+  /**
+   * Returns the range of rows that the client has requested from the data communicator of the
+   * grid, as an array with the first (inclusive) and the last (exclusive) index.
+   */
+  int[] getRequestedRange() {
+    try {
+      Field field = DataCommunicator.class.getDeclaredField("requestedRange");
+      field.setAccessible(true);
+      Range range = (Range) field.get(grid.getDataCommunicator());
+      return new int[] {range.getStart(), range.getEnd()};
+    } catch (Exception e) {
+      throw new IllegalStateException("Unable to get requested range from DataCommunicator", e);
+    }
+  }
+
   Object extractValueFromColumn(T item, Column<T> column) {
     Object value = null;
     // first check if therer is a value provider for the current column
@@ -530,6 +767,54 @@ public class GridExporter<T> implements Serializable {
     return csv.getDownloadHandler(null);
   }
 
+  /**
+   * Gets a DownloadHandler for JSON Lines export. Each row is exported as a JSON object keyed by
+   * the column key (or the column header, if the column has no key).
+   *
+   * @return the JSON Lines DownloadHandler
+   * @since 3.2.0
+   */
+  public DownloadHandler getJsonLinesDownloadHandler() {
+    return jsonLines.getDownloadHandler(null);
+  }
+
+  /**
+   * Gets a DownloadHandler for Apache Arrow IPC stream export. Number and date columns are
+   * exported as typed vectors, and the other columns as strings. This format requires
+   * {@code org.apache.arrow:arrow-vector} and an Arrow memory implementation (such as
+   * {@code arrow-memory-unsafe}) in the classpath, and the JVM must be started with
+   * {@code --add-opens=java.base/java.nio=ALL-UNNAMED}.
+   *
+   * @return the Arrow DownloadHandler
+   * @since 3.2.0
+   */
+  public GridExporterConcurrentDownloadHandler getArrowDownloadHandler() {
+    return arrow.getDownloadHandler(null);
+  }
+
+  /**
+   * Gets a DownloadHandler for HTML export, using the template configured with {@link
+   * #setHtmlTemplate(String)}. The HTML export is a lightweight alternative to the PDF export
+   * when the document is meant to be printed from the browser.
+   *
+   * @return the HTML DownloadHandler
+   * @since 3.2.0
+   */
+  public DownloadHandler getHtmlDownloadHandler() {
+    return html.getDownloadHandler(htmlCustomTemplate);
+  }
+
+  /**
+   * Gets a DownloadHandler for HTML export.
+   *
+   * @param template the classpath resource of the HTML template
+   * @return the HTML DownloadHandler
+   * @since 3.2.0
+   */
+  public DownloadHandler getHtmlDownloadHandler(String template) {
+    return html.getDownloadHandler(template);
+  }
+
   /**
    * Gets a DownloadHandler for Excel export.
    * 
@@ -551,15 +836,110 @@ public class GridExporter<T> implements Serializable {
     return excel.getDownloadHandler(template);
   }
 
+  /**
+   * Gets a DownloadHandler that exports the grid in several formats at once, and serves them as a
+   * single ZIP archive. The data is fetched only once, and each row is appended to the documents
+   * of all the requested formats. The templates configured through
+   * {@link #createFor(Grid, String, String)} are used for Excel, DOCX and PDF.
+   *
+   * @param formats the formats included in the archive
+   * @return the bundle DownloadHandler
+   * @throws IllegalArgumentException if no format is given, or a format is given more than once
+   * @since 3.2.0
+   */
+  public GridExporterConcurrentDownloadHandler getBundleDownloadHandler(ExportFormat... formats) {
+    if (formats.length == 0 || Stream.of(formats).distinct().count() != formats.length) {
+      throw new IllegalArgumentException("Formats must be non-empty and distinct");
+    }
+    List<BaseStreamResourceWriter<T>> writers = new ArrayList<>();
+    List<String> entryNames = new ArrayList<>();
+    StringBuilder cacheFormat = new StringBuilder("zip:");
+    for (ExportFormat format : formats) {
+      FormatExporter formatExporter = getFormatExporter(format);
+      writers.add(formatExporter.createWriter(formatExporter.getConfiguredTemplate()));
+      entryNames.add(getFileName(formatExporter.getFileExtension()));
+      cacheFormat.append(formatExporter.getFileExtension()).append('+');
+    }
+    cacheFormat.setLength(cacheFormat.length() - 1);
+    StreamResourceWriter writer = makeCachingWriter(
+        new BundleStreamResourceWriter<>(writers, entryNames), cacheFormat.toString(), null);
+    return makeConcurrentDownloadHandler(writer, getFileName("zip"), "application/zip", null);
+  }
+
+  /**
+   * Gets a DownloadHandler that splits the export into several files of at most the given number
+   * of rows, and serves them as a single ZIP archive. The items are fetched once, and the rows are
+   * rendered into each file in order; the files are then written concurrently (up to the
+   * {@linkplain #setShardParallelism(int) shard parallelism}) while the following files are being
+   * rendered, and added to the archive as they complete. Each file has the headers and footers of
+   * a full export, and its footer aggregates are computed on its own rows. The rows of all the
+   * files are fetched with the filter and sort order that the grid had when the first file was
+   * rendered, even if the grid changes while the archive is being written.
+   * <p>
+   * Since several files are written at the same time, the {@linkplain
+   * #setConcurrentDownloadCost(float) cost} of the download is multiplied by the shard
+   * parallelism.
+   *
+   * @param format the format of the files
+   * @param maxRowsPerShard the maximum number of rows in each file. It is further limited by the
+   *        {@linkplain #setMaxRowCount(ExportFormat, int) maximum row count} of the format.
+   * @return the sharded DownloadHandler
+   * @throws IllegalArgumentException if the number of rows is not positive
+   * @since 3.2.0
+   */
+  public GridExporterConcurrentDownloadHandler getShardedDownloadHandler(ExportFormat format,
+      int maxRowsPerShard) {
+    FormatExporter formatExporter = getFormatExporter(Objects.requireNonNull(format));
+    String extension = formatExporter.getFileExtension();
+    StreamResourceWriter writer = new ShardedStreamResourceWriter<>(
+        formatExporter.createWriter(formatExporter.getConfiguredTemplate()), maxRowsPerShard,
+        shardParallelism,
+        index -> String.format("%s-%03d.%s", getFileName(), index + 1, extension));
+    GridExporterConcurrentDownloadHandler handler =
+        makeConcurrentDownloadHandler(writer, getFileName("zip"), "application/zip", null);
+    handler.costWeight = shardParallelism;
+    return handler;
+  }
+
+  /**
+   * Sets the maximum number of files of a {@linkplain #getShardedDownloadHandler(ExportFormat,
+   * int) sharded export} that are written at the same time. The default is 2. Must be called
+   * before the download handlers are created.
+   *
+   * @param parallelism the maximum number of files written at the same time
+   * @throws IllegalArgumentException if the parallelism is not positive
+   * @since 3.2.0
+   */
+  public void setShardParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be positive");
+    }
+    shardParallelism = parallelism;
+  }
+
+  /**
+   * Returns the maximum number of files of a sharded export that are written at the same time.
+   *
+   * @since 3.2.0
+   */
+  public int getShardParallelism() {
+    return shardParallelism;
+  }
+
   private GridExporterConcurrentStreamResourceWriter makeConcurrentWriter(
       StreamResourceWriter writer) {
     return new GridExporterConcurrentStreamResourceWriter(writer);
   }
 
   private GridExporterConcurrentDownloadHandler makeConcurrentDownloadHandler(
-      StreamResourceWriter writer, String filename, String contentType) {
+      StreamResourceWriter writer, String filename, String contentType, ExportFormat format) {
     return new GridExporterConcurrentDownloadHandler(
-        new StreamResourceWriterAdapter(writer, filename, contentType));
+        new StreamResourceWriterAdapter(writer, filename, contentType), format);
+  }
+
+  private StreamResourceWriter makeCachingWriter(
+      StreamResourceWriter writer, String format, String template) {
+    return new CachingStreamResourceWriter(this, writer, format, template);
   }
 
   public class GridExporterStreamResource extends StreamResource {
@@ -636,8 +1016,17 @@ public class GridExporter<T> implements Serializable {
   public class GridExporterConcurrentDownloadHandler extends ConcurrentDownloadHandler
       implements GridExporterConcurrentStrategy {
 
-    GridExporterConcurrentDownloadHandler(DownloadHandler delegate) {
+    private final StreamResourceWriterAdapter delegate;
+    private final ExportFormat format;
+
+    /** The number of exports that this download performs at the same time. */
+    private int costWeight = 1;
+
+    GridExporterConcurrentDownloadHandler(StreamResourceWriterAdapter delegate,
+        ExportFormat format) {
       super(delegate);
+      this.delegate = delegate;
+      this.format = format;
     }
 
     private Component button;
@@ -654,7 +1043,7 @@ public class GridExporter<T> implements Serializable {
 
     @Override
     public float getCost(VaadinSession session) {
-      return GridExporterConcurrentStrategy.super.getCost(session);
+      return Math.min(MAX_COST, GridExporterConcurrentStrategy.super.getCost(session) * costWeight);
     }
 
     @Override
@@ -682,6 +1071,12 @@ public class GridExporter<T> implements Serializable {
       GridExporterConcurrentStrategy.super.onFinish();
     }
 
+    @Override
+    protected boolean tryHandleWithoutPermits(DownloadEvent event) throws IOException {
+      return delegate.handleCachedDownloadRequest(event)
+          || format != null && handleRowLimit(event, format);
+    }
+
     /**
      * Associates this download handler with a component (typically a button).
      * This allows the handler to enable/disable the component during download.
@@ -717,6 +1112,53 @@ public class GridExporter<T> implements Serializable {
     }
   }
 
+  void fireRowLimitExceeded(ExportFormat format, long rowCount) {
+    if (!rowLimitExceededListeners.isEmpty()) {
+      RowLimitExceededEvent ev =
+          new RowLimitExceededEvent(GridExporter.this, format, rowCount, getMaxRowCount(format));
+      Runnable fire = () -> rowLimitExceededListeners.forEach(listener -> listener.accept(ev));
+      grid.getUI().ifPresentOrElse(ui -> ui.access(fire::run), fire);
+    }
+  }
+
+  void fireDeltaExport(DeltaExport<T> delta, long rowCount, boolean truncated) {
+    if (!deltaExportListeners.isEmpty()) {
+      Object token = truncated ? delta.getPreviousToken() : delta.getToken();
+      DeltaExportEvent ev =
+          new DeltaExportEvent(GridExporter.this, delta.getPreviousToken(), token, rowCount);
+      Runnable fire = () -> deltaExportListeners.forEach(listener -> listener.accept(ev));
+      grid.getUI().ifPresentOrElse(ui -> ui.access(fire::run), fire);
+    }
+  }
+
+  /**
+   * Adds a listener for the delta exports that have been rendered. The listener receives the token
+   * for the next delta export.
+   *
+   * @param listener the listener to be added
+   * @return a {@link Registration} object that can be used to remove the listener
+   * @see #setDeltaVersionProvider(SerializableFunction)
+   * @since 3.2.0
+   */
+  public Registration addDeltaExportListener(SerializableConsumer<DeltaExportEvent> listener) {
+    deltaExportListeners.add(listener);
+    return () -> deltaExportListeners.remove(listener);
+  }
+
+  /**
+   * Adds a listener for the exports that are rejected because they exceed the {@linkplain
+   * #setMaxRowCount(ExportFormat, int) maximum row count} of their format.
+   *
+   * @param listener the listener to be added
+   * @return a {@link Registration} object that can be used to remove the listener
+   * @since 3.2.0
+   */
+  public Registration addRowLimitExceededListener(
+      SerializableConsumer<RowLimitExceededEvent> listener) {
+    rowLimitExceededListeners.add(listener);
+    return () -> rowLimitExceededListeners.remove(listener);
+  }
+
   /**
    * Adds a listener for concurrent download timeout events specific to this instance.
    * <p>
@@ -902,6 +1344,81 @@ public class GridExporter<T> implements Serializable {
     csv.enabled = csvExportEnabled;
   }
 
+  /**
+   * Returns whether the JSON Lines export button is auto-attached. Disabled by default.
+   *
+   * @since 3.2.0
+   */
+  public boolean isJsonLinesExportEnabled() {
+    return jsonLines.enabled;
+  }
+
+  /**
+   * Sets whether the JSON Lines export button is auto-attached. Disabled by default.
+   *
+   * @since 3.2.0
+   */
+  public void setJsonLinesExportEnabled(boolean jsonLinesExportEnabled) {
+    jsonLines.enabled = jsonLinesExportEnabled;
+  }
+
+  /**
+   * Returns whether the Arrow export button is auto-attached. Disabled by default.
+   *
+   * @since 3.2.0
+   */
+  public boolean isArrowExportEnabled() {
+    return arrow.enabled;
+  }
+
+  /**
+   * Sets whether the Arrow export button is auto-attached. Disabled by default.
+   *
+   * @since 3.2.0
+   */
+  public void setArrowExportEnabled(boolean arrowExportEnabled) {
+    arrow.enabled = arrowExportEnabled;
+  }
+
+  /**
+   * Returns whether the HTML export button is auto-attached. Disabled by default.
+   *
+   * @since 3.2.0
+   */
+  public boolean isHtmlExportEnabled() {
+    return html.enabled;
+  }
+
+  /**
+   * Sets whether the HTML export button is auto-attached. Disabled by default.
+   *
+   * @since 3.2.0
+   */
+  public void setHtmlExportEnabled(boolean htmlExportEnabled) {
+    html.enabled = htmlExportEnabled;
+  }
+
+  /**
+   * Returns the classpath resource of the template used by the HTML export, or {@code null} if
+   * the default template is used.
+   *
+   * @since 3.2.0
+   */
+  public String getHtmlTemplate() {
+    return htmlCustomTemplate;
+  }
+
+  /**
+   * Sets the classpath resource of the template used by the HTML export. The template is an HTML
+   * document that contains the same placeholders as the Excel and DOCX templates (title, headers,
+   * data, footers and the additional placeholders). Pass {@code null} to use the default template.
+   *
+   * @since 3.2.0
+   */
+  public void setHtmlTemplate(String template) {
+    htmlCustomTemplate = template;
+  }
+
   public boolean isAutoSizeColumns() {
     return autoSizeColumns;
   }
@@ -931,6 +1448,58 @@ public class GridExporter<T> implements Serializable {
     ComponentUtil.setData(column, COLUMN_EXPORTED_PROVIDER_DATA, export);
   }
 
+  /**
+   * Configures the properties of the items that are read when exporting the given column. They
+   * are passed to the backend as {@linkplain GridExportQuery#getRequiredProperties() required
+   * properties}, so that a projection-aware data provider can load only the exported columns. If
+   * no properties are configured, the key of the column is assumed to be its property.
+   *
+   * @param column the column
+   * @param properties the properties read by the column, or none to reset to the column key
+   * @since 3.2.0
+   */
+  public void setExportProperties(Column<T> column, String... properties) {
+    ComponentUtil.setData(column, COLUMN_EXPORT_PROPERTIES_DATA,
+        properties.length == 0 ? null : List.of(properties));
+  }
+
+  /**
+   * Returns the properties of the items that are read when exporting the given column: the
+   * configured ones, or the key of the column, or an empty list if the column has no key.
+   *
+   * @param column the column
+   * @since 3.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> getExportProperties(Column<T> column) {
+    List<String> properties =
+        (List<String>) ComponentUtil.getData(column, COLUMN_EXPORT_PROPERTIES_DATA);
+    if (properties != null) {
+      return properties;
+    }
+    return column.getKey() == null ? List.of() : List.of(column.getKey());
+  }
+
+  /**
+   * Returns the properties read by the exported columns, or {@code null} if some exported column
+   * doesn't declare its properties.
+   */
+  List<String> getRequiredProperties() {
+    List<Column<T>> columns = getColumnsOrdered();
+    if (columns == null) {
+      return null;
+    }
+    Set<String> properties = new LinkedHashSet<>();
+    for (Column<T> column : columns) {
+      List<String> columnProperties = getExportProperties(column);
+      if (columnProperties.isEmpty()) {
+        return null;
+      }
+      properties.addAll(columnProperties);
+    }
+    return List.copyOf(properties);
+  }
+
   public void setNullValueHandler(SerializableSupplier<String> nullValueSupplier) {
     this.nullValueSupplier = nullValueSupplier;
   }
@@ -1003,68 +1572,187 @@ public class GridExporter<T> implements Serializable {
   }
 
   /**
-   * If the column is based on a number attribute of the item, rendered with a NumberRenderer, it
-   * configures the excel format to be applied to the cell when exported to excel, so the resulting
-   * cell is not a string but a number that can be used in formulas.
+   * Configures an aggregate computed over the exported values of the column, and written into its
+   * footer instead of the footer text. The aggregate is accumulated while the rows are exported,
+   * so that it doesn't require another pass over the data, and it only covers the exported rows.
+   * <p>
+   * String values are parsed with the {@linkplain #setNumberColumnFormat(Column, DecimalFormat,
+   * String) parsing format} of the column, if any, and the result is formatted with the same
+   * format. In Excel exports, the sum, average, minimum, maximum and count are written as
+   * formulas over the data rows. Pass {@code null} to remove the aggregate.
    *
-   * @param column
-   * @param excelFormat
+   * @param column the column
+   * @param aggregate the aggregate, or {@code null}
+   * @since 3.2.0
    */
-  public void setNumberColumnFormat(Column<T> column, String excelFormat) {
-    ComponentUtil.setData(column, COLUMN_EXCEL_FORMAT_DATA, excelFormat);
-    ComponentUtil.setData(column, COLUMN_TYPE_DATA, COLUMN_TYPE_NUMBER);
+  public void setFooterAggregate(Column<T> column, ColumnAggregate aggregate) {
+    ComponentUtil.setData(column, COLUMN_FOOTER_AGGREGATE_DATA, aggregate);
+    ComponentUtil.setData(column, COLUMN_FOOTER_AGGREGATE_FORMATTER_DATA, null);
   }
 
   /**
-   * If the column is based on a LocalDate attribute of the item, rendered with a LocalDateRenderer,
-   * it configures the excel format to be applied to the cell when exported to excel, so the
-   * resulting cell is not a string but a date that can be used in formulas.
+   * Configures an aggregate computed over the exported values of the column, and written into its
+   * footer as formatted by the given function. The function receives the result of the
+   * aggregate: a {@link java.math.BigDecimal} for sums and averages, a {@link Long} for counts,
+   * or the minimum or maximum value (numbers are received as {@code BigDecimal}). The result is
+   * {@code null} if there were no values to aggregate.
    *
-   * @param column
-   * @param excelFormat
+   * @param column the column
+   * @param aggregate the aggregate
+   * @param formatter formats the result of the aggregate
+   * @see #setFooterAggregate(Column, ColumnAggregate)
+   * @since 3.2.0
    */
-  public void setDateColumnFormat(Column<T> column, String excelFormat) {
-    ComponentUtil.setData(column, COLUMN_EXCEL_FORMAT_DATA, excelFormat);
-    ComponentUtil.setData(column, COLUMN_TYPE_DATA, COLUMN_TYPE_DATE);
+  public void setFooterAggregate(Column<T> column, ColumnAggregate aggregate,
+      SerializableFunction<Object, String> formatter) {
+    ComponentUtil.setData(column, COLUMN_FOOTER_AGGREGATE_DATA, Objects.requireNonNull(aggregate));
+    ComponentUtil.setData(column, COLUMN_FOOTER_AGGREGATE_FORMATTER_DATA,
+        Objects.requireNonNull(formatter));
   }
 
   /**
-   * Configures the exporter to use a custom string for a specific column's header. Usefull when the
-   * header is a custom component.
+   * Returns the aggregate written into the footer of the column, or {@code null}.
    *
-   * @param column
-   * @param header
+   * @since 3.2.0
    */
-  public void setCustomHeader(Column<T> column, String header) {
-    ComponentUtil.setData(column, COLUMN_HEADER, header);
+  public ColumnAggregate getFooterAggregate(Column<T> column) {
+    return FooterAggregator.getAggregate(column);
   }
 
   /**
-   * Configures the exporter to use a custom string for a specific column's footer. Usefull when the
-   * footer is a custom component.
+   * Sets how the string cells of the data rows are stored in Excel exports, for the columns that
+   * don't {@linkplain #setExcelStringMode(Column, ExcelStringMode) override it}. The default is
+   * {@link ExcelStringMode#SHARED}.
    *
-   * @param column
-   * @param header
+   * @param mode the string mode
+   * @since 3.2.0
    */
-  public void setCustomFooter(Column<T> column, String header) {
-    ComponentUtil.setData(column, COLUMN_FOOTER, header);
+  public void setExcelStringMode(ExcelStringMode mode) {
+    excelStringMode = Objects.requireNonNull(mode);
   }
 
   /**
-   * Assigns the position of the column in the exported file.
+   * Returns how the string cells of the data rows are stored in Excel exports, for the columns
+   * that don't override it.
    *
-   * @param column
-   * @param position
+   * @since 3.2.0
    */
-  public void setColumnPosition(Column<T> column, int position) {
-    ComponentUtil.setData(column, COLUMN_POSITION, position);
+  public ExcelStringMode getExcelStringMode() {
+    return excelStringMode;
   }
 
-  private int getColumnPosition(Column<T> column) {
-    return Optional.ofNullable(ComponentUtil.getData(column, COLUMN_POSITION))
-        .map(value -> Integer.class.cast(value))
-        .orElse(Integer.MAX_VALUE);
-  }
+  /**
+   * Sets how the string cells of the given column are stored in Excel exports. Pass {@code null}
+   * to use the {@linkplain #setExcelStringMode(ExcelStringMode) mode of the exporter}.
+   *
+   * @param column the column
+   * @param mode the string mode, or {@code null}
+   * @since 3.2.0
+   */
+  public void setExcelStringMode(Column<T> column, ExcelStringMode mode) {
+    ComponentUtil.setData(column, COLUMN_EXCEL_STRING_MODE_DATA, mode);
+  }
+
+  /**
+   * Returns how the string cells of the given column are stored in Excel exports.
+   *
+   * @since 3.2.0
+   */
+  public ExcelStringMode getExcelStringMode(Column<T> column) {
+    ExcelStringMode mode =
+        (ExcelStringMode) ComponentUtil.getData(column, COLUMN_EXCEL_STRING_MODE_DATA);
+    return mode == null ? excelStringMode : mode;
+  }
+
+  /**
+   * Sets the maximum number of distinct values stored in the shared strings table of an Excel
+   * export. Once the maximum is reached, the values that are not already shared are stored
+   * inline, even in columns that use {@link ExcelStringMode#SHARED}. The default is 100000.
+   *
+   * @param limit the maximum number of shared strings
+   * @throws IllegalArgumentException if the limit is negative
+   * @since 3.2.0
+   */
+  public void setExcelSharedStringsLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("The limit cannot be negative");
+    }
+    excelSharedStringsLimit = limit;
+  }
+
+  /**
+   * Returns the maximum number of distinct values stored in the shared strings table of an Excel
+   * export.
+   *
+   * @since 3.2.0
+   */
+  public int getExcelSharedStringsLimit() {
+    return excelSharedStringsLimit;
+  }
+
+  /**
+   * If the column is based on a number attribute of the item, rendered with a NumberRenderer, it
+   * configures the excel format to be applied to the cell when exported to excel, so the resulting
+   * cell is not a string but a number that can be used in formulas.
+   *
+   * @param column
+   * @param excelFormat
+   */
+  public void setNumberColumnFormat(Column<T> column, String excelFormat) {
+    ComponentUtil.setData(column, COLUMN_EXCEL_FORMAT_DATA, excelFormat);
+    ComponentUtil.setData(column, COLUMN_TYPE_DATA, COLUMN_TYPE_NUMBER);
+  }
+
+  /**
+   * If the column is based on a LocalDate attribute of the item, rendered with a LocalDateRenderer,
+   * it configures the excel format to be applied to the cell when exported to excel, so the
+   * resulting cell is not a string but a date that can be used in formulas.
+   *
+   * @param column
+   * @param excelFormat
+   */
+  public void setDateColumnFormat(Column<T> column, String excelFormat) {
+    ComponentUtil.setData(column, COLUMN_EXCEL_FORMAT_DATA, excelFormat);
+    ComponentUtil.setData(column, COLUMN_TYPE_DATA, COLUMN_TYPE_DATE);
+  }
+
+  /**
+   * Configures the exporter to use a custom string for a specific column's header. Usefull when the
+   * header is a custom component.
+   *
+   * @param column
+   * @param header
+   */
+  public void setCustomHeader(Column<T> column, String header) {
+    ComponentUtil.setData(column, COLUMN_HEADER, header);
+  }
+
+  /**
+   * Configures the exporter to use a custom string for a specific column's footer. Usefull when the
+   * footer is a custom component.
+   *
+   * @param column
+   * @param header
+   */
+  public void setCustomFooter(Column<T> column, String header) {
+    ComponentUtil.setData(column, COLUMN_FOOTER, header);
+  }
+
+  /**
+   * Assigns the position of the column in the exported file.
+   *
+   * @param column
+   * @param position
+   */
+  public void setColumnPosition(Column<T> column, int position) {
+    ComponentUtil.setData(column, COLUMN_POSITION, position);
+  }
+
+  private int getColumnPosition(Column<T> column) {
+    return Optional.ofNullable(ComponentUtil.getData(column, COLUMN_POSITION))
+        .map(value -> Integer.class.cast(value))
+        .orElse(Integer.MAX_VALUE);
+  }
 
   public void setColumns(List<Grid.Column<T>> columns) {
     this.columns = columns;
@@ -1102,6 +1790,735 @@ public class GridExporter<T> implements Serializable {
     csvCharset = charset;
   }
 
+  /**
+   * Returns the cache used for serving repeated downloads of the same export.
+   *
+   * @return the export cache, or {@code null} if exports are not cached.
+   * @since 3.2.0
+   */
+  public GridExporterCache getExportCache() {
+    return exportCache;
+  }
+
+  /**
+   * Sets the cache used for serving repeated downloads of the same export without fetching and
+   * rendering the data again. The same cache can be shared by several exporters (for instance, by
+   * the exporters of all the UIs that show the same grid). Downloads served from the cache do not
+   * acquire permits for concurrent downloads.
+   * <p>
+   * Exports are cached by format, template, exported columns, header and footer texts, locale of
+   * the UI, filter (including the filter and sort comparator of an in-memory data provider),
+   * sort order, the settings that affect the rendered content, and the token returned by the
+   * {@linkplain #setDataVersionSupplier(SerializableSupplier) data version supplier}. The cache is
+   * not serialized with the exporter.
+   *
+   * @param exportCache the export cache, or {@code null} for not caching exports (default).
+   * @since 3.2.0
+   */
+  public void setExportCache(GridExporterCache exportCache) {
+    this.exportCache = exportCache;
+  }
+
+  /**
+   * Sets a supplier for a token that identifies the version of the exported data. The application
+   * should return a different token whenever the data changes, so that exports rendered from
+   * previous versions of the data are no longer served from the {@linkplain
+   * #setExportCache(GridExporterCache) export cache}. When exporters of different grids share the
+   * same cache, the token should also identify the dataset.
+   * <p>
+   * The supplier is called under the session lock.
+   *
+   * @param dataVersionSupplier a supplier of data version tokens, which must implement
+   *        {@code equals} and {@code hashCode}.
+   * @since 3.2.0
+   */
+  public void setDataVersionSupplier(SerializableSupplier<?> dataVersionSupplier) {
+    this.dataVersionSupplier = dataVersionSupplier;
+  }
+
+  /**
+   * Enables delta exports, where only the rows that changed since a previous export are exported.
+   * The version provider returns the version of each item (e.g. a last-modified timestamp or an
+   * increasing revision number), and versions must increase whenever an item changes.
+   * <p>
+   * Each export then fires a {@link DeltaExportEvent} with a token, which is the highest version
+   * among the exported rows. When that token is passed to {@link #setDeltaToken(Object)}, the
+   * following exports only contain the rows with a greater version, whatever the filter and the
+   * sort order of the grid. The token is also available to the backend as {@link
+   * GridExportQuery#getDeltaToken()}, so that it can fetch only those rows. Items without a
+   * version are always exported. Delta exports are never served from the {@linkplain
+   * #setExportCache(GridExporterCache) export cache}.
+   *
+   * @param versionProvider the provider of the version of the items, or {@code null} to disable
+   *        delta exports
+   * @since 3.2.0
+   */
+  public void setDeltaVersionProvider(
+      SerializableFunction<T, ? extends Comparable<?>> versionProvider) {
+    deltaVersionProvider = versionProvider;
+  }
+
+  /**
+   * Returns the provider of the version of the items for delta exports, or {@code null} if delta
+   * exports are disabled.
+   *
+   * @since 3.2.0
+   */
+  public SerializableFunction<T, ? extends Comparable<?>> getDeltaVersionProvider() {
+    return deltaVersionProvider;
+  }
+
+  /**
+   * Sets the token of a previous delta export, as received in its {@link DeltaExportEvent}. Only
+   * the rows that changed after that export are exported. Pass {@code null} for a full export
+   * (which still returns a token).
+   *
+   * @param token the token of a previous export, or {@code null}
+   * @since 3.2.0
+   */
+  public void setDeltaToken(Object token) {
+    deltaToken = token;
+  }
+
+  /**
+   * Returns the token of the previous delta export that the exports start from, or {@code null}.
+   *
+   * @since 3.2.0
+   */
+  public Object getDeltaToken() {
+    return deltaToken;
+  }
+
+  /** Returns the delta export for rendering the current export, or {@code null}. */
+  DeltaExport<T> createDeltaExport() {
+    return deltaVersionProvider == null ? null : new DeltaExport<>(deltaVersionProvider, deltaToken);
+  }
+
+  /**
+   * Creates the key that identifies, in the export cache, the export of the current state of the
+   * grid with the given format and template.
+   */
+  GridExporterCache.Key createCacheKey(VaadinSession session, String format, String template) {
+    session.lock();
+    try {
+      List<Column<T>> columns = grid.getColumns().stream()
+          .filter(this::isExportable)
+          .sorted(Comparator.comparing(this::getColumnPosition))
+          .collect(Collectors.toList());
+      List<String> columnIds =
+          columns.stream().map(this::getColumnId).collect(Collectors.toList());
+      List<String> sortOrder = grid.getSortOrder().stream()
+          .map(order -> getColumnId(order.getSorted()) + " " + order.getDirection())
+          .collect(Collectors.toList());
+      Object rows = null;
+      if (exportScope == ExportScope.SELECTED) {
+        rows = grid.getSelectedItems().stream()
+            .map(grid.getDataProvider()::getId)
+            .collect(Collectors.toSet());
+      } else if (exportScope == ExportScope.VIEWPORT) {
+        int[] range = getRequestedRange();
+        rows = List.of(range[0], range[1]);
+      }
+      Class<T> beanType = grid.getBeanType();
+      return new GridExporterCache.Key(format, template,
+          beanType == null ? null : beanType.getName(), columnIds,
+          getHeaderAndFooterTexts(columns),
+          grid.getUI().map(UI::getLocale).orElseGet(session::getLocale), sortOrder,
+          getCacheFilter(), exportScope, rows, getOutputSettings(),
+          dataVersionSupplier == null ? null : dataVersionSupplier.get());
+    } finally {
+      session.unlock();
+    }
+  }
+
+  /**
+   * Returns the texts of the header and footer cells of the given columns, which are rendered in
+   * the exports unless a custom header or footer is set.
+   */
+  private List<String> getHeaderAndFooterTexts(List<Column<T>> columns) {
+    List<String> texts = new ArrayList<>();
+    for (Column<T> column : columns) {
+      for (HeaderRow row : grid.getHeaderRows()) {
+        HeaderCell cell = row.getCell(column);
+        texts.add(getCellText(cell.getText(), cell.getComponent()));
+      }
+      for (FooterRow row : grid.getFooterRows()) {
+        FooterCell cell = row.getCell(column);
+        texts.add(getCellText(cell.getText(), cell.getComponent()));
+      }
+    }
+    return texts;
+  }
+
+  private static String getCellText(String text, Component component) {
+    return component == null ? text : component.getElement().getTextRecursively();
+  }
+
+  /**
+   * Returns the filters and in-memory sorting applied to the exported items: the filter of the
+   * data communicator and, for in-memory data providers, the filter and sort comparator set through
+   * the list data view.
+   */
+  @SuppressWarnings("unchecked")
+  private List<Object> getCacheFilter() {
+    Object listFilter = null;
+    Object listComparator = null;
+    if (grid.getDataProvider() instanceof ListDataProvider) {
+      ListDataProvider<T> dataProvider = (ListDataProvider<T>) grid.getDataProvider();
+      listFilter = exportScope == ExportScope.ALL ? null : dataProvider.getFilter();
+      listComparator = dataProvider.getSortComparator();
+    }
+    return Arrays.asList(getExportFilter(), listFilter, listComparator,
+        grid.getDataCommunicator().getInMemorySorting());
+  }
+
+  /**
+   * Returns the values of the settings of this exporter and of the exported columns that affect
+   * the content of the rendered exports.
+   */
+  private List<Object> getOutputSettings() {
+    List<Object> settings = new ArrayList<>(Arrays.asList(
+        getFileName(),
+        title,
+        new HashMap<>(additionalPlaceHolders),
+        sheetNumber,
+        autoMergeTitle,
+        autoSizeColumns,
+        htmlCustomTemplate,
+        nullValueSupplier == null ? null : nullValueSupplier.get(),
+        csvCharset == null ? null : csvCharset.get(),
+        textExportCompression,
+        compressionLevel,
+        excelStringMode,
+        excelSharedStringsLimit,
+        new EnumMap<>(maxRowCounts),
+        rowLimitPolicy,
+        rowLimitNotice));
+    for (Column<T> column : grid.getColumns()) {
+      if (isExportable(column)) {
+        for (String key : COLUMN_OUTPUT_DATA) {
+          settings.add(ComponentUtil.getData(column, key));
+        }
+      }
+    }
+    return settings;
+  }
+
+  private String getColumnId(Column<T> column) {
+    return column.getKey() != null ? column.getKey() : "#" + grid.getColumns().indexOf(column);
+  }
+
+  public FileCompression getTextExportCompression() {
+    return textExportCompression;
+  }
+
+  /**
+   * Configures the compression of the files produced by text exports (CSV). When set to
+   * {@link FileCompression#GZIP} the exported file is {@code <filename>.csv.gz}, and when set to
+   * {@link FileCompression#ZIP} the exported file is a {@code <filename>.zip} archive that
+   * contains {@code <filename>.csv}. Must be called before the download handlers are created.
+   *
+   * @param compression the compression of the exported file (default {@link FileCompression#NONE})
+   * @since 3.2.0
+   */
+  public void setTextExportCompression(FileCompression compression) {
+    textExportCompression = Objects.requireNonNull(compression);
+  }
+
+  public boolean isTransferCompressionEnabled() {
+    return transferCompressionEnabled;
+  }
+
+  /**
+   * If true, text exports (CSV) that are not already {@linkplain
+   * #setTextExportCompression(FileCompression) compressed} are transferred with gzip
+   * {@code Content-Encoding} when the browser accepts it. The file saved by the browser is not
+   * compressed. Must be called before the download handlers are created.
+   *
+   * @param transferCompressionEnabled whether to compress the transferred content (default
+   *        {@code false})
+   * @since 3.2.0
+   */
+  public void setTransferCompressionEnabled(boolean transferCompressionEnabled) {
+    this.transferCompressionEnabled = transferCompressionEnabled;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Sets the compression level used for compressed files and compressed transfers. Lower levels
+   * use less CPU and higher levels produce smaller files.
+   *
+   * @param compressionLevel the compression level (0-9), or {@link Deflater#DEFAULT_COMPRESSION}
+   * @throws IllegalArgumentException if the compression level is invalid
+   * @since 3.2.0
+   */
+  public void setCompressionLevel(int compressionLevel) {
+    if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+        && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+    }
+    this.compressionLevel = compressionLevel;
+  }
+
+  /**
+   * Configures whether the exports are rendered into a buffer before being served. The buffer is
+   * kept on the heap or spilled into a temporary file according to the {@link
+   * GridExporterSpillSettings}.
+   * <p>
+   * When enabled, the responses include {@code Content-Length} (so that browsers can show the
+   * progress of the download) and {@code ETag} headers, and the rendered export is retained for
+   * the {@linkplain #setRenderedFileRetention(Duration) retention time}, during which interrupted
+   * downloads can be resumed with range requests, without acquiring permits or rendering the export
+   * again. The retained exports are discarded when the grid is detached. The transferred content
+   * is not compressed with gzip.
+   *
+   * @param renderToFileEnabled whether the exports are rendered before being served
+   * @since 3.2.0
+   */
+  public void setRenderToFileEnabled(boolean renderToFileEnabled) {
+    this.renderToFileEnabled = renderToFileEnabled;
+    clearRenderedExports();
+  }
+
+  /**
+   * Returns whether the exports are rendered into a buffer before being served.
+   *
+   * @since 3.2.0
+   */
+  public boolean isRenderToFileEnabled() {
+    return renderToFileEnabled;
+  }
+
+  /**
+   * Sets how long a rendered export is retained for resuming its download. The default is 5
+   * minutes. A zero duration discards the rendered exports as soon as they are served.
+   *
+   * @param retention the retention time
+   * @throws IllegalArgumentException if the retention time is negative
+   * @since 3.2.0
+   */
+  public void setRenderedFileRetention(Duration retention) {
+    if (retention.isNegative()) {
+      throw new IllegalArgumentException("The retention time cannot be negative");
+    }
+    renderedFileRetention = retention;
+    clearRenderedExports();
+  }
+
+  /**
+   * Returns how long a rendered export is retained for resuming its download.
+   *
+   * @since 3.2.0
+   */
+  public Duration getRenderedFileRetention() {
+    return renderedFileRetention;
+  }
+
+  /**
+   * Sets which rows of the grid are exported. The default is {@link ExportScope#FILTERED}.
+   *
+   * @param scope the export scope
+   * @since 3.2.0
+   */
+  public void setExportScope(ExportScope scope) {
+    exportScope = Objects.requireNonNull(scope);
+  }
+
+  /**
+   * Returns which rows of the grid are exported.
+   *
+   * @since 3.2.0
+   */
+  public ExportScope getExportScope() {
+    return exportScope;
+  }
+
+  /**
+   * Sets the keyset pagination used for fetching the items of a lazy data provider. If the data
+   * provider of the grid implements {@link KeysetPagination}, it is used unless another keyset
+   * pagination is configured. Pass {@code null} to fetch the items with offset-based queries
+   * (unless the data provider implements {@code KeysetPagination}).
+   *
+   * @param keysetPagination the keyset pagination, or {@code null}
+   * @since 3.2.0
+   */
+  public void setKeysetPagination(KeysetPagination<T, ?> keysetPagination) {
+    this.keysetPagination = keysetPagination;
+  }
+
+  /**
+   * Returns the keyset pagination used for fetching the items of the grid: the configured one, or
+   * the data provider of the grid if it implements {@link KeysetPagination}, or {@code null}.
+   *
+   * @since 3.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public KeysetPagination<T, ?> getKeysetPagination() {
+    if (keysetPagination != null) {
+      return keysetPagination;
+    } else if (grid.getDataProvider() instanceof KeysetPagination) {
+      return (KeysetPagination<T, ?>) grid.getDataProvider();
+    }
+    return null;
+  }
+
+  /**
+   * Sets the reactive data source that publishes the items of the grid. If the data provider of
+   * the grid implements {@link ReactiveDataSource}, it is used unless another reactive data source
+   * is configured. When available, it takes precedence over {@linkplain
+   * #setKeysetPagination(KeysetPagination) keyset pagination}.
+   *
+   * @param reactiveDataSource the reactive data source, or {@code null}
+   * @since 3.2.0
+   */
+  public void setReactiveDataSource(ReactiveDataSource<T, ?> reactiveDataSource) {
+    this.reactiveDataSource = reactiveDataSource;
+  }
+
+  /**
+   * Returns the reactive data source that publishes the items of the grid: the configured one, or
+   * the data provider of the grid if it implements {@link ReactiveDataSource}, or {@code null}.
+   *
+   * @since 3.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public ReactiveDataSource<T, ?> getReactiveDataSource() {
+    if (reactiveDataSource != null) {
+      return reactiveDataSource;
+    } else if (grid.getDataProvider() instanceof ReactiveDataSource) {
+      return (ReactiveDataSource<T, ?>) grid.getDataProvider();
+    }
+    return null;
+  }
+
+  /**
+   * Sets the number of items requested in each page when the items of the grid are fetched in
+   * pages by the exporter (e.g. with {@linkplain #setKeysetPagination(KeysetPagination) keyset
+   * pagination}, or with {@linkplain #setExportFetchParallelism(int) parallel fetching}), and the
+   * number of items requested at once from a {@linkplain
+   * #setReactiveDataSource(ReactiveDataSource) reactive data source}. The default is 1000.
+   *
+   * @param pageSize the number of items in each page
+   * @throws IllegalArgumentException if the page size is not positive
+   * @since 3.2.0
+   */
+  public void setExportPageSize(int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("The page size must be positive");
+    }
+    exportPageSize = pageSize;
+  }
+
+  /**
+   * Returns the number of items requested in each page when the items of the grid are fetched in
+   * pages by the exporter.
+   *
+   * @since 3.2.0
+   */
+  public int getExportPageSize() {
+    return exportPageSize;
+  }
+
+  /**
+   * Sets the number of pages of a lazy data provider that are fetched at the same time. When it is
+   * greater than 1, the exporter requests pages of {@linkplain #setExportPageSize(int) export page
+   * size} items with concurrent {@link GridExportQuery queries} (at increasing offsets), on the
+   * {@linkplain #setValueExtractionExecutor(Executor) value extraction executor}, and returns
+   * their items in order, so that the latency of the backend is overlapped. New pages are
+   * requested as the oldest ones are consumed, until a page returns fewer items than requested.
+   * <p>
+   * The data provider is then called from other threads, without the session lock, with the
+   * filter and sort orders that the grid had when the export started: it must be thread-safe, and
+   * must not access the UI. Keyset pagination and reactive data sources, if configured, take
+   * precedence. The default is 1 (the pages are fetched sequentially).
+   *
+   * @param parallelism the maximum number of pages fetched at the same time
+   * @throws IllegalArgumentException if the parallelism is not positive
+   * @since 3.2.0
+   */
+  public void setExportFetchParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be positive");
+    }
+    exportFetchParallelism = parallelism;
+  }
+
+  /**
+   * Returns the number of pages of a lazy data provider that are fetched at the same time.
+   *
+   * @since 3.2.0
+   */
+  public int getExportFetchParallelism() {
+    return exportFetchParallelism;
+  }
+
+  /**
+   * Sets the number of rows that the backend should fetch from the database in each round trip
+   * while exporting. The hint is passed to the backend in the {@link GridExportQuery} issued by
+   * the exporter. The default is 0, meaning no suggestion.
+   *
+   * @param fetchSize the suggested fetch size, or 0 for no suggestion
+   * @throws IllegalArgumentException if the fetch size is negative
+   * @since 3.2.0
+   */
+  public void setExportFetchSizeHint(int fetchSize) {
+    if (fetchSize < 0) {
+      throw new IllegalArgumentException("The fetch size cannot be negative");
+    }
+    exportFetchSizeHint = fetchSize;
+  }
+
+  /**
+   * Returns the number of rows that the backend should fetch from the database in each round trip
+   * while exporting, or 0 if there is no suggestion.
+   *
+   * @since 3.2.0
+   */
+  public int getExportFetchSizeHint() {
+    return exportFetchSizeHint;
+  }
+
+  /**
+   * Configures whether the values of the exported rows are extracted in parallel. When enabled,
+   * the fetched rows are split into batches, the values of each batch (including the {@linkplain
+   * #setExportValue(Column, ValueProvider) export value providers}) are computed on the
+   * {@linkplain #setValueExtractionExecutor(Executor) value extraction executor}, and the rows are
+   * handed to the format writer in their original order. The number of batches in flight is
+   * bounded, so that the memory usage doesn't depend on the number of rows.
+   * <p>
+   * The value providers of the exported columns are then called from other threads, while the
+   * session lock is held by the thread that renders the export: they must be thread-safe, and
+   * must not access the UI. Large in-memory lists are also filtered and sorted in parallel (with
+   * parallel streams, which run on the common pool), so the same applies to the filter and the
+   * comparators of the grid. Disabled by default.
+   *
+   * @param parallelValueExtractionEnabled whether the values are extracted in parallel
+   * @since 3.2.0
+   */
+  public void setParallelValueExtractionEnabled(boolean parallelValueExtractionEnabled) {
+    this.parallelValueExtractionEnabled = parallelValueExtractionEnabled;
+  }
+
+  /**
+   * Returns whether the values of the exported rows are extracted in parallel.
+   *
+   * @since 3.2.0
+   */
+  public boolean isParallelValueExtractionEnabled() {
+    return parallelValueExtractionEnabled;
+  }
+
+  /**
+   * Sets the executor where the values of the exported rows are extracted, when {@linkplain
+   * #setParallelValueExtractionEnabled(boolean) parallel value extraction} is enabled. The
+   * executor is not serialized with the exporter. If {@code null} (the default), a bounded
+   * executor owned by the add-on is used, with at most one thread per available processor.
+   *
+   * @param executor the executor, or {@code null} for the executor owned by the add-on
+   * @since 3.2.0
+   */
+  public void setValueExtractionExecutor(Executor executor) {
+    valueExtractionExecutor = executor;
+  }
+
+  /**
+   * Returns the executor where the values of the exported rows are extracted.
+   *
+   * @since 3.2.0
+   */
+  public Executor getValueExtractionExecutor() {
+    return valueExtractionExecutor == null ? ExportExecutor.getDefault() : valueExtractionExecutor;
+  }
+
+  /**
+   * Sets the number of rows in each batch submitted to the value extraction executor. The default
+   * is 256.
+   *
+   * @param batchSize the number of rows in each batch
+   * @throws IllegalArgumentException if the batch size is not positive
+   * @since 3.2.0
+   */
+  public void setValueExtractionBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be positive");
+    }
+    valueExtractionBatchSize = batchSize;
+  }
+
+  /**
+   * Returns the number of rows in each batch submitted to the value extraction executor.
+   *
+   * @since 3.2.0
+   */
+  public int getValueExtractionBatchSize() {
+    return valueExtractionBatchSize;
+  }
+
+  /**
+   * Returns the store of rendered exports, or {@code null} if the exports are not rendered before
+   * being served.
+   */
+  synchronized RenderedExportStore getRenderedExportStore() {
+    if (renderToFileEnabled && renderedExportStore == null) {
+      renderedExportStore = new RenderedExportStore(renderedFileRetention);
+    }
+    return renderToFileEnabled ? renderedExportStore : null;
+  }
+
+  private synchronized void clearRenderedExports() {
+    if (renderedExportStore != null) {
+      renderedExportStore.clear();
+      renderedExportStore = null;
+    }
+  }
+
+  /**
+   * Sets the maximum number of rows exported in the given format. Before an export starts (and
+   * before acquiring any permit for concurrent downloads), the number of rows is queried from the
+   * data provider, and the {@linkplain #setRowLimitPolicy(RowLimitPolicy) row limit policy} is
+   * applied if the maximum is exceeded. If the number of rows cannot be queried (e.g. for
+   * hierarchical data or data providers of undefined size), the maximum is enforced while
+   * rendering.
+   *
+   * @param format the export format
+   * @param maxRowCount the maximum row count, or {@link Integer#MAX_VALUE} for no limit
+   * @throws IllegalArgumentException if the maximum row count is not positive
+   * @since 3.2.0
+   */
+  public void setMaxRowCount(ExportFormat format, int maxRowCount) {
+    Objects.requireNonNull(format);
+    if (maxRowCount <= 0) {
+      throw new IllegalArgumentException("The maximum row count must be positive");
+    }
+    if (maxRowCount == Integer.MAX_VALUE) {
+      maxRowCounts.remove(format);
+    } else {
+      maxRowCounts.put(format, maxRowCount);
+    }
+  }
+
+  /**
+   * Returns the maximum number of rows exported in the given format.
+   *
+   * @param format the export format
+   * @return the maximum row count, or {@link Integer#MAX_VALUE} if there is no limit
+   * @since 3.2.0
+   */
+  public int getMaxRowCount(ExportFormat format) {
+    return maxRowCounts.getOrDefault(format, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Sets the policy applied when an export exceeds the {@linkplain #setMaxRowCount(ExportFormat,
+   * int) maximum row count} of its format. The default is {@link RowLimitPolicy#REJECT}.
+   *
+   * @param rowLimitPolicy the row limit policy
+   * @since 3.2.0
+   */
+  public void setRowLimitPolicy(RowLimitPolicy rowLimitPolicy) {
+    this.rowLimitPolicy = Objects.requireNonNull(rowLimitPolicy);
+  }
+
+  /**
+   * Returns the policy applied when an export exceeds the maximum row count of its format.
+   *
+   * @since 3.2.0
+   */
+  public RowLimitPolicy getRowLimitPolicy() {
+    return rowLimitPolicy;
+  }
+
+  /**
+   * Sets the text of the row appended to truncated exports. The text is a {@linkplain
+   * String#format(String, Object...) format string} that receives the maximum row count as
+   * argument.
+   *
+   * @param rowLimitNotice the notice format string
+   * @since 3.2.0
+   */
+  public void setRowLimitNotice(String rowLimitNotice) {
+    this.rowLimitNotice = Objects.requireNonNull(rowLimitNotice);
+  }
+
+  /**
+   * Returns the text of the row appended to truncated exports.
+   *
+   * @since 3.2.0
+   */
+  public String getRowLimitNotice() {
+    return rowLimitNotice;
+  }
+
+  String formatRowLimitNotice(int maxRowCount) {
+    return String.format(rowLimitNotice, maxRowCount);
+  }
+
+  /**
+   * Returns the number of rows that would be exported from the grid, or {@code -1} if it cannot be
+   * queried in advance.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  long countRows(VaadinSession session) {
+    session.lock();
+    try {
+      if (exportScope == ExportScope.SELECTED) {
+        return grid.getSelectedItems().size();
+      } else if (exportScope == ExportScope.VIEWPORT) {
+        int[] range = getRequestedRange();
+        return Math.max(0, Math.min(range[1], grid.getDataCommunicator().getItemCount()) - range[0]);
+      } else if (grid.getDataProvider() instanceof HierarchicalDataProvider) {
+        return -1;
+      }
+      return grid.getDataProvider().size(new Query(getExportFilter()));
+    } catch (RuntimeException e) {
+      // e.g. a lazy data provider without a count callback
+      LOGGER.debug("Unable to query the row count before exporting", e);
+      return -1;
+    } finally {
+      session.unlock();
+    }
+  }
+
+  /**
+   * Applies the row limit policy before an export starts.
+   *
+   * @return {@code true} if the request was handled (i.e. the export was rejected or served in
+   *     another format), {@code false} if the export must proceed
+   */
+  boolean handleRowLimit(DownloadEvent event, ExportFormat format) throws IOException {
+    int maxRowCount = getMaxRowCount(format);
+    if (maxRowCount == Integer.MAX_VALUE) {
+      return false;
+    }
+
+    long rowCount = countRows(event.getSession());
+    if (rowCount <= maxRowCount) {
+      // within the limit, or enforced while rendering if unknown
+      return false;
+    }
+
+    switch (rowLimitPolicy) {
+      case REJECT:
+        fireRowLimitExceeded(format, rowCount);
+        event.getResponse().sendError(HTTP_PAYLOAD_TOO_LARGE,
+            "The export exceeds the maximum row count for " + format);
+        return true;
+      case DOWNGRADE:
+        if (!(getFormatExporter(format) instanceof StreamingFormatExporter)) {
+          // the rows of JSON Lines are spilled into a file, rather than kept in memory, and are
+          // truncated to its own maximum row count
+          jsonLines.createDownloadAdapter(null).handleDownloadRequest(event);
+          return true;
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
   private interface GridExporterConcurrentStrategy {
     GridExporter<?> getExporter();
 
@@ -1156,6 +2573,9 @@ public class GridExporter<T> implements Serializable {
       this.tooltipText = defaultTooltipText;
     }
 
+    /** The format exported by this exporter. */
+    abstract ExportFormat getFormat();
+
     /** Creates the icon shown on the auto-attached export button. */
     abstract Component createIcon();
 
@@ -1186,6 +2606,62 @@ public class GridExporter<T> implements Serializable {
     DownloadHandler createFooterDownloadHandler(Component button) {
       return getDownloadHandler(getConfiguredTemplate());
     }
+
+    /** Whether this format produces text that benefits from compression. */
+    boolean isTextFormat() {
+      return false;
+    }
+
+    /** The compression applied to the downloaded file. */
+    FileCompression getFileCompression() {
+      return isTextFormat() ? textExportCompression : FileCompression.NONE;
+    }
+
+    /** The file extension of the downloaded file, which accounts for the file compression. */
+    String getDownloadFileExtension() {
+      switch (getFileCompression()) {
+        case GZIP:
+          return getFileExtension() + ".gz";
+        case ZIP:
+          return "zip";
+        default:
+          return getFileExtension();
+      }
+    }
+
+    /** The MIME content type of the downloaded file, which accounts for the file compression. */
+    String getDownloadContentType() {
+      switch (getFileCompression()) {
+        case GZIP:
+          return "application/gzip";
+        case ZIP:
+          return "application/zip";
+        default:
+          return getContentType();
+      }
+    }
+
+    /**
+     * The gzip level for compressing the transferred content, or {@code null} if the transferred
+     * content is not compressed.
+     */
+    Integer getTransferCompressionLevel() {
+      return isTextFormat() && transferCompressionEnabled
+          && getFileCompression() == FileCompression.NONE ? compressionLevel : null;
+    }
+
+    /**
+     * Creates the writer used by the download handlers, which applies the file compression and
+     * the export cache to the writer created by {@link #createWriter(String)}.
+     */
+    StreamResourceWriter createDownloadWriter(String template) {
+      StreamResourceWriter writer = createWriter(template);
+      if (getFileCompression() != FileCompression.NONE) {
+        writer = new CompressingStreamResourceWriter(writer, getFileCompression(),
+            compressionLevel, getFileName(getFileExtension()));
+      }
+      return makeCachingWriter(writer, getDownloadFileExtension(), template);
+    }
   }
 
   /**
@@ -1200,8 +2676,8 @@ public class GridExporter<T> implements Serializable {
 
     @Override
     GridExporterConcurrentDownloadHandler getDownloadHandler(String template) {
-      return makeConcurrentDownloadHandler(
-          createWriter(template), getFileName(getFileExtension()), getContentType());
+      return makeConcurrentDownloadHandler(createDownloadWriter(template),
+          getFileName(getDownloadFileExtension()), getDownloadContentType(), getFormat());
     }
 
     @Override
@@ -1221,6 +2697,11 @@ public class GridExporter<T> implements Serializable {
       super("Export to Excel");
     }
 
+    @Override
+    ExportFormat getFormat() {
+      return ExportFormat.EXCEL;
+    }
+
     @Override
     Component createIcon() {
       return FontAwesome.Regular.FILE_EXCEL.create();
@@ -1252,6 +2733,11 @@ public class GridExporter<T> implements Serializable {
       super("Export to Word");
     }
 
+    @Override
+    ExportFormat getFormat() {
+      return ExportFormat.DOCX;
+    }
+
     @Override
     Component createIcon() {
       return FontAwesome.Regular.FILE_WORD.create();
@@ -1283,6 +2769,11 @@ public class GridExporter<T> implements Serializable {
       super("Export to PDF");
     }
 
+    @Override
+    ExportFormat getFormat() {
+      return ExportFormat.PDF;
+    }
+
     @Override
     Component createIcon() {
       return FontAwesome.Regular.FILE_PDF.create();
@@ -1310,11 +2801,86 @@ public class GridExporter<T> implements Serializable {
     }
   }
 
-  private final class CsvFormatExporter extends FormatExporter {
+  private final class ArrowFormatExporter extends ConcurrentFormatExporter {
+    ArrowFormatExporter() {
+      super("Export to Arrow");
+      enabled = false;
+    }
+
+    @Override
+    ExportFormat getFormat() {
+      return ExportFormat.ARROW;
+    }
+
+    @Override
+    Component createIcon() {
+      return FontAwesome.Regular.FILE.create();
+    }
+
+    @Override
+    String getFileExtension() {
+      return "arrows";
+    }
+
+    @Override
+    String getContentType() {
+      return "application/vnd.apache.arrow.stream";
+    }
+
+    @Override
+    BaseStreamResourceWriter<T> createWriter(String template) {
+      return new ArrowStreamResourceWriter<>(GridExporter.this);
+    }
+  }
+
+  /**
+   * A {@link FormatExporter} for text formats that are rendered in a streaming fashion (CSV, JSON
+   * Lines and HTML), whose downloads are not subject to the concurrent-download control.
+   */
+  private abstract class StreamingFormatExporter extends FormatExporter {
+
+    StreamingFormatExporter(String defaultTooltipText) {
+      super(defaultTooltipText);
+    }
+
+    @Override
+    boolean isTextFormat() {
+      return true;
+    }
+
+    @Override
+    DownloadHandler getDownloadHandler(String template) {
+      StreamResourceWriterAdapter adapter = createDownloadAdapter(template);
+      return event -> {
+        if (!adapter.handleCachedDownloadRequest(event)
+            && !handleRowLimit(event, getFormat())) {
+          adapter.handleDownloadRequest(event);
+        }
+      };
+    }
+
+    StreamResourceWriterAdapter createDownloadAdapter(String template) {
+      return new StreamResourceWriterAdapter(createDownloadWriter(template),
+          getFileName(getDownloadFileExtension()), getDownloadContentType(),
+          getTransferCompressionLevel());
+    }
+
+    @Override
+    StreamResource getStreamResource(String template) {
+      return new StreamResource(getFileName(getFileExtension()), createWriter(template));
+    }
+  }
+
+  private final class CsvFormatExporter extends StreamingFormatExporter {
     CsvFormatExporter() {
       super("Export to CSV");
     }
 
+    @Override
+    ExportFormat getFormat() {
+      return ExportFormat.CSV;
+    }
+
     @Override
     Component createIcon() {
       return FontAwesome.Regular.FILE_LINES.create();
@@ -1334,16 +2900,74 @@ public class GridExporter<T> implements Serializable {
     BaseStreamResourceWriter<T> createWriter(String template) {
       return new CsvStreamResourceWriter<>(GridExporter.this);
     }
+  }
+
+  private final class JsonLinesFormatExporter extends StreamingFormatExporter {
+    JsonLinesFormatExporter() {
+      super("Export to JSON Lines");
+      enabled = false;
+    }
 
     @Override
-    DownloadHandler getDownloadHandler(String template) {
-      return new StreamResourceWriterAdapter(
-          createWriter(template), getFileName(getFileExtension()), getContentType());
+    ExportFormat getFormat() {
+      return ExportFormat.JSON_LINES;
     }
 
     @Override
-    StreamResource getStreamResource(String template) {
-      return new StreamResource(getFileName(getFileExtension()), createWriter(template));
+    Component createIcon() {
+      return FontAwesome.Regular.FILE_CODE.create();
+    }
+
+    @Override
+    String getFileExtension() {
+      return "jsonl";
+    }
+
+    @Override
+    String getContentType() {
+      return "application/x-ndjson";
+    }
+
+    @Override
+    BaseStreamResourceWriter<T> createWriter(String template) {
+      return new JsonLinesStreamResourceWriter<>(GridExporter.this);
+    }
+  }
+
+  private final class HtmlFormatExporter extends StreamingFormatExporter {
+    HtmlFormatExporter() {
+      super("Export to HTML");
+      enabled = false;
+    }
+
+    @Override
+    ExportFormat getFormat() {
+      return ExportFormat.HTML;
+    }
+
+    @Override
+    Component createIcon() {
+      return FontAwesome.Solid.PRINT.create();
+    }
+
+    @Override
+    String getFileExtension() {
+      return "html";
+    }
+
+    @Override
+    String getContentType() {
+      return "text/html";
+    }
+
+    @Override
+    String getConfiguredTemplate() {
+      return htmlCustomTemplate;
+    }
+
+    @Override
+    BaseStreamResourceWriter<T> createWriter(String template) {
+      return new HtmlStreamResourceWriter<>(GridExporter.this, template);
     }
   }
 
@@ -0,0 +1,223 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.function.SerializableSupplier;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A bounded cache of rendered exports that can be shared by several {@link GridExporter}
+ * instances.
+ * <p>
+ * Cached exports are keyed by format, template, exported columns, filter, sort order, the
+ * settings of the exporter and its columns that affect the rendered content (title, formats,
+ * custom headers and footers, row limits, etc.) and the data version token supplied through
+ * {@link GridExporter#setDataVersionSupplier(SerializableSupplier)}.
+ * Entries are evicted when they become older than the configured time-to-live, and least recently
+ * used entries are evicted when the total size of the cached exports exceeds the configured
+ * maximum size. Exports larger than the maximum size are never cached.
+ * <p>
+ * Since the filter of the grid is part of the key, filter objects must implement
+ * {@code equals} and {@code hashCode} for the cache to be effective. The same applies to the
+ * in-memory filter and sort comparators, and to the value providers and formatters configured in
+ * the exporter, if the cache is shared by several exporters. Downloads that are served from
+ * the cache do not acquire permits for concurrent downloads.
+ *
+ * @see GridExporter#setExportCache(GridExporterCache)
+ */
+public final class GridExporterCache {
+
+  private final long maxSize;
+  private final long timeToLiveNanos;
+
+  private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long size;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * Creates a new export cache.
+   *
+   * @param maxSize the maximum total size (in bytes) of the cached exports
+   * @param timeToLive the maximum time an export is kept in the cache after it was rendered
+   * @throws IllegalArgumentException if {@code maxSize} or {@code timeToLive} are not positive
+   */
+  public GridExporterCache(long maxSize, Duration timeToLive) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Max size must be positive");
+    }
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("Time-to-live must be positive");
+    }
+    this.maxSize = maxSize;
+    timeToLiveNanos = timeToLive.toNanos();
+  }
+
+  /** Returns the maximum total size (in bytes) of the cached exports. */
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the maximum time an export is kept in the cache after it was rendered. */
+  public Duration getTimeToLive() {
+    return Duration.ofNanos(timeToLiveNanos);
+  }
+
+  /** Removes all the cached exports. */
+  public synchronized void invalidateAll() {
+    entries.clear();
+    size = 0;
+  }
+
+  /**
+   * Removes all the cached exports that were rendered for the given data version token.
+   *
+   * @param dataVersion the data version token, as returned by the
+   *        {@linkplain GridExporter#setDataVersionSupplier(SerializableSupplier) data version
+   *        supplier}
+   */
+  public synchronized void invalidate(Object dataVersion) {
+    Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Key, Entry> e = it.next();
+      if (Objects.equals(e.getKey().dataVersion, dataVersion)) {
+        size -= e.getValue().content.length;
+        it.remove();
+      }
+    }
+  }
+
+  /** Returns the number of downloads that were served from the cache. */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /** Returns the number of downloads that had to be rendered because they were not cached. */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /** Returns the number of cached exports that were evicted because of size or age. */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /** Returns the number of cached exports. */
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  /** Returns the total size (in bytes) of the cached exports. */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the cached content for the given key, or {@code null} if there is no such entry (or if
+   * the entry has expired). Hits are recorded by this method, while misses are recorded through
+   * {@link #recordMiss()} when the export is actually rendered.
+   */
+  synchronized byte[] get(Key key) {
+    Entry entry = entries.get(key);
+    if (entry != null && isExpired(entry, System.nanoTime())) {
+      remove(key, entry);
+      entry = null;
+    }
+    if (entry != null) {
+      hitCount.incrementAndGet();
+      return entry.content;
+    }
+    return null;
+  }
+
+  void recordMiss() {
+    missCount.incrementAndGet();
+  }
+
+  synchronized void put(Key key, byte[] content) {
+    if (content.length > maxSize) {
+      return;
+    }
+
+    Entry previous = entries.put(key, new Entry(content, System.nanoTime()));
+    if (previous != null) {
+      size -= previous.content.length;
+    }
+    size += content.length;
+
+    long now = System.nanoTime();
+    Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Key, Entry> e = it.next();
+      // entries are iterated from least to most recently used
+      if (e.getKey() != key && (size > maxSize || isExpired(e.getValue(), now))) {
+        size -= e.getValue().content.length;
+        evictionCount.incrementAndGet();
+        it.remove();
+      }
+    }
+  }
+
+  private void remove(Key key, Entry entry) {
+    entries.remove(key);
+    size -= entry.content.length;
+    evictionCount.incrementAndGet();
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return now - entry.created > timeToLiveNanos;
+  }
+
+  @RequiredArgsConstructor
+  private static final class Entry {
+    private final byte[] content;
+    private final long created;
+  }
+
+  /** Identifies a rendered export. */
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  static final class Key {
+    private final String format;
+    private final String template;
+    private final String beanType;
+    private final List<String> columns;
+    private final List<String> headers;
+    private final Locale locale;
+    private final List<String> sortOrder;
+    private final List<Object> filter;
+    private final ExportScope scope;
+    private final Object rows;
+    private final List<Object> settings;
+    private final Object dataVersion;
+  }
+
+}
@@ -81,6 +81,34 @@ public class GridExporterConcurrentSettings {
     ConcurrentStreamResourceWriter.setFailOnUiChange(failOnUiChange);
   }
 
+  /**
+   * Configures whether concurrent downloads wait for permits and render the export on virtual
+   * threads (requires Java 21 or later).
+   * <p>
+   * When enabled, each download is handed to a new virtual thread, which waits for the permits and
+   * renders the export into a buffer that spills into a temporary file when it grows large. The
+   * waiting for permits and the blocking calls of the data provider then run on the virtual thread,
+   * while the request thread waits for the rendered buffer and only writes it into the response.
+   * Interrupting the request thread interrupts the virtual thread.
+   *
+   * @param virtualThreadsEnabled whether virtual threads are used
+   * @throws UnsupportedOperationException if virtual threads are not supported by the runtime
+   * @since 3.2.0
+   */
+  public static void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+    ConcurrentOperationBase.setVirtualThreadsEnabled(virtualThreadsEnabled);
+  }
+
+  /**
+   * Returns whether concurrent downloads wait for permits and render the export on virtual
+   * threads.
+   *
+   * @since 3.2.0
+   */
+  public static boolean isVirtualThreadsEnabled() {
+    return ConcurrentOperationBase.isVirtualThreadsEnabled();
+  }
+
   /**
    * Sets the timeout for acquiring a permit to start a download when the
    * {@linkplain #setConcurrentDownloadLimit(float) maximum number of concurrent downloads} is
@@ -0,0 +1,188 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides global settings for the intermediate buffers used while rendering exports (e.g. the
+ * DOCX document that is converted into PDF, or the documents of a bundle export).
+ * <p>
+ * Buffers start on the heap, and spill into a temporary file once they exceed the {@linkplain
+ * #setSpillThreshold(long) spill threshold}. The total size of the temporary files is limited by a
+ * {@linkplain #setDiskQuota(long) disk quota}. Temporary files are deleted as soon as the export
+ * completes or fails, and any remaining file is deleted when the JVM shuts down.
+ * </p>
+ *
+ * @since 3.2.0
+ */
+public class GridExporterSpillSettings {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GridExporterSpillSettings.class);
+
+  private static volatile long spillThreshold = 8L << 20;
+
+  private static volatile Path spillDirectory;
+
+  private static volatile long diskQuota = Long.MAX_VALUE;
+
+  private static volatile boolean memoryMapped;
+
+  private static final AtomicLong diskUsage = new AtomicLong();
+
+  private static final Set<Path> spillFiles = ConcurrentHashMap.newKeySet();
+
+  private static volatile boolean shutdownHookRegistered;
+
+  /**
+   * Sets the size above which intermediate buffers are spilled from the heap into a temporary
+   * file. The default is 8 MiB.
+   *
+   * @param bytes the spill threshold in bytes
+   * @throws IllegalArgumentException if the threshold is negative
+   */
+  public static void setSpillThreshold(long bytes) {
+    if (bytes < 0) {
+      throw new IllegalArgumentException();
+    }
+    spillThreshold = bytes;
+  }
+
+  /** Returns the size above which intermediate buffers are spilled into a temporary file. */
+  public static long getSpillThreshold() {
+    return spillThreshold;
+  }
+
+  /**
+   * Sets the directory where the temporary files are created.
+   *
+   * @param directory the directory, or {@code null} for the default temporary-file directory
+   */
+  public static void setSpillDirectory(Path directory) {
+    spillDirectory = directory;
+  }
+
+  /**
+   * Returns the directory where the temporary files are created, or {@code null} if they are
+   * created in the default temporary-file directory.
+   */
+  public static Path getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * Sets the maximum total size of the temporary files. An export fails with an
+   * {@link IOException} if spilling its buffers would exceed the quota. By default there is no
+   * quota.
+   *
+   * @param bytes the disk quota in bytes, or {@link Long#MAX_VALUE} for no quota
+   * @throws IllegalArgumentException if the quota is negative
+   */
+  public static void setDiskQuota(long bytes) {
+    if (bytes < 0) {
+      throw new IllegalArgumentException();
+    }
+    diskQuota = bytes;
+  }
+
+  /** Returns the maximum total size of the temporary files. */
+  public static long getDiskQuota() {
+    return diskQuota;
+  }
+
+  /** Returns the current total size of the temporary files. */
+  public static long getDiskUsage() {
+    return diskUsage.get();
+  }
+
+  /**
+   * Configures whether spilled buffers are read back through memory-mapped files.
+   *
+   * @param memoryMapped whether temporary files are memory-mapped when read
+   */
+  public static void setMemoryMapped(boolean memoryMapped) {
+    GridExporterSpillSettings.memoryMapped = memoryMapped;
+  }
+
+  /** Returns whether spilled buffers are read back through memory-mapped files. */
+  public static boolean isMemoryMapped() {
+    return memoryMapped;
+  }
+
+  /** Reserves disk space for a temporary file. */
+  static void reserve(long bytes) throws IOException {
+    long quota = diskQuota;
+    long usage;
+    do {
+      usage = diskUsage.get();
+      if (usage + bytes > quota) {
+        throw new IOException("Disk quota exceeded for export buffers (" + quota + " bytes)");
+      }
+    } while (!diskUsage.compareAndSet(usage, usage + bytes));
+  }
+
+  /** Releases disk space reserved for a temporary file. */
+  static void release(long bytes) {
+    diskUsage.addAndGet(-bytes);
+  }
+
+  /** Creates a temporary file, which is deleted on shutdown unless deleted before. */
+  static Path createSpillFile() throws IOException {
+    registerShutdownHook();
+    Path directory = spillDirectory;
+    Path file = directory == null ? Files.createTempFile("grid-exporter-", ".tmp")
+        : Files.createTempFile(directory, "grid-exporter-", ".tmp");
+    spillFiles.add(file);
+    return file;
+  }
+
+  /** Deletes a temporary file created by {@link #createSpillFile()}. */
+  static void deleteSpillFile(Path file) {
+    try {
+      Files.deleteIfExists(Objects.requireNonNull(file));
+      spillFiles.remove(file);
+    } catch (IOException | UncheckedIOException e) {
+      LOGGER.warn("Unable to delete temporary file {}", file, e);
+    }
+  }
+
+  private static void registerShutdownHook() {
+    if (!shutdownHookRegistered) {
+      synchronized (spillFiles) {
+        if (!shutdownHookRegistered) {
+          Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            spillFiles.forEach(file -> file.toFile().delete());
+          }, "grid-exporter-spill-cleanup"));
+          shutdownHookRegistered = true;
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,283 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalDataProvider;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
+import com.vaadin.flow.function.ValueProvider;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Exports data in the formats supported by {@link GridExporter}, without a grid attached to a UI
+ * and without a {@link com.vaadin.flow.server.VaadinSession VaadinSession}. This is intended for
+ * batch jobs and REST endpoints, and can be used from any thread.
+ *
+ * <p>The exported columns are defined through {@link #addColumn(ValueProvider, String)} or
+ * {@link #addColumn(String)}, and they can be further configured through the {@linkplain
+ * #getExporter() exporter} (e.g. number and date formats, custom footers, title and placeholders),
+ * in the same way as for a grid export.
+ *
+ * <pre>
+ * HeadlessGridExporter&lt;Person&gt; exporter = HeadlessGridExporter.create(Person.class);
+ * Column&lt;Person&gt; budget = exporter.addColumn(Person::getBudget, "Budget");
+ * exporter.getExporter().setNumberColumnFormat(budget, "$#,###.##");
+ * exporter.export(ExportFormat.EXCEL, personService.stream(), Path.of("people.xlsx"));
+ * </pre>
+ *
+ * <p>The columns must not be modified while an export is in progress. Exports on the same instance
+ * are serialized (an export waits until the previous one has been written), so separate instances
+ * must be used for running exports concurrently.
+ *
+ * @since 3.2.0
+ */
+@SuppressWarnings("serial")
+public final class HeadlessGridExporter<T> implements Serializable {
+
+  private final Grid<T> grid;
+  private final GridExporter<T> exporter;
+
+  private HeadlessGridExporter(
+      Grid<T> grid, String excelCustomTemplate, String docxCustomTemplate) {
+    this.grid = grid;
+    exporter = GridExporter.createFor(grid, excelCustomTemplate, docxCustomTemplate);
+    exporter.setAutoAttachExportButtons(false);
+  }
+
+  /** Creates a headless exporter whose columns are defined by value providers. */
+  public static <T> HeadlessGridExporter<T> create() {
+    return new HeadlessGridExporter<>(new Grid<>(), null, null);
+  }
+
+  /**
+   * Creates a headless exporter for the given bean type, whose columns can also be defined by
+   * property name.
+   */
+  public static <T> HeadlessGridExporter<T> create(Class<T> beanType) {
+    return create(beanType, null, null);
+  }
+
+  /**
+   * Creates a headless exporter for the given bean type, with custom templates.
+   *
+   * @param beanType the bean type
+   * @param excelCustomTemplate the template for Excel exports, or {@code null} for the default one
+   * @param docxCustomTemplate the template for DOCX and PDF exports, or {@code null} for the
+   *     default one
+   */
+  public static <T> HeadlessGridExporter<T> create(
+      Class<T> beanType, String excelCustomTemplate, String docxCustomTemplate) {
+    return new HeadlessGridExporter<>(
+        new Grid<>(beanType, false), excelCustomTemplate, docxCustomTemplate);
+  }
+
+  /**
+   * Returns the exporter that holds the configuration of the export (e.g. title, file name, column
+   * formats and custom footers).
+   */
+  public GridExporter<T> getExporter() {
+    return exporter;
+  }
+
+  /**
+   * Adds a column.
+   *
+   * @param valueProvider the provider of the exported values
+   * @param header the header of the column
+   * @return the added column
+   */
+  public Column<T> addColumn(ValueProvider<T, ?> valueProvider, String header) {
+    Column<T> column = grid.addColumn(valueProvider).setHeader(header);
+    exporter.setExportValue(column, valueProvider);
+    return column;
+  }
+
+  /**
+   * Adds a column for the given bean property. This is only supported by exporters created with
+   * {@link #create(Class)}.
+   *
+   * @param propertyName the name of the property
+   * @return the added column
+   */
+  public Column<T> addColumn(String propertyName) {
+    return grid.addColumn(propertyName);
+  }
+
+  /** Returns the columns, in the order they were added. */
+  public List<Column<T>> getColumns() {
+    return grid.getColumns();
+  }
+
+  /**
+   * Exports all the items of a data provider. Hierarchical data providers are exported in
+   * depth-first order.
+   *
+   * @param format the export format
+   * @param dataProvider the data provider
+   * @param out the output stream, which is not closed
+   * @throws IOException if an I/O error occurs
+   */
+  public void export(ExportFormat format, DataProvider<T, ?> dataProvider, OutputStream out)
+      throws IOException {
+    Objects.requireNonNull(dataProvider);
+    export(format, () -> fetch(dataProvider), out);
+  }
+
+  /**
+   * Exports the items of a stream. The stream is consumed once, sequentially.
+   *
+   * @param format the export format
+   * @param items the stream of items
+   * @param out the output stream, which is not closed
+   * @throws IOException if an I/O error occurs
+   */
+  public void export(ExportFormat format, Stream<T> items, OutputStream out) throws IOException {
+    Objects.requireNonNull(items);
+    export(format, items::sequential, out);
+  }
+
+  /**
+   * Exports the items of a publisher. The items are requested in batches of {@linkplain
+   * GridExporter#setExportPageSize(int) export page size} items as the rows are written, and the
+   * subscription is cancelled if the export fails.
+   *
+   * @param format the export format
+   * @param publisher the publisher of the items
+   * @param out the output stream, which is not closed
+   * @throws IOException if an I/O error occurs
+   * @since 3.2.0
+   */
+  public void export(ExportFormat format, Flow.Publisher<T> publisher, OutputStream out)
+      throws IOException {
+    Objects.requireNonNull(publisher);
+    export(format, () -> subscribe(publisher), out);
+  }
+
+  /**
+   * Exports all the items of a data provider into a file.
+   *
+   * @param format the export format
+   * @param dataProvider the data provider
+   * @param path the file, which is created or truncated
+   * @throws IOException if an I/O error occurs
+   */
+  public void export(ExportFormat format, DataProvider<T, ?> dataProvider, Path path)
+      throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      export(format, dataProvider, out);
+    }
+  }
+
+  /**
+   * Exports the items of a publisher into a file.
+   *
+   * @param format the export format
+   * @param publisher the publisher of the items
+   * @param path the file, which is created or truncated
+   * @throws IOException if an I/O error occurs
+   * @since 3.2.0
+   */
+  public void export(ExportFormat format, Flow.Publisher<T> publisher, Path path)
+      throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      export(format, publisher, out);
+    }
+  }
+
+  /**
+   * Exports the items of a stream into a file.
+   *
+   * @param format the export format
+   * @param items the stream of items
+   * @param path the file, which is created or truncated
+   * @throws IOException if an I/O error occurs
+   */
+  public void export(ExportFormat format, Stream<T> items, Path path) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      export(format, items, out);
+    }
+  }
+
+  // the writers keep the state of the export in the exporter and its columns
+  private synchronized void export(ExportFormat format, Supplier<Stream<T>> items,
+      OutputStream out) throws IOException {
+    BaseStreamResourceWriter<T> writer = exporter.createWriter(Objects.requireNonNull(format));
+    BaseStreamResourceWriter<T>.ExportSink sink = writer.createSink();
+    try {
+      writer.render(List.of(sink), items);
+      sink.write(out);
+    } finally {
+      sink.dispose();
+    }
+    out.flush();
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Stream<T> fetch(DataProvider<T, ?> dataProvider) {
+    if (dataProvider instanceof HierarchicalDataProvider) {
+      return fetchChildren((HierarchicalDataProvider<T, ?>) dataProvider, null);
+    }
+    GridExportQuery<T, ?> query = new GridExportQuery<>(0, Integer.MAX_VALUE,
+        Collections.emptyList(), null, null, exporter, true);
+    Stream<T> stream = query.fetch(() -> dataProvider.fetch((Query) query));
+    if (stream.isParallel()) {
+      try (Stream<T> parallel = stream) {
+        return parallel.collect(Collectors.toList()).stream();
+      }
+    }
+    return stream;
+  }
+
+  private Stream<T> subscribe(Flow.Publisher<T> publisher) {
+    PublisherIterator<T> iterator =
+        PublisherIterator.subscribe(publisher, exporter.getExportPageSize());
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+        .onClose(iterator::close);
+  }
+
+  private Stream<T> fetchChildren(HierarchicalDataProvider<T, ?> dataProvider, T parent) {
+    List<T> children;
+    try (Stream<T> stream = dataProvider.fetchChildren(new HierarchicalQuery<>(null, parent))) {
+      children = stream.collect(Collectors.toList());
+    }
+    return children.stream().flatMap(child -> Stream.concat(Stream.of(child),
+        dataProvider.hasChildren(child) ? fetchChildren(dataProvider, child) : Stream.empty()));
+  }
+
+}
@@ -0,0 +1,267 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid.Column;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Exports the grid as a self-contained HTML table, styled for printing from the browser.
+ * <p>
+ * The document is generated from an HTML template that uses the same placeholders as the Excel
+ * and DOCX templates. The title, headers, footers and additional placeholders are replaced with
+ * their (escaped) text, and the rows are written in place of the data placeholder as they are
+ * fetched, into a {@linkplain SpillBuffer spill buffer}. The {@linkplain ColumnAggregate footer
+ * aggregates} are only available to a footers placeholder placed after the data placeholder.
+ */
+@SuppressWarnings("serial")
+class HtmlStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
+
+  private static final String DEFAULT_TEMPLATE = "/template.html";
+
+  public HtmlStreamResourceWriter(GridExporter<T> exporter, String template) {
+    super(exporter, template, DEFAULT_TEMPLATE);
+  }
+
+  @Override
+  ExportFormat getFormat() {
+    return ExportFormat.HTML;
+  }
+
+  @Override
+  ExportSink createSink() {
+    return new HtmlExportSink();
+  }
+
+  private class HtmlExportSink extends ExportSink {
+
+    private String trailer;
+    private String[] cellTags;
+    private SpillBuffer buffer;
+    private Writer writer;
+    private final StringBuilder line = new StringBuilder();
+
+    @Override
+    void begin() throws IOException {
+      String template = loadTemplate();
+      int index = template.indexOf(exporter.dataPlaceHolder);
+      if (index < 0) {
+        throw new IllegalStateException("The HTML template " + getTemplate()
+            + " doesn't contain the data placeholder " + exporter.dataPlaceHolder);
+      }
+      String prefix = template.substring(0, index);
+      trailer = template.substring(index + exporter.dataPlaceHolder.length());
+
+      List<Column<T>> columns = exporter.getColumnsOrdered();
+      cellTags = columns.stream().map(column -> getCellTag(column.getTextAlign()))
+          .toArray(String[]::new);
+
+      prefix = replacePlaceHolders(prefix, this::getFooters);
+
+      buffer = new SpillBuffer();
+      writer = new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+      writer.write(prefix);
+    }
+
+    @Override
+    void appendRow(T item, Object[] values) {
+      line.setLength(0);
+      line.append("<tr>");
+      for (int i = 0; i < values.length; i++) {
+        line.append(cellTags[i]);
+        if (values[i] != null) {
+          appendEscaped(line, values[i].toString());
+        }
+        line.append("</td>");
+      }
+      line.append("</tr>\n");
+      append(line);
+    }
+
+    @Override
+    void appendNotice(String text) {
+      line.setLength(0);
+      line.append("<tr class=\"notice\"><td colspan=\"").append(cellTags.length).append("\">");
+      appendEscaped(line, text);
+      line.append("</td></tr>\n");
+      append(line);
+    }
+
+    private void append(CharSequence text) {
+      try {
+        writer.append(text);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    void end() throws IOException {
+      writer.write(replacePlaceHolders(trailer, this::getFooters));
+      writer.close();
+    }
+
+    @Override
+    void write(OutputStream out) throws IOException {
+      buffer.writeTo(out);
+    }
+
+    @Override
+    void dispose() {
+      if (buffer != null) {
+        buffer.discard();
+      }
+    }
+  }
+
+  private String loadTemplate() throws IOException {
+    try (InputStream in = getClass().getResourceAsStream(getTemplate())) {
+      if (in == null) {
+        throw new IOException("HTML template not found: " + getTemplate());
+      }
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Replaces the placeholders in a single pass over the text, so that the replaced values are
+   * never scanned for placeholders. Each value is computed at most once.
+   */
+  private String replacePlaceHolders(String text, Supplier<List<GridFooter<T>>> footers) {
+    Map<String, Supplier<String>> values = new LinkedHashMap<>();
+    values.put(exporter.titlePlaceHolder, () -> escape(exporter.title));
+    exporter.additionalPlaceHolders
+        .forEach((placeHolder, value) -> values.putIfAbsent(placeHolder, () -> escape(value)));
+    values.putIfAbsent(exporter.headersPlaceHolder, this::renderHeaders);
+    values.putIfAbsent(exporter.footersPlaceHolder, () -> renderFooters(footers.get()));
+    values.remove("");
+
+    // the longest placeholders are tried first, in case one is a prefix of another
+    Pattern pattern = Pattern.compile(values.keySet().stream()
+        .sorted(Comparator.comparingInt(String::length).reversed())
+        .map(Pattern::quote)
+        .collect(Collectors.joining("|")));
+    Map<String, String> replacements = new HashMap<>();
+    Matcher matcher = pattern.matcher(text);
+    StringBuilder sb = new StringBuilder(text.length());
+    int last = 0;
+    while (matcher.find()) {
+      sb.append(text, last, matcher.start());
+      sb.append(replacements.computeIfAbsent(matcher.group(), key -> values.get(key).get()));
+      last = matcher.end();
+    }
+    return sb.append(text, last, text.length()).toString();
+  }
+
+  private String renderHeaders() {
+    List<GridHeader<T>> headers = getGridHeaders(exporter.getGrid());
+    int rows = headers.isEmpty() ? 0 : headers.get(0).getTexts().size();
+    StringBuilder sb = new StringBuilder();
+    for (int row = 0; row < rows; row++) {
+      sb.append("<tr>");
+      for (GridHeader<T> header : headers) {
+        sb.append("<th>");
+        appendEscaped(sb, header.getTexts().get(row));
+        sb.append("</th>");
+      }
+      sb.append("</tr>");
+    }
+    return sb.toString();
+  }
+
+  private String renderFooters(List<GridFooter<T>> footers) {
+    if (footers.stream().map(GridFooter::getText).allMatch(StringUtils::isBlank)) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder("<tr>");
+    for (GridFooter<T> footer : footers) {
+      sb.append(getCellTag(footer.getColumn().getTextAlign()));
+      appendEscaped(sb, footer.getText());
+      sb.append("</td>");
+    }
+    return sb.append("</tr>").toString();
+  }
+
+  private static String getCellTag(ColumnTextAlign textAlign) {
+    if (textAlign == ColumnTextAlign.END) {
+      return "<td class=\"end\">";
+    } else if (textAlign == ColumnTextAlign.CENTER) {
+      return "<td class=\"center\">";
+    } else {
+      return "<td>";
+    }
+  }
+
+  private static String escape(String text) {
+    if (text == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(text.length());
+    appendEscaped(sb, text);
+    return sb.toString();
+  }
+
+  private static void appendEscaped(StringBuilder sb, String text) {
+    if (text == null) {
+      return;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '<':
+          sb.append("&lt;");
+          break;
+        case '>':
+          sb.append("&gt;");
+          break;
+        case '&':
+          sb.append("&amp;");
+          break;
+        case '"':
+          sb.append("&quot;");
+          break;
+        case '\'':
+          sb.append("&#39;");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+  }
+
+}
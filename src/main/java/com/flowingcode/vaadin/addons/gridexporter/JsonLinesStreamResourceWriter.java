@@ -0,0 +1,195 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.component.grid.Grid.Column;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Exports the grid in JSON Lines format (also known as NDJSON): one JSON object per row, keyed by
+ * the column key, or by the column header if the column has no key. Numbers and booleans are
+ * written as JSON numbers and booleans, and dates are written as ISO-8601 strings.
+ * <p>
+ * The rows are written into a {@linkplain SpillBuffer spill buffer} as they are fetched, so that
+ * the heap usage doesn't depend on the number of rows.
+ */
+@SuppressWarnings("serial")
+class JsonLinesStreamResourceWriter<T> extends BaseStreamResourceWriter<T> {
+
+  public JsonLinesStreamResourceWriter(GridExporter<T> exporter) {
+    super(exporter, null, null);
+  }
+
+  @Override
+  ExportFormat getFormat() {
+    return ExportFormat.JSON_LINES;
+  }
+
+  @Override
+  ExportSink createSink() {
+    return new JsonLinesExportSink();
+  }
+
+  private class JsonLinesExportSink extends ExportSink {
+
+    private List<Column<T>> columns;
+    private String[] keys;
+    private SpillBuffer buffer;
+    private Writer writer;
+    private final StringBuilder line = new StringBuilder();
+
+    @Override
+    void begin() {
+      columns = exporter.getColumnsOrdered();
+      keys = getColumnNames().stream().map(JsonLinesStreamResourceWriter::quote)
+          .toArray(String[]::new);
+
+      buffer = new SpillBuffer();
+      writer = new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    void appendRow(T item, Object[] values) {
+      line.setLength(0);
+      line.append('{');
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) {
+          line.append(',');
+        }
+        line.append(keys[i]).append(':');
+        appendValue(line, transformToType(values[i], columns.get(i)));
+      }
+      line.append("}\n");
+      try {
+        writer.append(line);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    void appendNotice(String text) {
+      line.setLength(0);
+      line.append("{\"notice\":").append(quote(text)).append("}\n");
+      try {
+        writer.append(line);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    void end() throws IOException {
+      writer.close();
+    }
+
+    @Override
+    void write(OutputStream out) throws IOException {
+      buffer.writeTo(out);
+    }
+
+    @Override
+    void dispose() {
+      if (buffer != null) {
+        buffer.discard();
+      }
+    }
+  }
+
+  private static void appendValue(StringBuilder sb, Object value) {
+    if (value == null) {
+      sb.append("null");
+    } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+        || value instanceof Short || value instanceof Byte || value instanceof BigInteger) {
+      sb.append(value);
+    } else if (value instanceof BigDecimal) {
+      sb.append(((BigDecimal) value).toPlainString());
+    } else if (value instanceof Number) {
+      double d = ((Number) value).doubleValue();
+      if (Double.isNaN(d) || Double.isInfinite(d)) {
+        sb.append("null");
+      } else {
+        sb.append(value);
+      }
+    } else if (value instanceof java.sql.Date) {
+      // java.sql.Date and java.sql.Time have no instant (toInstant throws)
+      sb.append(quote(((java.sql.Date) value).toLocalDate().toString()));
+    } else if (value instanceof java.sql.Time) {
+      sb.append(quote(((java.sql.Time) value).toLocalTime().toString()));
+    } else if (value instanceof Date) {
+      sb.append(quote(((Date) value).toInstant().toString()));
+    } else if (value instanceof Calendar) {
+      sb.append(quote(((Calendar) value).toInstant().toString()));
+    } else if (value instanceof ZonedDateTime || value instanceof OffsetDateTime) {
+      sb.append(quote(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format((TemporalAccessor) value)));
+    } else {
+      // LocalDate, LocalDateTime, LocalTime and Instant are formatted in ISO-8601 by toString
+      sb.append(quote(value.toString()));
+    }
+  }
+
+  private static String quote(String s) {
+    StringBuilder sb = new StringBuilder(s.length() + 2);
+    sb.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+}
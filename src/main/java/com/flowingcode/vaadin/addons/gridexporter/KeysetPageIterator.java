@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.data.provider.Query;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Iterates over the items of a {@link KeysetPagination}, fetching one page at a time. The stream
+ * of each page is closed as soon as the page has been read.
+ */
+final class KeysetPageIterator<T, F> implements Iterator<T> {
+
+  private final KeysetPagination<T, F> pagination;
+  private final IntFunction<Query<T, F>> queryFactory;
+  private final int pageSize;
+
+  private Iterator<T> page = Collections.emptyIterator();
+  private T lastItem;
+  private boolean lastPage;
+
+  /**
+   * @param pagination the source of the items
+   * @param queryFactory creates the query of a page, given the page size
+   * @param pageSize the number of items requested in each page
+   */
+  KeysetPageIterator(KeysetPagination<T, F> pagination, IntFunction<Query<T, F>> queryFactory,
+      int pageSize) {
+    this.pagination = pagination;
+    this.queryFactory = queryFactory;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!page.hasNext() && !lastPage) {
+      List<T> items;
+      try (Stream<T> stream = pagination.fetchAfter(queryFactory.apply(pageSize), lastItem)) {
+        items = stream.limit(pageSize).collect(Collectors.toList());
+      }
+      lastPage = items.size() < pageSize;
+      if (!items.isEmpty()) {
+        lastItem = items.get(items.size() - 1);
+      }
+      page = items.iterator();
+    }
+    return page.hasNext();
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return page.next();
+  }
+
+}
@@ -0,0 +1,56 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.data.provider.Query;
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+/**
+ * A data source that can continue from the last exported item (keyset or "seek" pagination)
+ * instead of skipping an offset. When it is available, the exporter fetches the items of a lazy
+ * data provider in pages, and requests each page with the last item of the previous page, so that
+ * the backend doesn't need to skip the rows that were already exported (e.g. with a SQL
+ * {@code WHERE (last_name, id) > (?, ?)} condition instead of an {@code OFFSET}).
+ * <p>
+ * The data provider of the grid may implement this interface, or it may be configured with
+ * {@link GridExporter#setKeysetPagination(KeysetPagination)}. The sort order of the query must be
+ * total (e.g. by including the primary key as the last sort criterion); otherwise, items with the
+ * same sort key as the last item of a page could be skipped or repeated.
+ *
+ * @param <T> the type of the items
+ * @param <F> the type of the filter
+ * @since 3.2.0
+ */
+@FunctionalInterface
+public interface KeysetPagination<T, F> extends Serializable {
+
+  /**
+   * Fetches the items that follow the given item, in the sort order of the query.
+   *
+   * @param query the query, with the filter, the sort orders and the maximum number of items to
+   *        return (the page size). Its offset is always 0.
+   * @param lastItem the last item of the previous page, or {@code null} for the first page
+   * @return the items that follow {@code lastItem}; fewer items than the limit of the query mean
+   *         that there are no more items
+   */
+  Stream<T> fetchAfter(Query<T, F> query, T lastItem);
+
+}
@@ -0,0 +1,116 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Iterates over the items of an offset-addressable data source, fetching several pages
+ * concurrently on an executor and returning their items in order. At most {@code window} pages
+ * are in flight: a new page is requested only after the oldest one has been consumed. The pages
+ * are requested until one of them returns fewer items than the page size.
+ */
+final class ParallelPageIterator<T> implements Iterator<T>, AutoCloseable {
+
+  private final IntFunction<Stream<T>> fetchPage;
+  private final int pageSize;
+  private final Executor executor;
+  private final int window;
+
+  private final Deque<CompletableFuture<List<T>>> pending = new ArrayDeque<>();
+  private Iterator<T> page = Collections.emptyIterator();
+  private long nextOffset;
+  private boolean lastPage;
+
+  /**
+   * @param fetchPage fetches a page of {@code pageSize} items, given its offset. It is called
+   *        concurrently, from the threads of the executor
+   * @param pageSize the number of items requested in each page
+   * @param executor the executor where the pages are fetched
+   * @param window the maximum number of pages being fetched at the same time
+   */
+  ParallelPageIterator(IntFunction<Stream<T>> fetchPage, int pageSize, Executor executor,
+      int window) {
+    if (pageSize < 1 || window < 1) {
+      throw new IllegalArgumentException("Page size and window must be positive");
+    }
+    this.fetchPage = fetchPage;
+    this.pageSize = pageSize;
+    this.executor = executor;
+    this.window = window;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!page.hasNext()) {
+      fill();
+      if (pending.isEmpty()) {
+        return false;
+      }
+      List<T> items = ParallelRowMaterializer.join(pending.removeFirst());
+      if (items.size() < pageSize) {
+        // the following pages (if requested) are empty
+        lastPage = true;
+        close();
+      }
+      page = items.iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return page.next();
+  }
+
+  /** Requests new pages until the window is full. */
+  private void fill() {
+    while (!lastPage && pending.size() < window && nextOffset <= Integer.MAX_VALUE) {
+      int offset = (int) nextOffset;
+      pending.addLast(ParallelRowMaterializer.supplyAsync(() -> {
+        try (Stream<T> stream = fetchPage.apply(offset)) {
+          return stream.limit(pageSize).collect(Collectors.toList());
+        }
+      }, executor));
+      nextOffset += pageSize;
+    }
+  }
+
+  /** Cancels the pages that were not consumed yet. */
+  @Override
+  public void close() {
+    pending.forEach(future -> future.cancel(false));
+    pending.clear();
+  }
+
+}
@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.internal.CurrentInstance;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Extracts the values of the exported rows on an executor, in batches, and returns them in the
+ * original order.
+ * <p>
+ * The items are read from the source iterator in the calling thread (which usually holds the
+ * session lock), and the extraction of each batch is submitted to the executor. At most
+ * {@code maxPendingBatches} batches are in flight: a new batch is read only after the oldest one
+ * has been consumed, so that the memory used by the stage doesn't depend on the number of rows.
+ */
+final class ParallelRowMaterializer<T> implements Iterator<ParallelRowMaterializer.Row<T>>,
+    AutoCloseable {
+
+  /** An item, along with the values of its exported columns. */
+  static final class Row<T> {
+    final T item;
+    final Object[] values;
+
+    Row(T item, Object[] values) {
+      this.item = item;
+      this.values = values;
+    }
+  }
+
+  private final Iterator<T> items;
+  private final Function<T, Object[]> extractor;
+  private final Executor executor;
+  private final int batchSize;
+  private final int maxPendingBatches;
+  private long remaining;
+
+  private final Deque<CompletableFuture<List<Row<T>>>> pending = new ArrayDeque<>();
+  private Iterator<Row<T>> current = new ArrayList<Row<T>>().iterator();
+
+  /**
+   * @param items the source of the items
+   * @param extractor extracts the values of an item. It is called concurrently, from the threads
+   *        of the executor
+   * @param executor the executor where the values are extracted
+   * @param batchSize the number of items in each batch
+   * @param maxPendingBatches the maximum number of batches being extracted at the same time
+   * @param limit the maximum number of items read from the source
+   */
+  ParallelRowMaterializer(Iterator<T> items, Function<T, Object[]> extractor, Executor executor,
+      int batchSize, int maxPendingBatches, long limit) {
+    if (batchSize < 1 || maxPendingBatches < 1) {
+      throw new IllegalArgumentException("Batch size and pending batches must be positive");
+    }
+    this.items = items;
+    this.extractor = extractor;
+    this.executor = executor;
+    this.batchSize = batchSize;
+    this.maxPendingBatches = maxPendingBatches;
+    remaining = limit;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!current.hasNext()) {
+      fill();
+      if (pending.isEmpty()) {
+        return false;
+      }
+      current = join(pending.removeFirst()).iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public Row<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return current.next();
+  }
+
+  /** Submits new batches until the maximum number of pending batches is reached. */
+  private void fill() {
+    while (pending.size() < maxPendingBatches && remaining > 0 && items.hasNext()) {
+      List<T> batch = new ArrayList<>(batchSize);
+      while (batch.size() < batchSize && remaining > 0 && items.hasNext()) {
+        batch.add(items.next());
+        remaining--;
+      }
+      pending.addLast(submit(batch));
+    }
+  }
+
+  private CompletableFuture<List<Row<T>>> submit(List<T> batch) {
+    return supplyAsync(() -> {
+      List<Row<T>> rows = new ArrayList<>(batch.size());
+      for (T item : batch) {
+        rows.add(new Row<>(item, extractor.apply(item)));
+      }
+      return rows;
+    }, executor);
+  }
+
+  /**
+   * Runs the supplier on the executor, with the current instances (e.g. the session and the UI)
+   * of the calling thread.
+   */
+  static <R> CompletableFuture<R> supplyAsync(Supplier<R> supplier, Executor executor) {
+    Map<Class<?>, CurrentInstance> instances = CurrentInstance.getInstances();
+    return CompletableFuture.supplyAsync(() -> {
+      Map<Class<?>, CurrentInstance> old = CurrentInstance.getInstances();
+      CurrentInstance.clearAll();
+      CurrentInstance.restoreInstances(instances);
+      try {
+        return supplier.get();
+      } finally {
+        CurrentInstance.clearAll();
+        CurrentInstance.restoreInstances(old);
+      }
+    }, executor);
+  }
+
+  /** Waits for the future, and rethrows the unchecked exception that it completed with. */
+  static <R> R join(CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    } catch (CancellationException e) {
+      throw new IllegalStateException("Row extraction was cancelled", e);
+    }
+  }
+
+  /** Cancels the batches that were not consumed yet. */
+  @Override
+  public void close() {
+    pending.forEach(future -> future.cancel(false));
+    pending.clear();
+  }
+
+}
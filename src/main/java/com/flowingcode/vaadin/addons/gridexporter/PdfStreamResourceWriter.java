@@ -19,10 +19,8 @@
  */
 package com.flowingcode.vaadin.addons.gridexporter;
 
-import com.vaadin.flow.server.VaadinSession;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import org.docx4j.Docx4J;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
@@ -44,19 +42,37 @@ class PdfStreamResourceWriter<T> extends DocxStreamResourceWriter<T> {
   }
 
   @Override
-  public void accept(OutputStream out, VaadinSession session) throws IOException {
-    try {
+  ExportFormat getFormat() {
+    return ExportFormat.PDF;
+  }
+
+  @Override
+  ExportSink createSink() {
+    return new PdfExportSink();
+  }
+
+  private class PdfExportSink extends DocxExportSink {
 
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      createDoc(session).write(baos);
+    @Override
+    void write(OutputStream out) throws IOException {
+      SpillBuffer buffer = new SpillBuffer();
+      try {
+        try (buffer) {
+          super.write(buffer);
+        }
 
-      WordprocessingMLPackage wordMLPackage =
-          WordprocessingMLPackage.load(new ByteArrayInputStream(baos.toByteArray()));
-      MainDocumentPart documentPart = wordMLPackage.getMainDocumentPart();
+        WordprocessingMLPackage wordMLPackage;
+        try (InputStream in = buffer.getInputStream()) {
+          wordMLPackage = WordprocessingMLPackage.load(in);
+        }
+        MainDocumentPart documentPart = wordMLPackage.getMainDocumentPart();
 
-      Docx4J.toPDF(wordMLPackage, out);
-    } catch (Docx4JException e) {
-      throw new RuntimeException("Problem when exporting data to PDF file", e);
+        Docx4J.toPDF(wordMLPackage, out);
+      } catch (Docx4JException e) {
+        throw new RuntimeException("Problem when exporting data to PDF file", e);
+      } finally {
+        buffer.discard();
+      }
     }
   }
 }
@@ -46,6 +46,17 @@ public class PoiHelper {
   private static final String PROBLEM_WHEN_CALLING_METHOD_ON_EXCEPTION_MESSAGE =
       "Problem when calling method %s() on class %s";
 
+  /** Cell.getCellType(), which returns an int in older versions of Apache POI. */
+  private static final Method GET_CELL_TYPE_METHOD = getCellTypeMethod();
+
+  private static Method getCellTypeMethod() {
+    try {
+      return Cell.class.getMethod(GET_CELL_TYPE_METHOD_NAME);
+    } catch (NoSuchMethodException | SecurityException e) {
+      return null;
+    }
+  }
+
   /**
    * Tries to set the cell to be blank
    *
@@ -82,11 +93,15 @@ public class PoiHelper {
   public static boolean cellTypeEquals(Cell cell, CellType cellType) {
     boolean result = false;
     try {
-      Method getCellType = Cell.class.getMethod(GET_CELL_TYPE_METHOD_NAME);
-      if (getCellType.getReturnType().isPrimitive()) {
-        result = getCellType.invoke(cell).equals(cellType.getCode());
+      if (GET_CELL_TYPE_METHOD == null) {
+        throw new NoSuchMethodException(GET_CELL_TYPE_METHOD_NAME);
+      } else if (GET_CELL_TYPE_METHOD.getReturnType() == CellType.class) {
+        // no reflective call is needed with the current API
+        result = cell.getCellType() == cellType;
+      } else if (GET_CELL_TYPE_METHOD.getReturnType().isPrimitive()) {
+        result = GET_CELL_TYPE_METHOD.invoke(cell).equals(cellType.getCode());
       } else {
-        result = getCellType.invoke(cell).equals(cellType);
+        result = GET_CELL_TYPE_METHOD.invoke(cell).equals(cellType);
       }
     } catch (NoSuchMethodException
         | SecurityException
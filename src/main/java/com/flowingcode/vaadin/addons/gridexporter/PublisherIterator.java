@@ -0,0 +1,201 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Subscribes to a publisher, and returns the published items as an iterator.
+ * <p>
+ * The iterator requests {@code demand} items when subscribed, and requests half of them again
+ * each time that half of them have been consumed, so that no more than {@code demand} items are
+ * buffered or in flight at any time. The calling thread blocks until the next item is published.
+ */
+final class PublisherIterator<T> implements Iterator<T>, Flow.Subscriber<T>, AutoCloseable {
+
+  private final int demand;
+  private final int replenish;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition signal = lock.newCondition();
+  private final Deque<T> buffer = new ArrayDeque<>();
+  private Flow.Subscription subscription;
+  private boolean done;
+  private boolean closed;
+  private Throwable error;
+
+  private T next;
+  private int consumed;
+
+  private PublisherIterator(int demand) {
+    if (demand < 1) {
+      throw new IllegalArgumentException("The demand must be positive");
+    }
+    this.demand = demand;
+    replenish = Math.max(1, demand / 2);
+  }
+
+  /**
+   * Subscribes to the given publisher.
+   *
+   * @param publisher the publisher
+   * @param demand the maximum number of items requested and not consumed yet
+   */
+  static <T> PublisherIterator<T> subscribe(Flow.Publisher<T> publisher, int demand) {
+    PublisherIterator<T> iterator = new PublisherIterator<>(demand);
+    publisher.subscribe(iterator);
+    return iterator;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    lock.lock();
+    try {
+      if (this.subscription != null || closed) {
+        subscription.cancel();
+        return;
+      }
+      this.subscription = subscription;
+    } finally {
+      lock.unlock();
+    }
+    subscription.request(demand);
+  }
+
+  @Override
+  public void onNext(T item) {
+    Objects.requireNonNull(item);
+    lock.lock();
+    try {
+      if (!closed) {
+        buffer.addLast(item);
+        signal.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    lock.lock();
+    try {
+      error = Objects.requireNonNull(throwable);
+      done = true;
+      signal.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void onComplete() {
+    lock.lock();
+    try {
+      done = true;
+      signal.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+
+    Flow.Subscription subscription;
+    lock.lock();
+    try {
+      while (buffer.isEmpty() && !done && !closed) {
+        signal.await();
+      }
+      next = buffer.pollFirst();
+      if (next == null && error != null) {
+        throw propagate(error);
+      }
+      subscription = this.subscription;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      close();
+      throw new IllegalStateException("Interrupted while waiting for the publisher", e);
+    } finally {
+      lock.unlock();
+    }
+
+    if (next == null) {
+      return false;
+    }
+    if (++consumed == replenish) {
+      consumed = 0;
+      subscription.request(replenish);
+    }
+    return true;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    T item = next;
+    next = null;
+    return item;
+  }
+
+  private static RuntimeException propagate(Throwable error) {
+    if (error instanceof RuntimeException) {
+      return (RuntimeException) error;
+    } else if (error instanceof Error) {
+      throw (Error) error;
+    }
+    return new IllegalStateException("The publisher failed", error);
+  }
+
+  /** Cancels the subscription, unless the publisher has already completed. */
+  @Override
+  public void close() {
+    Flow.Subscription subscription;
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      buffer.clear();
+      signal.signalAll();
+      subscription = done ? null : this.subscription;
+    } finally {
+      lock.unlock();
+    }
+    if (subscription != null) {
+      subscription.cancel();
+    }
+  }
+
+}
@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.data.provider.Query;
+import java.io.Serializable;
+import java.util.concurrent.Flow;
+
+/**
+ * A reactive source of the items of an export. When it is available, the exporter subscribes to
+ * the publisher returned for the export query and requests items in bounded batches as the rows
+ * are written, so that the backend is never asked for more items than the exporter can buffer.
+ * The subscription is cancelled if the export fails or is aborted before the publisher
+ * completes.
+ * <p>
+ * The data provider of the grid may implement this interface, or it may be configured with
+ * {@link GridExporter#setReactiveDataSource(ReactiveDataSource)}. Adapters for reactive libraries
+ * are readily available (e.g. {@code JdkFlowAdapter.publisherToFlowPublisher} in Reactor, or
+ * {@code FlowAdapters.toFlowPublisher} in Reactive Streams).
+ *
+ * @param <T> the type of the items
+ * @param <F> the type of the filter
+ * @since 3.2.0
+ */
+@FunctionalInterface
+public interface ReactiveDataSource<T, F> extends Serializable {
+
+  /**
+   * Returns a publisher of the items that match the query, in its sort order.
+   *
+   * @param query the query, with the filter and the sort orders. It is a {@link GridExportQuery}.
+   * @return the publisher of the items
+   */
+  Flow.Publisher<T> publish(Query<T, F> query);
+
+}
@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retains the exports that were rendered into {@linkplain SpillBuffer buffers} before being served,
+ * so that interrupted downloads can be resumed with range requests without rendering the export
+ * again. Expired exports are discarded by a background sweep that runs when their retention time
+ * elapses, and all the exports are discarded when the grid is detached.
+ */
+final class RenderedExportStore {
+
+  private static final ScheduledExecutorService SWEEPER =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "grid-exporter-rendered-export-sweeper");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /** A rendered export, which is discarded after it expires and it's no longer being served. */
+  static final class RenderedExport {
+
+    private final SpillBuffer buffer;
+    private final String etag;
+    private final long expiresAt;
+    private int references = 1;
+    private boolean evicted;
+
+    private RenderedExport(SpillBuffer buffer, String etag, long expiresAt) {
+      this.buffer = buffer;
+      this.etag = etag;
+      this.expiresAt = expiresAt;
+    }
+
+    /** Returns the buffer that contains the rendered export. */
+    SpillBuffer getBuffer() {
+      return buffer;
+    }
+
+    /** Returns the entity tag of the rendered export, including the quotes. */
+    String getEtag() {
+      return etag;
+    }
+  }
+
+  private final Map<GridExporterCache.Key, RenderedExport> exports = new HashMap<>();
+
+  private final long retentionNanos;
+
+  RenderedExportStore(Duration retention) {
+    retentionNanos = retention.toNanos();
+  }
+
+  /**
+   * Returns the rendered export for the given key, or {@code null} if there is none. The returned
+   * export must be {@linkplain #release(RenderedExport) released} after serving it.
+   */
+  synchronized RenderedExport acquire(GridExporterCache.Key key) {
+    evictExpired();
+    RenderedExport export = exports.get(key);
+    if (export != null) {
+      export.references++;
+    }
+    return export;
+  }
+
+  /**
+   * Stores a rendered export, replacing any previous export with the same key. The returned export
+   * is acquired by the caller, and must be {@linkplain #release(RenderedExport) released} after
+   * serving it.
+   */
+  synchronized RenderedExport put(GridExporterCache.Key key, SpillBuffer buffer, String etag) {
+    evictExpired();
+    RenderedExport export = new RenderedExport(buffer, etag, System.nanoTime() + retentionNanos);
+    if (retentionNanos > 0) {
+      export.references++;
+      evict(exports.put(key, export));
+      scheduleSweep();
+    } else {
+      export.evicted = true;
+    }
+    return export;
+  }
+
+  /** Releases an export acquired from this store. */
+  synchronized void release(RenderedExport export) {
+    if (--export.references == 0) {
+      export.buffer.discard();
+    }
+  }
+
+  /** Discards all the exports that are not being served. */
+  synchronized void clear() {
+    exports.values().forEach(this::evict);
+    exports.clear();
+  }
+
+  /**
+   * Schedules the eviction of the expired exports once the retention time elapses. The sweep does
+   * not keep the store reachable.
+   */
+  private void scheduleSweep() {
+    WeakReference<RenderedExportStore> reference = new WeakReference<>(this);
+    SWEEPER.schedule(() -> {
+      RenderedExportStore store = reference.get();
+      if (store != null) {
+        store.sweep();
+      }
+    }, retentionNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private synchronized void sweep() {
+    evictExpired();
+  }
+
+  private void evictExpired() {
+    long now = System.nanoTime();
+    for (Iterator<RenderedExport> it = exports.values().iterator(); it.hasNext();) {
+      RenderedExport export = it.next();
+      if (now - export.expiresAt >= 0) {
+        it.remove();
+        evict(export);
+      }
+    }
+  }
+
+  private void evict(RenderedExport export) {
+    if (export != null && !export.evicted) {
+      export.evicted = true;
+      release(export);
+    }
+  }
+
+}
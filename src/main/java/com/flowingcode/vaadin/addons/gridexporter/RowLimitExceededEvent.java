@@ -0,0 +1,83 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.util.EventObject;
+import java.util.Objects;
+
+/**
+ * An event that is fired when an export is rejected because it exceeds the {@linkplain
+ * GridExporter#setMaxRowCount(ExportFormat, int) maximum row count} of its format.
+ *
+ * @see RowLimitPolicy#REJECT
+ * @since 3.2.0
+ */
+@SuppressWarnings("serial")
+public class RowLimitExceededEvent extends EventObject {
+
+  private final ExportFormat format;
+  private final long rowCount;
+  private final int maxRowCount;
+
+  /**
+   * Constructs a new RowLimitExceededEvent.
+   *
+   * @param source the {@link GridExporter} that is the source of this event
+   * @param format the format of the rejected export
+   * @param rowCount the number of rows of the export, or {@code -1} if unknown
+   * @param maxRowCount the maximum row count of the format
+   * @throws IllegalArgumentException if source is null
+   */
+  public RowLimitExceededEvent(
+      GridExporter<?> source, ExportFormat format, long rowCount, int maxRowCount) {
+    super(Objects.requireNonNull(source));
+    this.format = format;
+    this.rowCount = rowCount;
+    this.maxRowCount = maxRowCount;
+  }
+
+  /**
+   * Returns the source of this event.
+   *
+   * @return the {@code GridExporter} that is the source of this event
+   */
+  @Override
+  public GridExporter<?> getSource() {
+    return (GridExporter<?>) super.getSource();
+  }
+
+  /** Returns the format of the rejected export. */
+  public ExportFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * Returns the number of rows of the rejected export, or {@code -1} if the export was rejected
+   * while rendering, without knowing its total row count.
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** Returns the maximum row count of the format. */
+  public int getMaxRowCount() {
+    return maxRowCount;
+  }
+}
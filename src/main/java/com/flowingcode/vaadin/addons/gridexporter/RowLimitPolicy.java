@@ -0,0 +1,49 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+/**
+ * The policy applied when an export exceeds the {@linkplain
+ * GridExporter#setMaxRowCount(ExportFormat, int) maximum row count} of its format.
+ *
+ * @since 3.2.0
+ */
+public enum RowLimitPolicy {
+
+  /**
+   * The export is rejected, and a {@link RowLimitExceededEvent} is fired.
+   */
+  REJECT,
+
+  /**
+   * The export is truncated to the maximum row count, and a {@linkplain
+   * GridExporter#setRowLimitNotice(String) notice row} is appended after the data.
+   */
+  TRUNCATE,
+
+  /**
+   * The export is served as JSON Lines, whose rows are written as they are fetched into a buffer
+   * that spills into a temporary file, and which is truncated to the maximum row count of
+   * {@link ExportFormat#JSON_LINES}, if any. Exports in formats that render in a streaming fashion
+   * are truncated instead, as well as exports whose row count cannot be known in advance.
+   */
+  DOWNGRADE;
+
+}
@@ -0,0 +1,170 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A {@link StreamResourceWriter} that splits the export into several documents (shards) of at
+ * most a given number of rows, and writes them into a ZIP archive.
+ * <p>
+ * The items are fetched once, as for a single export, and consecutive ranges of rows are
+ * rendered into each shard under the session lock. The documents of the rendered shards are then
+ * written concurrently into buffers, while the following shards are rendered, and they are copied
+ * into the archive in order as they complete. At most {@code parallelism} shards are pending at
+ * any time.
+ * <p>
+ * The session lock is released while the archive is written, so the grid may change between
+ * shards. The data stream is obtained when the first shard is rendered, and its queries keep the
+ * filter, the sort orders and the scope that the grid had at that point (in-memory items,
+ * selected items and the viewport are copied), so that the shards are consistent with each other.
+ * Changes to the data of a lazy data provider while the archive is written may still be visible,
+ * as for any paged fetch.
+ */
+@SuppressWarnings("serial")
+class ShardedStreamResourceWriter<T> implements StreamResourceWriter {
+
+  private final BaseStreamResourceWriter<T> writer;
+  private final int shardSize;
+  private final int parallelism;
+  private final IntFunction<String> entryNames;
+
+  /**
+   * Creates a new sharded writer.
+   *
+   * @param writer the writer of the format of the shards
+   * @param shardSize the maximum number of rows in each shard
+   * @param parallelism the maximum number of shards being written at the same time
+   * @param entryNames the names of the archive entries, given the index of the shard
+   */
+  ShardedStreamResourceWriter(BaseStreamResourceWriter<T> writer, int shardSize, int parallelism,
+      IntFunction<String> entryNames) {
+    if (shardSize < 1 || parallelism < 1) {
+      throw new IllegalArgumentException("Shard size and parallelism must be positive");
+    }
+    this.writer = writer;
+    this.shardSize = shardSize;
+    this.parallelism = parallelism;
+    this.entryNames = entryNames;
+  }
+
+  @Override
+  public void accept(OutputStream out, VaadinSession session) throws IOException {
+    GridExporter<T> exporter = writer.exporter;
+    // the shards are never truncated by the row limit of the format
+    int size = Math.min(shardSize, exporter.getMaxRowCount(writer.getFormat()));
+    DeltaExport<T> delta = exporter.createDeltaExport();
+
+    Stream<T> source = null;
+    Iterator<T> items = null;
+    long rowCount = 0;
+    int rendered = 0;
+    int written = 0;
+    boolean more = true;
+    Deque<CompletableFuture<SpillBuffer>> pending = new ArrayDeque<>();
+    ZipOutputStream zip = new ZipOutputStream(out);
+    try {
+      while (more || !pending.isEmpty()) {
+        if (more && pending.size() < parallelism) {
+          BaseStreamResourceWriter<T>.ExportSink sink = writer.createSink();
+          boolean empty = false;
+          session.lock();
+          try {
+            if (source == null) {
+              // the columns are set once, before the query (which needs their properties) is
+              // built, and are shared by all the shards
+              writer.setExportableColumns();
+              source = writer.obtainDataStream(exporter.getGrid().getDataProvider());
+              if (delta != null) {
+                source = source.filter(delta::isChanged);
+              }
+              items = source.iterator();
+            }
+            // an empty export still produces one (empty) shard
+            if (rendered == 0 || items.hasNext()) {
+              rowCount += writer.renderRows(List.of(sink), take(items, size), delta);
+              more = items.hasNext();
+            } else {
+              // the last rendered shard was full, and no items were left for this one
+              more = false;
+              empty = true;
+            }
+          } catch (IOException | RuntimeException e) {
+            sink.dispose();
+            throw e;
+          } finally {
+            session.unlock();
+          }
+          if (empty) {
+            sink.dispose();
+          } else {
+            rendered++;
+            pending.addLast(sink.writeAsync(exporter.getValueExtractionExecutor()));
+          }
+        } else {
+          SpillBuffer buffer = BaseStreamResourceWriter.join(pending.removeFirst());
+          try {
+            zip.putNextEntry(new ZipEntry(entryNames.apply(written++)));
+            buffer.writeTo(zip);
+            zip.closeEntry();
+          } finally {
+            buffer.discard();
+          }
+        }
+      }
+      zip.finish();
+    } finally {
+      if (source != null) {
+        source.close();
+      }
+      // discard the buffers when they complete, even if the archive was not completed
+      pending.forEach(future -> future.thenAccept(SpillBuffer::discard));
+    }
+
+    if (delta != null) {
+      exporter.fireDeltaExport(delta, rowCount, false);
+    }
+  }
+
+  /** Returns a supplier of a stream of the next items, up to the given count. */
+  private static <T> Supplier<Stream<T>> take(Iterator<T> items, int count) {
+    // the returned stream doesn't close the source
+    return () -> StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(items, Spliterator.ORDERED), false)
+        .limit(count);
+  }
+
+}
@@ -0,0 +1,255 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An output stream that buffers its content on the heap, and spills it into a temporary file once
+ * it exceeds the {@linkplain GridExporterSpillSettings#setSpillThreshold(long) spill threshold}.
+ * <p>
+ * The content can be read after the stream is closed. The buffer must be {@linkplain #discard()
+ * discarded} once it's no longer needed, in order to delete the temporary file.
+ *
+ * @see GridExporterSpillSettings
+ */
+final class SpillBuffer extends OutputStream {
+
+  private final long threshold = GridExporterSpillSettings.getSpillThreshold();
+
+  private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+  private Path file;
+
+  private OutputStream fileOut;
+
+  private long size;
+
+  private long reserved;
+
+  private boolean closed;
+
+  private boolean discarded;
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (file == null && size + len > threshold) {
+      spill();
+    }
+    if (file != null) {
+      GridExporterSpillSettings.reserve(len);
+      reserved += len;
+      fileOut.write(b, off, len);
+    } else {
+      memory.write(b, off, len);
+    }
+    size += len;
+  }
+
+  private void spill() throws IOException {
+    GridExporterSpillSettings.reserve(size);
+    reserved += size;
+    file = GridExporterSpillSettings.createSpillFile();
+    fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+    memory.writeTo(fileOut);
+    memory = null;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (fileOut != null) {
+      fileOut.flush();
+    }
+  }
+
+  /** Completes the content of the buffer. */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      if (fileOut != null) {
+        fileOut.close();
+      }
+    }
+  }
+
+  /** Returns the size of the content. */
+  long size() {
+    return size;
+  }
+
+  /** Returns whether the content was spilled into a temporary file. */
+  boolean isSpilled() {
+    return file != null;
+  }
+
+  /** Opens an input stream that reads the content of the buffer. */
+  InputStream getInputStream() throws IOException {
+    checkReadable();
+    if (file == null) {
+      return new ByteArrayInputStream(memory.toByteArray());
+    } else if (isMemoryMapped()) {
+      ByteBuffer buffer = map();
+      return new InputStream() {
+        @Override
+        public int read() {
+          return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          if (len == 0) {
+            return 0;
+          } else if (!buffer.hasRemaining()) {
+            return -1;
+          }
+          len = Math.min(len, buffer.remaining());
+          buffer.get(b, off, len);
+          return len;
+        }
+
+        @Override
+        public int available() {
+          return buffer.remaining();
+        }
+      };
+    } else {
+      return Files.newInputStream(file);
+    }
+  }
+
+  /** Writes the content of the buffer into an output stream. */
+  void writeTo(OutputStream out) throws IOException {
+    checkReadable();
+    if (file == null) {
+      memory.writeTo(out);
+    } else if (isMemoryMapped()) {
+      ByteBuffer buffer = map();
+      WritableByteChannel channel = Channels.newChannel(out);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } else {
+      Files.copy(file, out);
+    }
+  }
+
+  /**
+   * Writes a range of the content into an output stream. If the content was spilled, it is
+   * transferred from the temporary file with {@link FileChannel#transferTo(long, long,
+   * WritableByteChannel)}, which avoids copying it through the heap when the platform supports it.
+   *
+   * @param out the output stream
+   * @param offset the offset of the range
+   * @param length the length of the range
+   */
+  void transferTo(OutputStream out, long offset, long length) throws IOException {
+    checkReadable();
+    if (offset < 0 || length < 0 || offset + length > size) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (file == null) {
+      out.write(memory.toByteArray(), (int) offset, (int) length);
+    } else {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+          long count = channel.transferTo(position, end - position, target);
+          if (count <= 0 && position >= channel.size()) {
+            throw new EOFException();
+          }
+          position += count;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the temporary file that contains the content of the buffer, or {@code null} if the
+   * content was not spilled.
+   */
+  Path getFile() {
+    checkReadable();
+    return file;
+  }
+
+  /** Discards the content of the buffer, deleting the temporary file (if any). */
+  void discard() {
+    if (!discarded) {
+      discarded = true;
+      memory = null;
+      if (fileOut != null) {
+        try {
+          fileOut.close();
+        } catch (IOException e) {
+          // the file is deleted anyway
+        }
+      }
+      if (file != null) {
+        GridExporterSpillSettings.deleteSpillFile(file);
+      }
+      GridExporterSpillSettings.release(reserved);
+      reserved = 0;
+    }
+  }
+
+  private void checkReadable() {
+    if (!closed || discarded) {
+      throw new IllegalStateException(discarded ? "Buffer discarded" : "Buffer not closed");
+    }
+  }
+
+  private boolean isMemoryMapped() {
+    // files larger than 2 GiB cannot be mapped into a single buffer
+    return GridExporterSpillSettings.isMemoryMapped() && size <= Integer.MAX_VALUE;
+  }
+
+  private MappedByteBuffer map() throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return channel.map(MapMode.READ_ONLY, 0, size);
+    }
+  }
+
+}
@@ -19,10 +19,17 @@
  */
 package com.flowingcode.vaadin.addons.gridexporter;
 
+import com.flowingcode.vaadin.addons.gridexporter.RenderedExportStore.RenderedExport;
 import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.streams.DownloadEvent;
 import com.vaadin.flow.server.streams.DownloadHandler;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 
 /**
  * Adapter class that converts a {@link StreamResourceWriter} to a
@@ -36,9 +43,13 @@ import java.io.IOException;
 @SuppressWarnings("serial")
 class StreamResourceWriterAdapter implements DownloadHandler {
 
+  private static final int HTTP_PARTIAL_CONTENT = 206;
+  private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
   private final StreamResourceWriter writer;
   private final String filename;
   private final String contentType;
+  private final Integer transferCompressionLevel;
 
   /**
    * Creates a new adapter that wraps the given {@link StreamResourceWriter}.
@@ -48,13 +59,196 @@ class StreamResourceWriterAdapter implements DownloadHandler {
    * @param contentType the MIME content type
    */
   public StreamResourceWriterAdapter(StreamResourceWriter writer, String filename, String contentType) {
+    this(writer, filename, contentType, null);
+  }
+
+  /**
+   * Creates a new adapter that wraps the given {@link StreamResourceWriter}, and compresses the
+   * transferred content with gzip when the client accepts it.
+   *
+   * @param writer                   the StreamResourceWriter to adapt
+   * @param filename                 the filename for the download
+   * @param contentType              the MIME content type
+   * @param transferCompressionLevel the gzip compression level, or {@code null} for not
+   *                                 compressing the transferred content
+   */
+  StreamResourceWriterAdapter(StreamResourceWriter writer, String filename, String contentType,
+      Integer transferCompressionLevel) {
     this.writer = writer;
     this.filename = filename;
     this.contentType = contentType;
+    this.transferCompressionLevel = transferCompressionLevel;
   }
 
   @Override
   public void handleDownloadRequest(DownloadEvent event) throws IOException {
+    RenderedExportStore store = getRenderedExportStore();
+    if (store != null) {
+      renderAndServe(event, store);
+      return;
+    }
+
+    setFileNameAndContentType(event);
+
+    // Delegate to the StreamResourceWriter's accept method
+    GZIPOutputStream gzip = getTransferCompressionStream(event);
+    if (gzip != null) {
+      writer.accept(CloseShieldOutputStream.wrap(gzip), event.getSession());
+      gzip.finish();
+    } else {
+      writer.accept(event.getOutputStream(), event.getSession());
+    }
+  }
+
+  /**
+   * Handles the download request with the content cached by the writer, if the writer is a
+   * {@link CachingStreamResourceWriter} and the export is cached. Range requests are served from
+   * the retained {@linkplain RenderedExportStore rendered export}, if there is one.
+   *
+   * @return {@code true} if the request was handled from the cache
+   */
+  boolean handleCachedDownloadRequest(DownloadEvent event) throws IOException {
+    RenderedExportStore store = getRenderedExportStore();
+    if (store != null && event.getRequest().getHeader("Range") != null) {
+      // resume the download of a previously rendered export
+      RenderedExport export =
+          store.acquire(((CachingStreamResourceWriter) writer).createKey(event.getSession()));
+      if (export != null) {
+        serve(event, store, export);
+        return true;
+      }
+    }
+
+    if (writer instanceof CachingStreamResourceWriter) {
+      byte[] content =
+          ((CachingStreamResourceWriter) writer).getCachedContent(event.getSession());
+      if (content != null) {
+        setFileNameAndContentType(event);
+        GZIPOutputStream gzip = getTransferCompressionStream(event);
+        if (gzip != null) {
+          gzip.write(content);
+          gzip.finish();
+        } else {
+          event.getOutputStream().write(content);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the store where the exports are rendered before being served, or {@code null} if the
+   * exports are written directly into the response.
+   */
+  private RenderedExportStore getRenderedExportStore() {
+    if (writer instanceof CachingStreamResourceWriter) {
+      return ((CachingStreamResourceWriter) writer).getExporter().getRenderedExportStore();
+    }
+    return null;
+  }
+
+  /** Renders the export into a buffer, and serves it from there. */
+  private void renderAndServe(DownloadEvent event, RenderedExportStore store) throws IOException {
+    GridExporterCache.Key key =
+        ((CachingStreamResourceWriter) writer).createKey(event.getSession());
+    SpillBuffer buffer = new SpillBuffer();
+    CRC32 crc = new CRC32();
+    RenderedExport export;
+    try {
+      try (OutputStream out = new CheckedOutputStream(buffer, crc)) {
+        writer.accept(out, event.getSession());
+      }
+      String etag = "\"" + Long.toHexString(crc.getValue()) + "-"
+          + Long.toHexString(buffer.size()) + "\"";
+      export = store.put(key, buffer, etag);
+    } catch (IOException | RuntimeException e) {
+      buffer.discard();
+      throw e;
+    }
+    serve(event, store, export);
+  }
+
+  /**
+   * Serves a rendered export with {@code Content-Length} and {@code ETag} headers, and honors
+   * single-range requests. The export is released from the store afterwards.
+   */
+  private void serve(DownloadEvent event, RenderedExportStore store, RenderedExport export)
+      throws IOException {
+    try {
+      SpillBuffer buffer = export.getBuffer();
+      long size = buffer.size();
+      VaadinResponse response = event.getResponse();
+      setFileNameAndContentType(event);
+      response.setHeader("Accept-Ranges", "bytes");
+      response.setHeader("ETag", export.getEtag());
+
+      long[] range = null;
+      String ifRange = event.getRequest().getHeader("If-Range");
+      if (ifRange == null || ifRange.equals(export.getEtag())) {
+        range = parseRange(event.getRequest().getHeader("Range"), size);
+      }
+
+      if (range == null) {
+        response.setHeader("Content-Length", Long.toString(size));
+        buffer.transferTo(event.getOutputStream(), 0, size);
+      } else if (range.length == 0) {
+        response.setStatus(HTTP_RANGE_NOT_SATISFIABLE);
+        response.setHeader("Content-Range", "bytes */" + size);
+      } else {
+        long length = range[1] - range[0] + 1;
+        response.setStatus(HTTP_PARTIAL_CONTENT);
+        response.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + size);
+        response.setHeader("Content-Length", Long.toString(length));
+        buffer.transferTo(event.getOutputStream(), range[0], length);
+      }
+    } finally {
+      store.release(export);
+    }
+  }
+
+  /**
+   * Parses the value of a {@code Range} header with a single byte range.
+   *
+   * @return the first and last positions of the range, an empty array if the range is not
+   *         satisfiable, or {@code null} if the header is absent, is not supported (e.g. multiple
+   *         ranges) or is invalid, in which case the whole content is served
+   */
+  static long[] parseRange(String header, long size) {
+    if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+      return null;
+    }
+    String spec = header.substring(6).trim();
+    int dash = spec.indexOf('-');
+    if (dash < 0) {
+      return null;
+    }
+    try {
+      long first;
+      long last;
+      if (dash == 0) {
+        // suffix range: the last N bytes
+        long suffix = Long.parseLong(spec.substring(1));
+        if (suffix == 0) {
+          return new long[0];
+        }
+        first = Math.max(size - suffix, 0);
+        last = size - 1;
+      } else {
+        first = Long.parseLong(spec.substring(0, dash));
+        last = dash == spec.length() - 1 ? size - 1
+            : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+        if (last < first && first < size) {
+          return null;
+        }
+      }
+      return first < size ? new long[] {first, last} : new long[0];
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private void setFileNameAndContentType(DownloadEvent event) {
     // Set filename and content type in the download event
     if (filename != null) {
       event.setFileName(filename);
@@ -62,8 +256,46 @@ class StreamResourceWriterAdapter implements DownloadHandler {
     if (contentType != null) {
       event.setContentType(contentType);
     }
+  }
 
-    // Delegate to the StreamResourceWriter's accept method
-    writer.accept(event.getOutputStream(), event.getSession());
+  /**
+   * If transfer compression is enabled and the client accepts gzip content encoding, sets the
+   * {@code Content-Encoding} header and returns a gzip stream that writes into the response.
+   * Otherwise, returns {@code null}.
+   */
+  private GZIPOutputStream getTransferCompressionStream(DownloadEvent event) throws IOException {
+    if (transferCompressionLevel == null
+        || !acceptsGzip(event.getRequest().getHeader("Accept-Encoding"))) {
+      return null;
+    }
+    event.getResponse().setHeader("Content-Encoding", "gzip");
+    event.getResponse().setHeader("Vary", "Accept-Encoding");
+    OutputStream out = event.getOutputStream();
+    return CompressingStreamResourceWriter.newGzipOutputStream(out, transferCompressionLevel);
+  }
+
+  /** Whether an {@code Accept-Encoding} header value accepts the gzip content coding. */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+        for (int i = 1; i < parts.length; i++) {
+          String param = parts[i].trim();
+          if (param.startsWith("q=")) {
+            try {
+              return Double.parseDouble(param.substring(2).trim()) > 0;
+            } catch (NumberFormatException e) {
+              return false;
+            }
+          }
+        }
+        return true;
+      }
+    }
+    return false;
   }
 }
@@ -31,7 +31,6 @@ import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.List;
@@ -55,16 +54,12 @@ public class GridExporterBigDatasetDemo extends Div {
     Column<Person> nameCol = grid.addColumn("name").setHeader("Name");
     Column<Person> lastNameCol = grid.addColumn("lastName").setHeader("Last Name");
     Column<Person> budgetCol = grid.addColumn(item -> "$" + item.getBudget()).setHeader("Budget");
-    BigDecimal[] total = new BigDecimal[1];
-    total[0] = BigDecimal.ZERO;
     List<Person> persons =
         IntStream.range(0, 1400)
             .asLongStream()
             .mapToObj(
                 number -> {
                   Double budget = faker.number().randomDouble(2, 10000, 100000);
-                  total[0] = total[0].add(BigDecimal.valueOf(budget));
-                  budgetCol.setFooter("$" + total[0]);
                   return new Person(
                       faker.name().firstName(),
                       faker.name().lastName(),
@@ -77,6 +72,8 @@ public class GridExporterBigDatasetDemo extends Div {
     GridExporter<Person> exporter = GridExporter.createFor(grid);
     exporter.setAutoSizeColumns(false);
     exporter.setExportValue(budgetCol, item -> "" + item.getBudget());
+    // the total is accumulated while exporting, without iterating the dataset in advance
+    exporter.setFooterAggregate(budgetCol, ColumnAggregate.SUM, total -> "$" + total);
     exporter.setColumnPosition(lastNameCol, 1);
     exporter.setTitle("People information");
     exporter.setFileName(
@@ -0,0 +1,109 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter;
+
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.streams.DownloadEvent;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** Exposes package-private members of the exporter to the tests in the {@code test} package. */
+public final class GridExporterTestSupport {
+
+  private GridExporterTestSupport() {}
+
+  public static VaadinSession createSession() {
+    Lock lock = new ReentrantLock();
+    VaadinService service = new VaadinServletService(null, null);
+    return new VaadinSession(service) {
+      @Override
+      public Lock getLockInstance() {
+        return lock;
+      }
+    };
+  }
+
+  public static byte[] export(GridExporter<?> exporter, ExportFormat format, VaadinSession session)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exporter.createWriter(format).accept(out, session);
+    return out.toByteArray();
+  }
+
+  public static <T> byte[] exportSharded(GridExporter<T> exporter, ExportFormat format,
+      int maxRowsPerShard, VaadinSession session) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new ShardedStreamResourceWriter<>(exporter.createWriter(format), maxRowsPerShard,
+        exporter.getShardParallelism(), index -> "shard-" + index).accept(out, session);
+    return out.toByteArray();
+  }
+
+  public static Object createCacheKey(GridExporter<?> exporter, VaadinSession session,
+      String format) {
+    return exporter.createCacheKey(session, format, null);
+  }
+
+  /**
+   * Creates a download handler that renders the content of the writer before serving it, and
+   * retains it in the rendered export store of the exporter.
+   */
+  public static DownloadHandler createRenderingDownloadHandler(GridExporter<?> exporter,
+      StreamResourceWriter writer) {
+    exporter.setRenderToFileEnabled(true);
+    return new StreamResourceWriterAdapter(
+        new CachingStreamResourceWriter(exporter, writer, "txt", null), "export.txt",
+        "text/plain");
+  }
+
+  public static boolean handleCachedDownloadRequest(DownloadHandler handler, DownloadEvent event)
+      throws IOException {
+    return ((StreamResourceWriterAdapter) handler).handleCachedDownloadRequest(event);
+  }
+
+  public static long[] parseRange(String header, long size) {
+    return StreamResourceWriterAdapter.parseRange(header, size);
+  }
+
+  /**
+   * Renders the concurrent downloads on the threads of the given executor, as it is done on
+   * virtual threads, or directly on the request thread if the executor is {@code null}.
+   */
+  public static void setVirtualThreadExecutor(ExecutorService executor) {
+    ConcurrentOperationBase.virtualThreadExecutor = executor;
+  }
+
+  public static <T> Iterator<T> subscribe(Flow.Publisher<T> publisher, int demand) {
+    return PublisherIterator.subscribe(publisher, demand);
+  }
+
+  public static void close(Iterator<?> iterator) {
+    ((PublisherIterator<?>) iterator).close();
+  }
+
+}
@@ -0,0 +1,179 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.flowingcode.vaadin.addons.gridexporter.RowLimitPolicy;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ArrowExportTest {
+
+  private static class Payment {
+    private final String name;
+    private final Double amount;
+    private final LocalDate date;
+
+    Payment(String name, Double amount, LocalDate date) {
+      this.name = name;
+      this.amount = amount;
+      this.date = date;
+    }
+  }
+
+  private Grid<Payment> grid;
+  private GridExporter<Payment> exporter;
+  private VaadinSession session;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.addColumn(p -> p.name).setHeader("Name");
+    Column<Payment> amount = grid.addColumn(p -> "").setHeader("Amount");
+    exporter = GridExporter.createFor(grid);
+    exporter.setExportValue(amount, p -> p.amount);
+    exporter.setNumberColumnFormat(amount, "0.00");
+    Column<Payment> date = grid.addColumn(p -> "").setHeader("Date");
+    exporter.setExportValue(date, p -> p.date);
+    exporter.setDateColumnFormat(date, "yyyy-mm-dd");
+    session = GridExporterTestSupport.createSession();
+  }
+
+  /** The content of an Arrow stream: its schema, and the values of each record batch. */
+  private static class ArrowContent {
+    List<Field> fields;
+    final List<List<List<Object>>> batches = new ArrayList<>();
+
+    List<List<Object>> rows() {
+      return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+  }
+
+  private ArrowContent export() throws IOException {
+    byte[] body =
+        new MockDownloadRequest(session).handle(exporter.getArrowDownloadHandler()).getBody();
+    ArrowContent content = new ArrowContent();
+    try (BufferAllocator allocator = new RootAllocator();
+        ArrowStreamReader reader =
+            new ArrowStreamReader(new ByteArrayInputStream(body), allocator)) {
+      VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      content.fields = root.getSchema().getFields();
+      while (reader.loadNextBatch()) {
+        List<List<Object>> batch = new ArrayList<>();
+        for (int row = 0; row < root.getRowCount(); row++) {
+          List<Object> values = new ArrayList<>();
+          for (FieldVector vector : root.getFieldVectors()) {
+            Object value = vector.getObject(row);
+            values.add(value == null ? null : value.toString());
+          }
+          batch.add(values);
+        }
+        content.batches.add(batch);
+      }
+    }
+    return content;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    grid.setItems(new Payment("Ann", 10.5, LocalDate.of(2024, 2, 29)),
+        new Payment("Bob \u00E9", null, null), new Payment(null, -1e6, LocalDate.of(1970, 1, 1)));
+
+    ArrowContent content = export();
+    assertThat(content.fields.stream().map(Field::getName).collect(Collectors.toList()),
+        contains("Name", "Amount", "Date"));
+    assertThat(content.fields.get(0).getType(), equalTo(ArrowType.Utf8.INSTANCE));
+    assertThat(content.fields.get(1).getType(),
+        equalTo(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)));
+    assertThat(content.fields.get(2).getType(),
+        equalTo(new ArrowType.Timestamp(TimeUnit.MILLISECOND, null)));
+
+    assertThat(content.batches.size(), equalTo(1));
+    List<List<Object>> rows = content.rows();
+    assertThat(rows.get(0), contains("Ann", "10.5", "2024-02-29T00:00"));
+    assertThat(rows.get(1), contains("Bob \u00E9", null, null));
+    assertThat(rows.get(2), contains("", "-1000000.0", "1970-01-01T00:00"));
+  }
+
+  @Test
+  public void testRecordBatches() throws IOException {
+    int count = 10000;
+    grid.setItems(IntStream.range(0, count)
+        .mapToObj(i -> new Payment("p" + i, (double) i, LocalDate.ofEpochDay(i)))
+        .collect(Collectors.toList()));
+
+    ArrowContent content = export();
+    assertThat(content.batches.stream().map(List::size).collect(Collectors.toList()),
+        contains(4096, 4096, 1808));
+    List<List<Object>> rows = content.rows();
+    for (int i = 0; i < count; i++) {
+      assertThat(rows.get(i).get(0), equalTo("p" + i));
+      assertThat(rows.get(i).get(1), equalTo(Double.toString(i)));
+    }
+  }
+
+  @Test
+  public void testEmptyExport() throws IOException {
+    grid.setItems(new ArrayList<>());
+
+    ArrowContent content = export();
+    assertThat(content.fields.size(), equalTo(3));
+    assertThat(content.rows().size(), equalTo(0));
+  }
+
+  @Test
+  public void testTruncatedExport() throws IOException {
+    exporter.setRowLimitPolicy(RowLimitPolicy.TRUNCATE);
+    exporter.setMaxRowCount(ExportFormat.ARROW, 2);
+    grid.setItems(new Payment("a", 1.0, null), new Payment("b", 2.0, null),
+        new Payment("c", 3.0, null));
+
+    List<List<Object>> rows = export().rows();
+    assertThat(rows.size(), equalTo(2));
+    assertThat(rows.get(1).get(0), equalTo("b"));
+    assertThat(rows.get(1).get(2), nullValue());
+  }
+
+}
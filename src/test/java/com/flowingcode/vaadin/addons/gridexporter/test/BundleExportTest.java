@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.provider.DataProvider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BundleExportTest {
+
+  private static final List<String> ITEMS =
+      IntStream.range(0, 50).mapToObj(i -> "item" + i).collect(Collectors.toList());
+
+  private final AtomicInteger fetchCount = new AtomicInteger();
+  private final AtomicInteger executedTasks = new AtomicInteger();
+  private GridExporter<String> exporter;
+
+  @Before
+  public void before() {
+    Grid<String> grid = new Grid<>();
+    grid.addColumn(s -> s).setKey("value").setHeader("Value");
+    grid.addColumn(String::length).setKey("length").setHeader("Length");
+    grid.setItems(DataProvider.fromCallbacks(query -> {
+      fetchCount.incrementAndGet();
+      return ITEMS.stream().skip(query.getOffset()).limit(query.getLimit());
+    }, query -> ITEMS.size()));
+    exporter = GridExporter.createFor(grid);
+    exporter.setFileName("export");
+    exporter.setValueExtractionExecutor(task -> {
+      executedTasks.incrementAndGet();
+      new Thread(task).start();
+    });
+  }
+
+  /** Returns the content of each entry in the archive. */
+  private Map<String, byte[]> exportBundle(ExportFormat... formats) throws IOException {
+    byte[] content = new MockDownloadRequest(GridExporterTestSupport.createSession())
+        .handle(exporter.getBundleDownloadHandler(formats)).getBody();
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(content))) {
+      for (ZipEntry entry; (entry = zip.getNextEntry()) != null;) {
+        entries.put(entry.getName(), zip.readAllBytes());
+      }
+    }
+    return entries;
+  }
+
+  private static List<List<String>> readCsv(byte[] content) {
+    String text = new String(content, StandardCharsets.UTF_8).replace("\uFEFF", "");
+    return Arrays.stream(text.split("\n")).skip(1)
+        .map(line -> Arrays.asList(line.replace("\"", "").split(",")))
+        .collect(Collectors.toList());
+  }
+
+  private static List<List<String>> readJsonLines(byte[] content) {
+    Pattern pattern = Pattern.compile("\\{\"value\":\"([^\"]*)\",\"length\":\"(\\d+)\"\\}");
+    List<List<String>> rows = new ArrayList<>();
+    for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+      Matcher matcher = pattern.matcher(line);
+      assertThat(line, matcher.matches(), equalTo(true));
+      rows.add(List.of(matcher.group(1), matcher.group(2)));
+    }
+    return rows;
+  }
+
+  private static List<List<String>> readExcel(byte[] content) throws IOException {
+    try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(content))) {
+      Sheet sheet = workbook.getSheetAt(0);
+      List<List<String>> rows = new ArrayList<>();
+      for (Row row : sheet) {
+        // skip the title, the headers and the footers of the template
+        if (row.getCell(0) != null && row.getCell(0).getStringCellValue().startsWith("item")) {
+          String length = row.getCell(1).toString().replaceAll("\\.0$", "");
+          rows.add(List.of(row.getCell(0).getStringCellValue(), length));
+        }
+      }
+      return rows;
+    }
+  }
+
+  @Test
+  public void testAllFormatsHaveTheSameRows() throws IOException {
+    Map<String, byte[]> entries =
+        exportBundle(ExportFormat.CSV, ExportFormat.JSON_LINES, ExportFormat.EXCEL);
+    assertThat(List.copyOf(entries.keySet()),
+        equalTo(List.of("export.csv", "export.jsonl", "export.xlsx")));
+
+    List<List<String>> expected = ITEMS.stream()
+        .map(item -> List.of(item, Integer.toString(item.length())))
+        .collect(Collectors.toList());
+    assertThat(readCsv(entries.get("export.csv")), equalTo(expected));
+    assertThat(readJsonLines(entries.get("export.jsonl")), equalTo(expected));
+    assertThat(readExcel(entries.get("export.xlsx")), equalTo(expected));
+  }
+
+  @Test
+  public void testDataIsFetchedOnce() throws IOException {
+    exportBundle(ExportFormat.CSV, ExportFormat.JSON_LINES, ExportFormat.EXCEL);
+    assertThat(fetchCount.get(), equalTo(1));
+  }
+
+  @Test
+  public void testDocumentsAreWrittenOnTheValueExtractionExecutor() throws IOException {
+    exportBundle(ExportFormat.CSV, ExportFormat.JSON_LINES, ExportFormat.EXCEL);
+    // the first document is written into the archive by the calling thread
+    assertThat(executedTasks.get(), equalTo(2));
+  }
+
+}
@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import com.flowingcode.vaadin.addons.gridexporter.DeltaExportEvent;
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExportQuery;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.flowingcode.vaadin.addons.gridexporter.RowLimitPolicy;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeltaExportTest {
+
+  private static class Item {
+    private final String name;
+    private Integer version;
+
+    Item(String name, Integer version) {
+      this.name = name;
+      this.version = version;
+    }
+  }
+
+  private List<Item> items;
+  private Grid<Item> grid;
+  private GridExporter<Item> exporter;
+  private VaadinSession session;
+  private final List<DeltaExportEvent> events = new ArrayList<>();
+
+  @Before
+  public void before() {
+    items = new ArrayList<>(List.of(new Item("a", 3), new Item("b", 1), new Item("c", 5),
+        new Item("d", 2), new Item("e", 4)));
+    grid = new Grid<>();
+    grid.addColumn(item -> item.name).setHeader("Name");
+    grid.setItems(items);
+    exporter = GridExporter.createFor(grid);
+    exporter.setDeltaVersionProvider(item -> item.version);
+    exporter.addDeltaExportListener(events::add);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  /** Exports the grid, and returns the exported rows without the headers. */
+  private List<String> export() throws IOException {
+    String csv = new MockDownloadRequest(session).handle(exporter.getCsvDownloadHandler())
+        .getBodyAsString().replace("\uFEFF", "");
+    return Arrays.stream(csv.split("\n")).skip(1).map(line -> line.replace("\"", ""))
+        .collect(Collectors.toList());
+  }
+
+  private DeltaExportEvent lastEvent() {
+    return events.get(events.size() - 1);
+  }
+
+  @Test
+  public void testTokenAdvances() throws IOException {
+    assertThat(export(), contains("a", "b", "c", "d", "e"));
+    assertThat(lastEvent().getPreviousToken(), nullValue());
+    assertThat(lastEvent().getToken(), equalTo(5));
+    assertThat(lastEvent().getRowCount(), equalTo(5L));
+
+    exporter.setDeltaToken(lastEvent().getToken());
+    items.get(1).version = 6;
+    items.get(3).version = 7;
+    assertThat(export(), contains("b", "d"));
+    assertThat(lastEvent().getPreviousToken(), equalTo(5));
+    assertThat(lastEvent().getToken(), equalTo(7));
+    assertThat(lastEvent().getRowCount(), equalTo(2L));
+
+    exporter.setDeltaToken(lastEvent().getToken());
+    assertThat(export(), empty());
+    assertThat(lastEvent().getToken(), equalTo(7));
+    assertThat(lastEvent().getRowCount(), equalTo(0L));
+  }
+
+  @Test
+  public void testItemsWithoutVersionAreAlwaysExported() throws IOException {
+    items.get(0).version = null;
+    exporter.setDeltaToken(5);
+    assertThat(export(), contains("a"));
+    assertThat(lastEvent().getToken(), equalTo(5));
+  }
+
+  @Test
+  public void testTruncatedExportKeepsToken() throws IOException {
+    exporter.setRowLimitPolicy(RowLimitPolicy.TRUNCATE);
+    exporter.setMaxRowCount(ExportFormat.CSV, 2);
+    exporter.setDeltaToken(1);
+
+    // the rows that were not written must be exported again by the next delta export
+    List<String> rows = export();
+    assertThat(rows, hasSize(3));
+    assertThat(rows.subList(0, 2), contains("a", "c"));
+    assertThat(lastEvent().getPreviousToken(), equalTo(1));
+    assertThat(lastEvent().getToken(), equalTo(1));
+    assertThat(lastEvent().getRowCount(), equalTo(2L));
+
+    exporter.setMaxRowCount(ExportFormat.CSV, Integer.MAX_VALUE);
+    exporter.setDeltaToken(lastEvent().getToken());
+    assertThat(export(), contains("a", "c", "d", "e"));
+    assertThat(lastEvent().getToken(), equalTo(5));
+  }
+
+  @Test
+  public void testBackendReceivesDeltaToken() throws IOException {
+    List<Object> tokens = new ArrayList<>();
+    grid.setItems(query -> {
+      GridExportQuery<?, ?> exportQuery = (GridExportQuery<?, ?>) query;
+      tokens.add(exportQuery.getDeltaToken());
+      // the backend fetches only the items that changed since the token
+      return items.stream()
+          .filter(item -> exportQuery.getDeltaToken() == null
+              || item.version > (Integer) exportQuery.getDeltaToken())
+          .skip(query.getOffset()).limit(query.getLimit());
+    }, query -> items.size());
+
+    exporter.setDeltaToken(3);
+    assertThat(export(), contains("c", "e"));
+    assertThat(tokens, contains(3));
+    assertThat(lastEvent().getToken(), equalTo(5));
+  }
+
+}
@@ -0,0 +1,121 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.flowingcode.vaadin.addons.gridexporter.Person;
+import com.vaadin.flow.component.grid.Grid;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the placement of a template trailer that spans multiple rows (the footers, a row with an
+ * additional placeholder and a merged row) after the data rows.
+ */
+public class ExcelTemplateFooterTest {
+
+  private static final int ROWS = 5;
+
+  private XSSFSheet export() throws IOException {
+    Grid<Person> grid = new Grid<>();
+    grid.addColumn(Person::getName).setHeader("Name").setFooter("Total");
+    grid.addColumn(Person::getAge).setHeader("Age").setFooter(Integer.toString(ROWS));
+    grid.setItems(IntStream.range(0, ROWS)
+        .mapToObj(i -> new Person("Name " + i, "Last name " + i, 20 + i, 0.0))
+        .collect(Collectors.toList()));
+
+    GridExporter<Person> exporter = GridExporter.createFor(grid,
+        "/multi-row-footer-template.xlsx", "/custom-template.docx");
+    exporter.setTitle("People");
+    exporter.setAutoSizeColumns(false);
+    exporter.setAdditionalPlaceHolders(Map.of("${author}", "Flowing Code"));
+    byte[] content = GridExporterTestSupport.export(exporter, ExportFormat.EXCEL,
+        GridExporterTestSupport.createSession());
+    XSSFWorkbook wb = (XSSFWorkbook) WorkbookFactory.create(new ByteArrayInputStream(content));
+    return wb.getSheetAt(0);
+  }
+
+  private static XSSFCell cell(XSSFSheet sheet, int row, int column) {
+    return sheet.getRow(row).getCell(column);
+  }
+
+  private static String fill(XSSFCell cell) {
+    return cell.getCellStyle().getFillForegroundXSSFColor().getARGBHex();
+  }
+
+  @Test
+  public void testFooterRowsFollowTheData() throws IOException {
+    XSSFSheet sheet = export();
+    int footersRow = 2 + ROWS;
+
+    Assert.assertEquals("Name " + (ROWS - 1), cell(sheet, footersRow - 1, 0).getStringCellValue());
+    Assert.assertEquals("Total", cell(sheet, footersRow, 0).getStringCellValue());
+    Assert.assertEquals("Generated by", cell(sheet, footersRow + 1, 0).getStringCellValue());
+    Assert.assertEquals("Flowing Code", cell(sheet, footersRow + 1, 1).getStringCellValue());
+    Assert.assertEquals("End of report", cell(sheet, footersRow + 2, 0).getStringCellValue());
+    Assert.assertEquals(footersRow + 2, sheet.getLastRowNum());
+  }
+
+  @Test
+  public void testFooterRowsKeepTheirStyles() throws IOException {
+    XSSFSheet sheet = export();
+    int footersRow = 2 + ROWS;
+
+    XSSFCell footer = cell(sheet, footersRow, 0);
+    Assert.assertTrue(footer.getCellStyle().getFont().getItalic());
+    Assert.assertEquals("FFDDDDDD", fill(footer));
+    Assert.assertEquals("FFDDDDDD", fill(cell(sheet, footersRow, 1)));
+
+    XSSFCellStyle label = cell(sheet, footersRow + 1, 0).getCellStyle();
+    Assert.assertTrue(label.getFont().getBold());
+    Assert.assertEquals("FFCCCCCC", label.getFillForegroundXSSFColor().getARGBHex());
+    Assert.assertEquals("FFEEEEEE", fill(cell(sheet, footersRow + 1, 1)));
+
+    XSSFCellStyle end = cell(sheet, footersRow + 2, 0).getCellStyle();
+    Assert.assertTrue(end.getFont().getBold());
+    Assert.assertEquals(12, end.getFont().getFontHeightInPoints());
+    Assert.assertEquals(20, sheet.getRow(footersRow + 2).getHeightInPoints(), 0);
+  }
+
+  @Test
+  public void testMergedRegionsFollowTheData() throws IOException {
+    XSSFSheet sheet = export();
+    int endRow = 4 + ROWS;
+
+    Assert.assertEquals(
+        List.of(new CellRangeAddress(0, 0, 0, 1), new CellRangeAddress(endRow, endRow, 0, 1)),
+        sheet.getMergedRegions());
+  }
+
+}
@@ -0,0 +1,135 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.flowingcode.vaadin.addons.gridexporter.Person;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.component.grid.HeaderRow;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExcelTemplateTest {
+
+  private Grid<Person> grid;
+  private Column<Person> nameColumn;
+  private Column<Person> lastNameColumn;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    nameColumn = grid.addColumn(Person::getName).setHeader("Name").setFooter("Total");
+    lastNameColumn = grid.addColumn(Person::getLastName).setHeader("Last Name");
+    grid.setItems(List.of(new Person("Ann", "Smith", 30, 100.0),
+        new Person("Bob", "Jones", 40, 200.0),
+        new Person("Cid", "Brown", 50, 300.0)));
+  }
+
+  private Sheet export(GridExporter<Person> exporter) throws IOException {
+    exporter.setAutoSizeColumns(false);
+    byte[] content = GridExporterTestSupport.export(exporter, ExportFormat.EXCEL,
+        GridExporterTestSupport.createSession());
+    Workbook wb = WorkbookFactory.create(new ByteArrayInputStream(content));
+    return wb.getSheetAt(exporter.getSheetNumber());
+  }
+
+  private static String text(Sheet sheet, int row, int column) {
+    Cell cell = sheet.getRow(row).getCell(column);
+    return cell == null ? null : cell.getStringCellValue();
+  }
+
+  @Test
+  public void testDefaultTemplate() throws IOException {
+    GridExporter<Person> exporter = GridExporter.createFor(grid);
+    exporter.setTitle("People");
+    Sheet sheet = export(exporter);
+
+    Assert.assertEquals("People", text(sheet, 0, 0));
+    Assert.assertEquals("Name", text(sheet, 1, 0));
+    Assert.assertEquals("Last Name", text(sheet, 1, 1));
+    Assert.assertEquals("Ann", text(sheet, 2, 0));
+    Assert.assertEquals("Smith", text(sheet, 2, 1));
+    Assert.assertEquals("Cid", text(sheet, 4, 0));
+    Assert.assertEquals("Brown", text(sheet, 4, 1));
+    Assert.assertEquals("Total", text(sheet, 5, 0));
+    Assert.assertEquals(5, sheet.getLastRowNum());
+    Assert.assertEquals(List.of(new CellRangeAddress(0, 0, 0, 1)), sheet.getMergedRegions());
+  }
+
+  @Test
+  public void testCustomTemplateWithPlaceholders() throws IOException {
+    GridExporter<Person> exporter =
+        GridExporter.createFor(grid, "/custom-template.xlsx", "/custom-template.docx");
+    exporter.setSheetNumber(1);
+    exporter.setTitle("People");
+    exporter.setAdditionalPlaceHolders(Map.of("${date}", "2024-01-01"));
+    Sheet sheet = export(exporter);
+
+    // the template has the title on B3 and the data on B5
+    Assert.assertEquals("People", text(sheet, 2, 1));
+    Assert.assertEquals("Name", text(sheet, 3, 1));
+    Assert.assertEquals("Ann", text(sheet, 4, 1));
+    Assert.assertEquals("Cid", text(sheet, 6, 1));
+    Assert.assertEquals("Total", text(sheet, 7, 1));
+
+    // the rows below the footers are moved down by the extra data rows, and the additional
+    // placeholders are replaced after they are moved
+    Assert.assertEquals("Report generation date:", text(sheet, 10, 0));
+    Assert.assertEquals("2024-01-01", text(sheet, 10, 1));
+  }
+
+  @Test
+  public void testMergedHeaderRegions() throws IOException {
+    HeaderRow joinedHeaderRow = grid.prependHeaderRow();
+    joinedHeaderRow.join(nameColumn, lastNameColumn).setText("Full name");
+    GridExporter<Person> exporter = GridExporter.createFor(grid);
+    exporter.setTitle("People");
+    Sheet sheet = export(exporter);
+
+    Assert.assertEquals("People", text(sheet, 0, 0));
+    Assert.assertEquals("Full name", text(sheet, 1, 0));
+    Assert.assertEquals("", text(sheet, 1, 1));
+    Assert.assertEquals("Name", text(sheet, 2, 0));
+    Assert.assertEquals("Last Name", text(sheet, 2, 1));
+
+    // the data row and the footers are moved down by the extra header row
+    Assert.assertEquals("Ann", text(sheet, 3, 0));
+    Assert.assertEquals("Cid", text(sheet, 5, 0));
+    Assert.assertEquals("Total", text(sheet, 6, 0));
+    Assert.assertEquals(6, sheet.getLastRowNum());
+
+    // the title is merged across the columns
+    Assert.assertEquals(List.of(new CellRangeAddress(0, 0, 0, 1)), sheet.getMergedRegions());
+  }
+
+}
@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.server.VaadinSession;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExportCacheKeyTest {
+
+  private Grid<String> grid;
+  private ListDataProvider<String> dataProvider;
+  private GridExporter<String> exporter;
+  private VaadinSession session;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.addColumn(s -> s).setKey("value").setHeader("Value");
+    dataProvider = new ListDataProvider<>(new ArrayList<>(List.of("a", "b", "c")));
+    grid.setItems(dataProvider);
+    exporter = GridExporter.createFor(grid);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  private Object createCacheKey() {
+    return GridExporterTestSupport.createCacheKey(exporter, session, "csv");
+  }
+
+  @Test
+  public void testSameConfigurationIsCacheHit() {
+    Assert.assertEquals(createCacheKey(), createCacheKey());
+  }
+
+  @Test
+  public void testFilterChangeIsCacheMiss() {
+    Object key = createCacheKey();
+    grid.getListDataView().setFilter(s -> !s.equals("b"));
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testProviderFilterChangeIsCacheMiss() {
+    Object key = createCacheKey();
+    dataProvider.setFilter(s -> !s.equals("b"));
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testSortOrderChangeIsCacheMiss() {
+    Object key = createCacheKey();
+    grid.getListDataView().setSortOrder(s -> s, SortDirection.DESCENDING);
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testTitleChangeIsCacheMiss() {
+    Object key = createCacheKey();
+    exporter.setTitle("Report");
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testMaxRowsChangeIsCacheMiss() {
+    Object key = createCacheKey();
+    exporter.setMaxRowCount(ExportFormat.CSV, 1);
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testHeaderChangeIsCacheMiss() {
+    Object key = createCacheKey();
+    grid.getColumns().get(0).setHeader("Other");
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testHeaderRowChangeIsCacheMiss() {
+    grid.prependHeaderRow();
+    Object key = createCacheKey();
+    grid.getHeaderRows().get(0).getCell(grid.getColumns().get(0)).setText("Group");
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testFooterChangeIsCacheMiss() {
+    Object key = createCacheKey();
+    grid.getColumns().get(0).setFooter("Total");
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+  @Test
+  public void testLocaleChangeIsCacheMiss() {
+    exporter.setAutoAttachExportButtons(false);
+    UI ui = new UI();
+    ui.setLocale(Locale.ENGLISH);
+    ui.add(grid);
+    Object key = createCacheKey();
+    ui.setLocale(Locale.GERMAN);
+    Assert.assertNotEquals(key, createCacheKey());
+  }
+
+}
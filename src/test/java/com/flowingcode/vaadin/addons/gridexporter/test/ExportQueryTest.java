@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import com.flowingcode.vaadin.addons.gridexporter.ExportScope;
+import com.flowingcode.vaadin.addons.gridexporter.GridExportQuery;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.component.grid.GridSortOrder;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExportQueryTest {
+
+  private static final List<String> ITEMS =
+      IntStream.range(0, 30).mapToObj(i -> String.format("item%02d", i))
+          .collect(Collectors.toList());
+
+  private Grid<String> grid;
+  private Column<String> column;
+  private GridExporter<String> exporter;
+  private VaadinSession session;
+
+  private final List<Query<String, ?>> queries = new ArrayList<>();
+  private final AtomicInteger closedStreams = new AtomicInteger();
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    column = grid.addColumn(s -> s).setKey("value").setHeader("Value").setSortProperty("value");
+    exporter = GridExporter.createFor(grid);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  private Stream<String> fetch(Query<String, ?> query) {
+    queries.add(query);
+    Optional<?> filter = query.getFilter();
+    Stream<String> items = ITEMS.stream()
+        .filter(s -> filter.map(f -> s.contains((String) f)).orElse(true));
+    if (!query.getSortOrders().isEmpty()
+        && query.getSortOrders().get(0).getDirection() == SortDirection.DESCENDING) {
+      items = items.sorted((a, b) -> b.compareTo(a));
+    }
+    return items.skip(query.getOffset()).limit(query.getLimit())
+        .onClose(closedStreams::incrementAndGet);
+  }
+
+  /** Returns the exported rows, without the headers. */
+  private List<String> export() throws IOException {
+    String csv = new MockDownloadRequest(session).handle(exporter.getCsvDownloadHandler())
+        .getBodyAsString().replace("\uFEFF", "");
+    return Arrays.stream(csv.split("\n")).skip(1).map(line -> line.replace("\"", ""))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testLazyGridIsFetchedWithSingleExportQuery() throws IOException {
+    grid.setItems(this::fetch, query -> ITEMS.size());
+    grid.sort(GridSortOrder.desc(column).build());
+
+    List<String> rows = export();
+    assertThat(rows, hasSize(ITEMS.size()));
+    assertThat(rows.get(0), equalTo("item29"));
+
+    assertThat(queries, hasSize(1));
+    assertThat(queries.get(0), instanceOf(GridExportQuery.class));
+    GridExportQuery<?, ?> query = (GridExportQuery<?, ?>) queries.get(0);
+    assertThat(query.getOffset(), equalTo(0));
+    assertThat(query.getLimit(), equalTo(Integer.MAX_VALUE));
+    assertThat(query.isCountSkippable(), equalTo(true));
+    assertThat(query.getSortOrders().stream().map(QuerySortOrder::getSorted)
+        .collect(Collectors.toList()), contains("value"));
+    assertThat(closedStreams.get(), equalTo(1));
+  }
+
+  @Test
+  public void testExportQueryHasFilterOfGrid() throws IOException {
+    DataProvider<String, String> dataProvider =
+        DataProvider.fromFilteringCallbacks(this::fetch, query -> ITEMS.size());
+    grid.getDataCommunicator().setDataProvider(dataProvider, "1");
+
+    assertThat(export(), contains("item01", "item10", "item11", "item12", "item13", "item14",
+        "item15", "item16", "item17", "item18", "item19", "item21"));
+    assertThat(queries.get(0).getFilter(), equalTo(Optional.of("1")));
+  }
+
+  @Test
+  public void testAllScopeExportQueryHasNoFilter() throws IOException {
+    DataProvider<String, String> dataProvider =
+        DataProvider.fromFilteringCallbacks(this::fetch, query -> ITEMS.size());
+    grid.getDataCommunicator().setDataProvider(dataProvider, "1");
+    exporter.setExportScope(ExportScope.ALL);
+
+    assertThat(export(), equalTo(ITEMS));
+    assertThat(queries, hasSize(1));
+    assertThat(queries.get(0).getFilter().isPresent(), equalTo(false));
+  }
+
+  @Test
+  public void testLazyGridReceivesRequiredProperties() throws IOException {
+    Column<String> length = grid.addColumn(String::length).setKey("length").setHeader("Length");
+    exporter.setExportProperties(length, "value", "size");
+    Column<String> hidden = grid.addColumn(s -> "").setKey("hidden");
+    exporter.setExportColumn(hidden, false);
+    grid.setItems(this::fetch, query -> ITEMS.size());
+
+    assertThat(export(), hasSize(ITEMS.size()));
+    GridExportQuery<?, ?> query = (GridExportQuery<?, ?>) queries.get(0);
+    assertThat(query.getRequiredProperties(), equalTo(Optional.of(List.of("value", "size"))));
+  }
+
+  @Test
+  public void testRequiredPropertiesOfColumnWithoutKeyAreUnknown() throws IOException {
+    grid.addColumn(String::length).setHeader("Length");
+    grid.setItems(this::fetch, query -> ITEMS.size());
+
+    assertThat(export(), hasSize(ITEMS.size()));
+    GridExportQuery<?, ?> query = (GridExportQuery<?, ?>) queries.get(0);
+    assertThat(query.getRequiredProperties(), equalTo(Optional.empty()));
+  }
+
+}
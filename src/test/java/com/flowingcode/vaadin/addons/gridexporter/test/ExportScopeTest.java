@@ -0,0 +1,107 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.ExportScope;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.SortDirection;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExportScopeTest {
+
+  private Grid<String> grid;
+  private ListDataProvider<String> dataProvider;
+  private GridExporter<String> exporter;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.addColumn(s -> s).setHeader("Value");
+    dataProvider = new ListDataProvider<>(new ArrayList<>(List.of("a", "b", "c", "d")));
+    grid.setItems(dataProvider);
+    exporter = GridExporter.createFor(grid);
+  }
+
+  /** Returns the exported rows, without the headers. */
+  private List<String> export() throws IOException {
+    String csv = new String(GridExporterTestSupport.export(exporter, ExportFormat.CSV,
+        GridExporterTestSupport.createSession()), StandardCharsets.UTF_8).replace("\uFEFF", "");
+    return Arrays.stream(csv.split("\n")).skip(1).map(line -> line.replace("\"", ""))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testFilteredScopeAppliesProviderFilter() throws IOException {
+    dataProvider.setFilter(s -> !s.equals("b"));
+    Assert.assertEquals(List.of("a", "c", "d"), export());
+  }
+
+  @Test
+  public void testAllScopeIgnoresProviderFilter() throws IOException {
+    dataProvider.setFilter(s -> !s.equals("b"));
+    exporter.setExportScope(ExportScope.ALL);
+    Assert.assertEquals(List.of("a", "b", "c", "d"), export());
+  }
+
+  @Test
+  public void testAllScopeIgnoresListDataViewFilter() throws IOException {
+    grid.getListDataView().setFilter(s -> s.compareTo("c") < 0);
+    exporter.setExportScope(ExportScope.ALL);
+    Assert.assertEquals(List.of("a", "b", "c", "d"), export());
+  }
+
+  @Test
+  public void testAllScopeKeepsSortOrder() throws IOException {
+    dataProvider.setFilter(s -> !s.equals("b"));
+    dataProvider.setSortOrder(s -> s, SortDirection.DESCENDING);
+    exporter.setExportScope(ExportScope.ALL);
+    Assert.assertEquals(List.of("d", "c", "b", "a"), export());
+  }
+
+  @Test
+  public void testAllScopeWithoutCountCallback() throws IOException {
+    // the items are fetched without sizing them, since the provider cannot count them
+    grid.setItems(query -> Stream.of("a", "b", "c", "d")
+        .skip(query.getOffset()).limit(query.getLimit()));
+    exporter.setExportScope(ExportScope.ALL);
+    Assert.assertEquals(List.of("a", "b", "c", "d"), export());
+  }
+
+  @Test
+  public void testFilteredScopeWithoutCountCallback() throws IOException {
+    grid.setItems(query -> Stream.of("a", "b", "c", "d")
+        .skip(query.getOffset()).limit(query.getLimit()));
+    Assert.assertEquals(List.of("a", "b", "c", "d"), export());
+  }
+
+}
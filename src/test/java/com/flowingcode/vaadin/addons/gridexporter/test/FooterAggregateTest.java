@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import com.flowingcode.vaadin.addons.gridexporter.ColumnAggregate;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FooterAggregateTest {
+
+  private Grid<Integer> grid;
+  private GridExporter<Integer> exporter;
+  private VaadinSession session;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    exporter = GridExporter.createFor(grid);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  private void setItems(int count) {
+    grid.setItems(IntStream.rangeClosed(1, count).boxed().collect(Collectors.toList()));
+  }
+
+  private List<String> exportFooters() throws IOException {
+    String[] lines = new MockDownloadRequest(session).handle(exporter.getCsvDownloadHandler())
+        .getBodyAsString().split("\n");
+    return Arrays.stream(lines[lines.length - 1].trim().split(","))
+        .map(s -> s.replace("\"", ""))
+        .collect(Collectors.toList());
+  }
+
+  private Column<Integer> addColumn(ColumnAggregate aggregate) {
+    Column<Integer> column = grid.addColumn(i -> i).setHeader(aggregate.name());
+    exporter.setFooterAggregate(column, aggregate);
+    return column;
+  }
+
+  @Test
+  public void testAggregates() throws IOException {
+    for (ColumnAggregate aggregate : ColumnAggregate.values()) {
+      addColumn(aggregate);
+    }
+    setItems(10);
+    assertThat(exportFooters(), contains("55", "5.5", "1", "10", "10", "10"));
+  }
+
+  @Test
+  public void testNullValuesAreSkipped() throws IOException {
+    for (ColumnAggregate aggregate : ColumnAggregate.values()) {
+      Column<Integer> column = grid.addColumn(i -> i % 2 == 0 ? null : i)
+          .setHeader(aggregate.name());
+      exporter.setFooterAggregate(column, aggregate);
+    }
+    setItems(10);
+    assertThat(exportFooters(), contains("25", "5", "1", "9", "5", "5"));
+  }
+
+  @Test
+  public void testNoValues() throws IOException {
+    addColumn(ColumnAggregate.SUM);
+    exporter.setFooterAggregate(addColumn(ColumnAggregate.AVG), ColumnAggregate.AVG,
+        String::valueOf);
+    addColumn(ColumnAggregate.COUNT);
+    setItems(0);
+    assertThat(exportFooters(), contains("0", "null", "0"));
+  }
+
+  @Test
+  public void testParsingFormat() throws IOException {
+    DecimalFormat format = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.US));
+    Column<Integer> sum = grid.addColumn(i -> format.format(i * 1000)).setHeader("Sum");
+    Column<Integer> count =
+        grid.addColumn(i -> format.format(i * 1000)).setHeader("Count");
+    exporter.setNumberColumnFormat(sum, format, "0.00");
+    exporter.setNumberColumnFormat(count, format, "0.00");
+    exporter.setFooterAggregate(sum, ColumnAggregate.SUM);
+    exporter.setFooterAggregate(count, ColumnAggregate.COUNT);
+    setItems(4);
+    // the sum is formatted with the parsing format, but the count is not
+    assertThat(exportFooters(), contains("10000.00", "4"));
+  }
+
+  @Test
+  public void testFormatter() throws IOException {
+    Column<Integer> column = grid.addColumn(i -> i).setHeader("Max");
+    exporter.setFooterAggregate(column, ColumnAggregate.MAX, max -> "max " + max);
+    setItems(3);
+    assertThat(exportFooters(), contains("max 3"));
+  }
+
+  @Test
+  public void testDistinctCountOfDuplicates() throws IOException {
+    Column<Integer> column = grid.addColumn(i -> "value" + i % 1000).setHeader("Value");
+    exporter.setFooterAggregate(column, ColumnAggregate.DISTINCT_COUNT);
+    setItems(20000);
+    double estimate = Double.parseDouble(exportFooters().get(0));
+    assertThat(estimate, closeTo(1000, 1000 * 0.025));
+  }
+
+  @Test
+  public void testDistinctCountErrorBound() throws IOException {
+    Column<Integer> column = grid.addColumn(i -> "value" + i).setHeader("Value");
+    exporter.setFooterAggregate(column, ColumnAggregate.DISTINCT_COUNT);
+    setItems(200000);
+    // the standard error with 2^14 registers is 1.04 / 128 (about 0.8%)
+    double estimate = Double.parseDouble(exportFooters().get(0));
+    assertThat(estimate, closeTo(200000, 200000 * 0.025));
+  }
+
+}
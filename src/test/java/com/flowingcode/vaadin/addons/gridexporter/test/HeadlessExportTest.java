@@ -0,0 +1,197 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExportQuery;
+import com.flowingcode.vaadin.addons.gridexporter.HeadlessGridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.Person;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.hierarchy.TreeData;
+import com.vaadin.flow.data.provider.hierarchy.TreeDataProvider;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HeadlessExportTest {
+
+  private static final List<Person> PEOPLE = List.of(new Person("Ann", "Smith", 30, 100.0),
+      new Person("Bob", "Jones", 40, 200.0), new Person("Cid", "Brown", 50, 300.0));
+
+  private HeadlessGridExporter<Person> exporter;
+
+  @Before
+  public void before() {
+    exporter = HeadlessGridExporter.create(Person.class);
+    exporter.addColumn(Person::getName, "Name");
+    exporter.addColumn("lastName").setHeader("Last Name");
+  }
+
+  /** Returns the lines of a CSV export, without quotes. */
+  private static List<String> lines(ByteArrayOutputStream out) {
+    return Arrays.stream(out.toString(StandardCharsets.UTF_8).replace("\uFEFF", "").split("\n"))
+        .map(line -> line.replace("\"", "")).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testExportStream() throws IOException {
+    assertThat(VaadinSession.getCurrent(), nullValue());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exporter.export(ExportFormat.CSV, PEOPLE.stream(), out);
+    assertThat(lines(out),
+        equalTo(List.of("Name,Last Name", "Ann,Smith", "Bob,Jones", "Cid,Brown")));
+  }
+
+  @Test
+  public void testExportDataProvider() throws IOException {
+    AtomicReference<Query<Person, Void>> query = new AtomicReference<>();
+    AtomicBoolean closed = new AtomicBoolean();
+    DataProvider<Person, Void> dataProvider = DataProvider.fromCallbacks(q -> {
+      query.set(q);
+      return PEOPLE.stream().skip(q.getOffset()).limit(q.getLimit())
+          .onClose(() -> closed.set(true));
+    }, q -> PEOPLE.size());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exporter.export(ExportFormat.CSV, dataProvider, out);
+    assertThat(lines(out),
+        equalTo(List.of("Name,Last Name", "Ann,Smith", "Bob,Jones", "Cid,Brown")));
+    assertThat(query.get(), instanceOf(GridExportQuery.class));
+    assertThat(closed.get(), equalTo(true));
+  }
+
+  @Test
+  public void testExportHierarchicalDataProvider() throws IOException {
+    TreeData<Person> data = new TreeData<>();
+    data.addItem(null, PEOPLE.get(0));
+    data.addItem(PEOPLE.get(0), PEOPLE.get(1));
+    data.addItem(null, PEOPLE.get(2));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exporter.export(ExportFormat.CSV, new TreeDataProvider<>(data), out);
+    assertThat(lines(out),
+        equalTo(List.of("Name,Last Name", "Ann,Smith", "Bob,Jones", "Cid,Brown")));
+  }
+
+  @Test
+  public void testExportPublisher() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (SubmissionPublisher<Person> publisher = new SubmissionPublisher<>()) {
+      new Thread(() -> {
+        // items submitted before the export subscribes would be dropped
+        while (publisher.getNumberOfSubscribers() == 0) {
+          Thread.onSpinWait();
+        }
+        PEOPLE.forEach(publisher::submit);
+        publisher.close();
+      }).start();
+      exporter.export(ExportFormat.CSV, publisher, out);
+    }
+    assertThat(lines(out),
+        equalTo(List.of("Name,Last Name", "Ann,Smith", "Bob,Jones", "Cid,Brown")));
+  }
+
+  @Test
+  public void testExportExcelFile() throws IOException {
+    exporter.getExporter().setTitle("People");
+    Path path = Files.createTempFile("headless", ".xlsx");
+    try {
+      exporter.export(ExportFormat.EXCEL, PEOPLE.stream(), path);
+      try (InputStream in = Files.newInputStream(path);
+          Workbook workbook = WorkbookFactory.create(in)) {
+        Sheet sheet = workbook.getSheetAt(0);
+        assertThat(sheet.getRow(0).getCell(0).getStringCellValue(), equalTo("People"));
+        assertThat(sheet.getRow(1).getCell(1).getStringCellValue(), equalTo("Last Name"));
+        assertThat(sheet.getRow(2).getCell(0).getStringCellValue(), equalTo("Ann"));
+        assertThat(sheet.getRow(4).getCell(1).getStringCellValue(), equalTo("Brown"));
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testExportsOnTheSameInstanceAreSerialized() throws Exception {
+    CountDownLatch firstStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirst = new CountDownLatch(1);
+    CountDownLatch secondStarted = new CountDownLatch(1);
+    ByteArrayOutputStream first = new ByteArrayOutputStream();
+    ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+    Thread thread = new Thread(() -> {
+      try {
+        exporter.export(ExportFormat.CSV, PEOPLE.stream().peek(person -> {
+          firstStarted.countDown();
+          try {
+            releaseFirst.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }), first);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    thread.start();
+    firstStarted.await();
+
+    Thread other = new Thread(() -> {
+      try {
+        exporter.export(ExportFormat.CSV,
+            Stream.of(PEOPLE.get(2)).peek(person -> secondStarted.countDown()), second);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    other.start();
+    assertThat(secondStarted.await(200, TimeUnit.MILLISECONDS), equalTo(false));
+
+    releaseFirst.countDown();
+    thread.join();
+    other.join();
+    assertThat(lines(first),
+        equalTo(List.of("Name,Last Name", "Ann,Smith", "Bob,Jones", "Cid,Brown")));
+    assertThat(lines(second), equalTo(List.of("Name,Last Name", "Cid,Brown")));
+  }
+
+}
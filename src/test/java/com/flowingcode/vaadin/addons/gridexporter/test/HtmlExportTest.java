@@ -0,0 +1,71 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HtmlExportTest {
+
+  private Grid<String> grid;
+  private GridExporter<String> exporter;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.addColumn(s -> s).setHeader("Name").setFooter("Total");
+    grid.addColumn(String::length).setHeader("Length").setFooter("6")
+        .setTextAlign(ColumnTextAlign.END);
+    grid.setItems(List.of("abc", "def"));
+    exporter = GridExporter.createFor(grid);
+  }
+
+  private String export() throws IOException {
+    return new String(GridExporterTestSupport.export(exporter, ExportFormat.HTML,
+        GridExporterTestSupport.createSession()), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testPlaceholdersInValuesAreNotExpanded() throws IOException {
+    exporter.setTitle("${headers} & ${footers}");
+    String html = export();
+    MatcherAssert.assertThat(html, Matchers.containsString("<h1>${headers} &amp; ${footers}</h1>"));
+    MatcherAssert.assertThat(html, Matchers.containsString("<td>abc</td>"));
+  }
+
+  @Test
+  public void testFootersAreAligned() throws IOException {
+    String html = export();
+    MatcherAssert.assertThat(html, Matchers.containsString("<td class=\"end\">3</td>"));
+    MatcherAssert.assertThat(html,
+        Matchers.containsString("<tfoot><tr><td>Total</td><td class=\"end\">6</td></tr></tfoot>"));
+  }
+
+}
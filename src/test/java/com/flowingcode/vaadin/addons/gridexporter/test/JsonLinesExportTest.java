@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsonLinesExportTest {
+
+  private Grid<String> grid;
+  private GridExporter<String> exporter;
+  private VaadinSession session;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.setItems(List.of("item"));
+    exporter = GridExporter.createFor(grid);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  private void addColumn(String key, ValueProvider<String, ?> value) {
+    Column<String> column = grid.addColumn(s -> "").setKey(key).setHeader(key);
+    exporter.setExportValue(column, value);
+  }
+
+  private String export() throws IOException {
+    return new MockDownloadRequest(session).handle(exporter.getJsonLinesDownloadHandler())
+        .getBodyAsString();
+  }
+
+  @Test
+  public void testEscaping() throws IOException {
+    addColumn("quotes", s -> "\"quoted\" \\ back");
+    addColumn("whitespace", s -> "a\nb\rc\td");
+    addColumn("control", s -> "\u0000\u0001\u001f\u007f");
+    addColumn("separators", s -> "line\u2028paragraph\u2029end");
+    addColumn("unicode", s -> "\u00E9\u4E2D\uD83D\uDE00");
+    addColumn("key \"with\" quotes", s -> "");
+
+    assertThat(export(), equalTo("{\"quotes\":\"\\\"quoted\\\" \\\\ back\","
+        + "\"whitespace\":\"a\\nb\\rc\\td\","
+        + "\"control\":\"\\u0000\\u0001\\u001f\u007f\","
+        + "\"separators\":\"line\\u2028paragraph\\u2029end\","
+        + "\"unicode\":\"\u00E9\u4E2D\uD83D\uDE00\","
+        + "\"key \\\"with\\\" quotes\":\"\"}\n"));
+  }
+
+  @Test
+  public void testNumbers() throws IOException {
+    addColumn("int", s -> 42);
+    addColumn("long", s -> -9007199254740993L);
+    addColumn("bigInteger", s -> new BigInteger("123456789012345678901234567890"));
+    addColumn("bigDecimal", s -> new BigDecimal("1.50E+3"));
+    addColumn("double", s -> 0.1);
+    addColumn("float", s -> 2.5f);
+    addColumn("nan", s -> Double.NaN);
+    addColumn("infinity", s -> Float.NEGATIVE_INFINITY);
+    addColumn("boolean", s -> true);
+    addColumn("null", s -> null);
+    addColumn("string", s -> "42");
+
+    assertThat(export(), equalTo("{\"int\":42,\"long\":-9007199254740993,"
+        + "\"bigInteger\":123456789012345678901234567890,\"bigDecimal\":1500,"
+        + "\"double\":0.1,\"float\":2.5,\"nan\":null,\"infinity\":null,"
+        + "\"boolean\":true,\"null\":null,\"string\":\"42\"}\n"));
+  }
+
+  @Test
+  public void testDates() throws IOException {
+    addColumn("localDate", s -> LocalDate.of(2024, 2, 29));
+    addColumn("localDateTime", s -> LocalDateTime.of(2024, 2, 29, 13, 45, 30));
+    addColumn("instant", s -> Instant.parse("2024-02-29T13:45:30Z"));
+    addColumn("zoned",
+        s -> ZonedDateTime.of(2024, 2, 29, 13, 45, 30, 0, ZoneOffset.ofHours(-3)));
+    addColumn("date", s -> Date.from(Instant.parse("2024-02-29T13:45:30Z")));
+    addColumn("sqlDate", s -> java.sql.Date.valueOf("2024-02-29"));
+    addColumn("sqlTime", s -> Time.valueOf("13:45:30"));
+    addColumn("sqlTimestamp", s -> Timestamp.from(Instant.parse("2024-02-29T13:45:30.5Z")));
+
+    assertThat(export(), equalTo("{\"localDate\":\"2024-02-29\","
+        + "\"localDateTime\":\"2024-02-29T13:45:30\","
+        + "\"instant\":\"2024-02-29T13:45:30Z\","
+        + "\"zoned\":\"2024-02-29T13:45:30-03:00\","
+        + "\"date\":\"2024-02-29T13:45:30Z\","
+        + "\"sqlDate\":\"2024-02-29\","
+        + "\"sqlTime\":\"13:45:30\","
+        + "\"sqlTimestamp\":\"2024-02-29T13:45:30.500Z\"}\n"));
+  }
+
+}
@@ -0,0 +1,175 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.flowingcode.vaadin.addons.gridexporter.KeysetPagination;
+import com.flowingcode.vaadin.addons.gridexporter.Person;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridSortOrder;
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeysetPaginationTest {
+
+  /** The sort key is not unique: the age (unique) breaks the ties of the last name. */
+  private static final Comparator<Person> KEY =
+      Comparator.comparing(Person::getLastName).thenComparing(Person::getAge);
+
+  /** 25 people that share 3 last names, so that the pages split runs of equal last names. */
+  private static final List<Person> PEOPLE = IntStream.range(0, 25)
+      .mapToObj(i -> new Person("name" + i, i % 3 == 0 ? "Brown" : i % 3 == 1 ? "Jones" : "Smith",
+          i, null))
+      .collect(Collectors.toList());
+
+  private Grid<Person> grid;
+  private GridExporter<Person> exporter;
+  private VaadinSession session;
+
+  private final List<Query<Person, ?>> queries = new ArrayList<>();
+  private final List<Person> lastItems = new ArrayList<>();
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.addColumn(Person::getLastName).setHeader("Last name").setSortProperty("lastName");
+    grid.addColumn(Person::getAge).setHeader("Age");
+    exporter = GridExporter.createFor(grid);
+    exporter.setExportPageSize(4);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  private Stream<Person> fetchAfter(Query<Person, ?> query, Person lastItem) {
+    queries.add(query);
+    lastItems.add(lastItem);
+    return PEOPLE.stream()
+        .filter(p -> lastItem == null || KEY.compare(p, lastItem) > 0)
+        .sorted(KEY)
+        .skip(query.getOffset())
+        .limit(query.getLimit());
+  }
+
+  private static String toRow(Person person) {
+    return person.getLastName() + "," + person.getAge();
+  }
+
+  /** Returns the exported rows, without the headers. */
+  private List<String> export() throws IOException {
+    String csv = new MockDownloadRequest(session).handle(exporter.getCsvDownloadHandler())
+        .getBodyAsString().replace("\uFEFF", "");
+    return Arrays.stream(csv.split("\n")).skip(1).map(line -> line.replace("\"", ""))
+        .filter(line -> !line.isBlank())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testPagesContinueFromTheLastItem() throws IOException {
+    grid.setItems(DataProvider.fromCallbacks(query -> {
+      throw new UnsupportedOperationException();
+    }, query -> {
+      throw new UnsupportedOperationException();
+    }));
+    exporter.setKeysetPagination(this::fetchAfter);
+
+    List<Person> sorted = PEOPLE.stream().sorted(KEY).collect(Collectors.toList());
+    assertThat(export(),
+        equalTo(sorted.stream().map(KeysetPaginationTest::toRow).collect(Collectors.toList())));
+
+    // 6 full pages and a page with the last item
+    assertThat(queries, hasSize(7));
+    assertThat(queries.stream().map(Query::getOffset).collect(Collectors.toList()),
+        everyItem(equalTo(0)));
+    assertThat(queries.stream().map(Query::getLimit).collect(Collectors.toList()),
+        everyItem(equalTo(4)));
+    assertThat(lastItems, contains(null, sorted.get(3), sorted.get(7), sorted.get(11),
+        sorted.get(15), sorted.get(19), sorted.get(23)));
+  }
+
+  @Test
+  public void testLastPageIsEmptyWhenTheItemsFillThePages() throws IOException {
+    grid.setItems(DataProvider.fromCallbacks(query -> {
+      throw new UnsupportedOperationException();
+    }, query -> {
+      throw new UnsupportedOperationException();
+    }));
+    exporter.setKeysetPagination(this::fetchAfter);
+    exporter.setExportPageSize(5);
+
+    assertThat(export(), hasSize(25));
+    assertThat(queries, hasSize(6));
+  }
+
+  @Test
+  public void testDataProviderWithKeysetPagination() throws IOException {
+    grid.setItems(new KeysetDataProvider());
+    grid.sort(GridSortOrder.desc(grid.getColumns().get(0)).build());
+
+    assertThat(export(), hasSize(25));
+    assertThat(queries, hasSize(7));
+    // the sort orders of the grid are passed to every page
+    for (Query<Person, ?> query : queries) {
+      assertThat(query.getSortOrders(), hasSize(1));
+      QuerySortOrder order = query.getSortOrders().get(0);
+      assertThat(order.getSorted(), equalTo("lastName"));
+      assertThat(order.getDirection(), equalTo(SortDirection.DESCENDING));
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private class KeysetDataProvider extends AbstractBackEndDataProvider<Person, Void>
+      implements KeysetPagination<Person, Void> {
+
+    @Override
+    public Stream<Person> fetchAfter(Query<Person, Void> query, Person lastItem) {
+      return KeysetPaginationTest.this.fetchAfter(query, lastItem);
+    }
+
+    @Override
+    protected Stream<Person> fetchFromBackEnd(Query<Person, Void> query) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected int sizeInBackEnd(Query<Person, Void> query) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.streams.DownloadEvent;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/** A download request with the given headers, and the response that was written for it. */
+class MockDownloadRequest {
+
+  private final VaadinSession session;
+  private final Map<String, String> requestHeaders = new HashMap<>();
+  private final Map<String, String> responseHeaders = new HashMap<>();
+  private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+  private int status = 200;
+
+  MockDownloadRequest(VaadinSession session) {
+    this.session = session;
+  }
+
+  MockDownloadRequest withHeader(String name, String value) {
+    requestHeaders.put(name, value);
+    return this;
+  }
+
+  DownloadEvent createEvent() {
+    VaadinRequest request = proxy(VaadinRequest.class, (method, args) -> {
+      if (method.equals("getHeader")) {
+        return requestHeaders.get(args[0]);
+      }
+      return null;
+    });
+    VaadinResponse response = proxy(VaadinResponse.class, (method, args) -> {
+      switch (method) {
+        case "setHeader":
+          responseHeaders.put((String) args[0], (String) args[1]);
+          break;
+        case "setContentType":
+          responseHeaders.put("Content-Type", (String) args[0]);
+          break;
+        case "setStatus":
+        case "sendError":
+          status = (Integer) args[0];
+          break;
+        case "getOutputStream":
+          return body;
+        default:
+          break;
+      }
+      return null;
+    });
+    return new DownloadEvent(request, response, session, null);
+  }
+
+  MockDownloadRequest handle(DownloadHandler handler) throws IOException {
+    handler.handleDownloadRequest(createEvent());
+    return this;
+  }
+
+  int getStatus() {
+    return status;
+  }
+
+  String getResponseHeader(String name) {
+    return responseHeaders.get(name);
+  }
+
+  byte[] getBody() {
+    return body.toByteArray();
+  }
+
+  String getBodyAsString() {
+    return body.toString(StandardCharsets.UTF_8);
+  }
+
+  private interface Handler {
+    Object invoke(String method, Object[] args);
+  }
+
+  private static <T> T proxy(Class<T> type, Handler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> {
+          Object result = handler.invoke(method.getName(), args);
+          if (result == null && method.getReturnType().isPrimitive()
+              && method.getReturnType() != void.class) {
+            // the default value of the primitive type
+            return Array.get(Array.newInstance(method.getReturnType(), 1), 0);
+          }
+          return result;
+        }));
+  }
+
+}
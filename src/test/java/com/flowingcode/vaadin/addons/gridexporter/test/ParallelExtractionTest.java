@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThrows;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.Grid.Column;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelExtractionTest {
+
+  private static final int TEST_TIMEOUT = 10000;
+
+  private Grid<Integer> grid;
+  private Column<Integer> column;
+  private GridExporter<Integer> exporter;
+  private VaadinSession session;
+  private ExecutorService executor;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    column = grid.addColumn(i -> "").setHeader("Value");
+    grid.setItems(IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+    exporter = GridExporter.createFor(grid);
+    exporter.setValueExtractionBatchSize(7);
+    session = GridExporterTestSupport.createSession();
+    executor = Executors.newFixedThreadPool(4, task -> new Thread(task, "extract"));
+  }
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  private String export() throws IOException {
+    return new MockDownloadRequest(session).handle(exporter.getCsvDownloadHandler())
+        .getBodyAsString();
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testRowOrderIsKept() throws IOException {
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    exporter.setExportValue(column, i -> {
+      threads.add(Thread.currentThread().getName());
+      // complete the batches out of order
+      LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(100_000));
+      return "row" + i;
+    });
+    String sequential = export();
+
+    threads.clear();
+    exporter.setParallelValueExtractionEnabled(true);
+    exporter.setValueExtractionExecutor(executor);
+    assertThat(export(), equalTo(sequential));
+    assertThat(threads, everyItem(startsWith("extract")));
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testPendingBatchesAreCancelledOnFailure() {
+    // the first batch runs in the rendering thread, and the others wait in the queue
+    Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    AtomicInteger submitted = new AtomicInteger();
+    exporter.setParallelValueExtractionEnabled(true);
+    exporter.setValueExtractionExecutor(task -> {
+      if (submitted.getAndIncrement() == 0) {
+        task.run();
+      } else {
+        queue.add(task);
+      }
+    });
+
+    List<Integer> extracted = new ArrayList<>();
+    exporter.setExportValue(column, i -> {
+      synchronized (extracted) {
+        extracted.add(i);
+      }
+      if (i == 3) {
+        throw new IllegalStateException("failure");
+      }
+      return "row" + i;
+    });
+
+    IllegalStateException e = assertThrows(IllegalStateException.class, this::export);
+    assertThat(e.getMessage(), equalTo("failure"));
+    assertThat(submitted.get() > 1, equalTo(true));
+
+    // the batches that were pending when the export failed don't extract any value
+    queue.forEach(Runnable::run);
+    assertThat(extracted, equalTo(List.of(0, 1, 2, 3)));
+  }
+
+}
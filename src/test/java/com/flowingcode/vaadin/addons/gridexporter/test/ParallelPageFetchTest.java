@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.flowingcode.vaadin.addons.gridexporter.RowLimitPolicy;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelPageFetchTest {
+
+  private static final int TEST_TIMEOUT = 10000;
+
+  private static final List<String> ITEMS =
+      IntStream.range(0, 103).mapToObj(i -> String.format("item%03d", i))
+          .collect(Collectors.toList());
+
+  private Grid<String> grid;
+  private GridExporter<String> exporter;
+  private VaadinSession session;
+  private ExecutorService executor;
+
+  private final Queue<Integer> offsets = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.addColumn(s -> s).setHeader("Value");
+    grid.setItems(DataProvider.fromCallbacks(this::fetch, query -> ITEMS.size()));
+    exporter = GridExporter.createFor(grid);
+    exporter.setExportPageSize(10);
+    session = GridExporterTestSupport.createSession();
+    executor = Executors.newFixedThreadPool(8);
+    exporter.setValueExtractionExecutor(executor);
+  }
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  private Stream<String> fetch(Query<String, Void> query) {
+    offsets.add(query.getOffset());
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      // complete the pages out of order
+      Thread.sleep(ThreadLocalRandom.current().nextInt(5, 20));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+    return ITEMS.stream().skip(query.getOffset()).limit(query.getLimit());
+  }
+
+  /** Returns the exported rows, without the headers. */
+  private List<String> export() throws IOException {
+    String csv = new MockDownloadRequest(session).handle(exporter.getCsvDownloadHandler())
+        .getBodyAsString().replace("\uFEFF", "");
+    return Arrays.stream(csv.split("\n")).skip(1).map(line -> line.replace("\"", ""))
+        .filter(line -> !line.isBlank())
+        .collect(Collectors.toList());
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testRowOrderIsKept() throws IOException {
+    exporter.setExportFetchParallelism(4);
+
+    assertThat(export(), equalTo(ITEMS));
+    assertThat(offsets, hasItems(0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100));
+    assertThat(offsets.stream().map(offset -> offset % 10).collect(Collectors.toList()),
+        everyItem(equalTo(0)));
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testPagesInFlightAreBounded() throws IOException {
+    exporter.setExportFetchParallelism(3);
+
+    assertThat(export(), hasSize(ITEMS.size()));
+    assertThat(maxInFlight.get(), lessThanOrEqualTo(3));
+    assertThat(maxInFlight.get(), greaterThan(1));
+    // no more pages are requested after the short page at offset 100
+    assertThat(offsets.stream().filter(offset -> offset > 100).count(),
+        lessThanOrEqualTo(2L));
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testPendingPagesAreCancelledOnTruncation() throws IOException {
+    // the first page is fetched in the rendering thread, and the others wait in the queue
+    Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    AtomicInteger submitted = new AtomicInteger();
+    exporter.setValueExtractionExecutor(task -> {
+      if (submitted.getAndIncrement() == 0) {
+        task.run();
+      } else {
+        queue.add(task);
+      }
+    });
+    exporter.setExportFetchParallelism(4);
+    exporter.setRowLimitPolicy(RowLimitPolicy.TRUNCATE);
+    exporter.setMaxRowCount(ExportFormat.CSV, 5);
+
+    assertThat(export(), hasSize(6));
+    assertThat(submitted.get(), equalTo(4));
+
+    // the pages that were pending when the export was truncated are not fetched
+    queue.forEach(Runnable::run);
+    assertThat(offsets, hasSize(1));
+  }
+
+}
@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PublisherIteratorTest {
+
+  /**
+   * Publishes the integers from zero to {@code size} (exclusive, or without limit if negative)
+   * synchronously from {@code request}, and records the demand of the subscriber.
+   */
+  private static class RecordingPublisher implements Flow.Publisher<Integer> {
+
+    private final int size;
+    private final Throwable error;
+    private final List<Long> requests = new ArrayList<>();
+    private long requested;
+    private int published;
+    private boolean cancelled;
+    private boolean terminated;
+
+    RecordingPublisher(int size, Throwable error) {
+      this.size = size;
+      this.error = error;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+          requests.add(n);
+          requested += n;
+          while (!cancelled && !terminated && published < requested) {
+            if (published == size) {
+              terminated = true;
+              if (error != null) {
+                subscriber.onError(error);
+              } else {
+                subscriber.onComplete();
+              }
+            } else {
+              subscriber.onNext(published++);
+            }
+          }
+        }
+
+        @Override
+        public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testDemandIsBounded() {
+    int demand = 8;
+    RecordingPublisher publisher = new RecordingPublisher(100, null);
+    Iterator<Integer> iterator = GridExporterTestSupport.subscribe(publisher, demand);
+
+    Assert.assertEquals(List.of((long) demand), publisher.requests);
+    List<Integer> items = new ArrayList<>();
+    while (iterator.hasNext()) {
+      items.add(iterator.next());
+      // items requested but not consumed yet
+      Assert.assertTrue(publisher.requested - items.size() <= demand);
+    }
+
+    Assert.assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), items);
+    Assert.assertTrue(publisher.requests.size() > 1);
+    Assert.assertTrue(publisher.requests.stream().skip(1).allMatch(n -> n == demand / 2));
+    Assert.assertFalse(publisher.cancelled);
+  }
+
+  @Test
+  public void testCloseCancelsSubscription() {
+    RecordingPublisher publisher = new RecordingPublisher(-1, null);
+    Iterator<Integer> iterator = GridExporterTestSupport.subscribe(publisher, 4);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(i, (int) iterator.next());
+    }
+
+    GridExporterTestSupport.close(iterator);
+    Assert.assertTrue(publisher.cancelled);
+    Assert.assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testCloseAfterCompletionDoesNotCancel() {
+    RecordingPublisher publisher = new RecordingPublisher(3, null);
+    Iterator<Integer> iterator = GridExporterTestSupport.subscribe(publisher, 4);
+    iterator.forEachRemaining(item -> {});
+
+    GridExporterTestSupport.close(iterator);
+    Assert.assertFalse(publisher.cancelled);
+  }
+
+  @Test
+  public void testRuntimeExceptionIsPropagated() {
+    IllegalStateException error = new IllegalStateException();
+    RecordingPublisher publisher = new RecordingPublisher(2, error);
+    Iterator<Integer> iterator = GridExporterTestSupport.subscribe(publisher, 4);
+
+    Assert.assertEquals(0, (int) iterator.next());
+    Assert.assertEquals(1, (int) iterator.next());
+    try {
+      iterator.hasNext();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertSame(error, e);
+    }
+  }
+
+  @Test
+  public void testCheckedExceptionIsWrapped() {
+    IOException error = new IOException();
+    RecordingPublisher publisher = new RecordingPublisher(0, error);
+    Iterator<Integer> iterator = GridExporterTestSupport.subscribe(publisher, 4);
+
+    try {
+      iterator.next();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertSame(error, e.getCause());
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testNextAfterCompletion() {
+    Iterator<Integer> iterator =
+        GridExporterTestSupport.subscribe(new RecordingPublisher(0, null), 4);
+    iterator.next();
+  }
+
+  @Test
+  public void testAsynchronousPublisher() throws InterruptedException {
+    List<Integer> items = new ArrayList<>();
+    try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+      Iterator<Integer> iterator = GridExporterTestSupport.subscribe(publisher, 16);
+      Thread producer = new Thread(() -> {
+        IntStream.range(0, 1000).forEach(publisher::submit);
+        publisher.close();
+      });
+      producer.start();
+      iterator.forEachRemaining(items::add);
+      producer.join();
+    }
+    Assert.assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), items);
+  }
+
+}
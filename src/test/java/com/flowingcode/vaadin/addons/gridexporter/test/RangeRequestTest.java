@@ -0,0 +1,153 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RangeRequestTest {
+
+  private static final String CONTENT = "0123456789";
+
+  private DownloadHandler handler;
+  private VaadinSession session;
+
+  @Before
+  public void before() {
+    Grid<String> grid = new Grid<>();
+    grid.addColumn(s -> s).setKey("value");
+    grid.setItems(List.of("a"));
+    GridExporter<String> exporter = GridExporter.createFor(grid);
+    handler = GridExporterTestSupport.createRenderingDownloadHandler(exporter,
+        (out, s) -> out.write(CONTENT.getBytes(StandardCharsets.UTF_8)));
+    session = GridExporterTestSupport.createSession();
+  }
+
+  private MockDownloadRequest request() {
+    return new MockDownloadRequest(session);
+  }
+
+  @Test
+  public void testFullContent() throws IOException {
+    MockDownloadRequest download = request().handle(handler);
+    Assert.assertEquals(200, download.getStatus());
+    Assert.assertEquals(CONTENT, download.getBodyAsString());
+    Assert.assertEquals("10", download.getResponseHeader("Content-Length"));
+    Assert.assertEquals("bytes", download.getResponseHeader("Accept-Ranges"));
+    Assert.assertNotNull(download.getResponseHeader("ETag"));
+  }
+
+  @Test
+  public void testRange() throws IOException {
+    MockDownloadRequest download = request().withHeader("Range", "bytes=2-4").handle(handler);
+    Assert.assertEquals(206, download.getStatus());
+    Assert.assertEquals("234", download.getBodyAsString());
+    Assert.assertEquals("bytes 2-4/10", download.getResponseHeader("Content-Range"));
+    Assert.assertEquals("3", download.getResponseHeader("Content-Length"));
+  }
+
+  @Test
+  public void testSuffixRange() throws IOException {
+    MockDownloadRequest download = request().withHeader("Range", "bytes=-3").handle(handler);
+    Assert.assertEquals(206, download.getStatus());
+    Assert.assertEquals("789", download.getBodyAsString());
+    Assert.assertEquals("bytes 7-9/10", download.getResponseHeader("Content-Range"));
+  }
+
+  @Test
+  public void testOpenEndedRange() throws IOException {
+    MockDownloadRequest download = request().withHeader("Range", "bytes=4-").handle(handler);
+    Assert.assertEquals(206, download.getStatus());
+    Assert.assertEquals("456789", download.getBodyAsString());
+    Assert.assertEquals("bytes 4-9/10", download.getResponseHeader("Content-Range"));
+    Assert.assertEquals("6", download.getResponseHeader("Content-Length"));
+  }
+
+  @Test
+  public void testUnsatisfiableRange() throws IOException {
+    MockDownloadRequest download = request().withHeader("Range", "bytes=10-").handle(handler);
+    Assert.assertEquals(416, download.getStatus());
+    Assert.assertEquals("", download.getBodyAsString());
+    Assert.assertEquals("bytes */10", download.getResponseHeader("Content-Range"));
+  }
+
+  @Test
+  public void testMultipleRangesServeFullContent() throws IOException {
+    MockDownloadRequest download = request().withHeader("Range", "bytes=0-1,4-5").handle(handler);
+    Assert.assertEquals(200, download.getStatus());
+    Assert.assertEquals(CONTENT, download.getBodyAsString());
+    Assert.assertNull(download.getResponseHeader("Content-Range"));
+  }
+
+  @Test
+  public void testIfRangeMismatchServesFullContent() throws IOException {
+    MockDownloadRequest download = request().withHeader("Range", "bytes=4-")
+        .withHeader("If-Range", "\"0-0\"").handle(handler);
+    Assert.assertEquals(200, download.getStatus());
+    Assert.assertEquals(CONTENT, download.getBodyAsString());
+    Assert.assertNull(download.getResponseHeader("Content-Range"));
+  }
+
+  @Test
+  public void testIfRangeMatchServesRange() throws IOException {
+    String etag = request().handle(handler).getResponseHeader("ETag");
+    MockDownloadRequest download = request().withHeader("Range", "bytes=4-")
+        .withHeader("If-Range", etag).handle(handler);
+    Assert.assertEquals(206, download.getStatus());
+    Assert.assertEquals("456789", download.getBodyAsString());
+  }
+
+  @Test
+  public void testResumeFromRenderedExport() throws IOException {
+    String etag = request().handle(handler).getResponseHeader("ETag");
+    MockDownloadRequest download = request().withHeader("Range", "bytes=8-");
+    Assert.assertTrue(
+        GridExporterTestSupport.handleCachedDownloadRequest(handler, download.createEvent()));
+    Assert.assertEquals(206, download.getStatus());
+    Assert.assertEquals("89", download.getBodyAsString());
+    Assert.assertEquals(etag, download.getResponseHeader("ETag"));
+  }
+
+  @Test
+  public void testParseRange() {
+    Assert.assertArrayEquals(new long[] {0, 9}, GridExporterTestSupport.parseRange("bytes=0-", 10));
+    Assert.assertArrayEquals(new long[] {5, 9},
+        GridExporterTestSupport.parseRange("bytes=5-100", 10));
+    Assert.assertArrayEquals(new long[] {0, 9},
+        GridExporterTestSupport.parseRange("bytes=-100", 10));
+    Assert.assertArrayEquals(new long[0], GridExporterTestSupport.parseRange("bytes=-0", 10));
+    Assert.assertArrayEquals(new long[0], GridExporterTestSupport.parseRange("bytes=12-20", 10));
+    Assert.assertNull(GridExporterTestSupport.parseRange(null, 10));
+    Assert.assertNull(GridExporterTestSupport.parseRange("items=0-1", 10));
+    Assert.assertNull(GridExporterTestSupport.parseRange("bytes=a-b", 10));
+    Assert.assertNull(GridExporterTestSupport.parseRange("bytes=5-2", 10));
+    Assert.assertNull(GridExporterTestSupport.parseRange("bytes=0-1,4-5", 10));
+  }
+
+}
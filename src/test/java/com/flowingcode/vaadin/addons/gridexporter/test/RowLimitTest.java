@@ -0,0 +1,112 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.flowingcode.vaadin.addons.gridexporter.RowLimitExceededEvent;
+import com.flowingcode.vaadin.addons.gridexporter.RowLimitPolicy;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RowLimitTest {
+
+  private GridExporter<String> exporter;
+  private VaadinSession session;
+
+  @Before
+  public void before() {
+    Grid<String> grid = new Grid<>();
+    grid.addColumn(s -> s).setKey("value").setHeader("Value");
+    grid.setItems(List.of("a", "b", "c", "d", "e"));
+    exporter = GridExporter.createFor(grid);
+    exporter.setFileName("export");
+    exporter.setRowLimitNotice("limit %d");
+    session = GridExporterTestSupport.createSession();
+  }
+
+  private static List<String> lines(MockDownloadRequest download) {
+    return Arrays.asList(download.getBodyAsString().split("\n"));
+  }
+
+  @Test
+  public void testReject() throws IOException {
+    List<RowLimitExceededEvent> events = new ArrayList<>();
+    exporter.addRowLimitExceededListener(events::add);
+    exporter.setMaxRowCount(ExportFormat.EXCEL, 2);
+
+    MockDownloadRequest download =
+        new MockDownloadRequest(session).handle(exporter.getExcelDownloadHandler());
+    assertThat(download.getStatus(), equalTo(413));
+    assertThat(download.getBody().length, equalTo(0));
+    assertThat(events, hasSize(1));
+    assertThat(events.get(0).getRowCount(), equalTo(5L));
+  }
+
+  @Test
+  public void testDowngradeToJsonLines() throws IOException {
+    exporter.setRowLimitPolicy(RowLimitPolicy.DOWNGRADE);
+    exporter.setMaxRowCount(ExportFormat.EXCEL, 2);
+
+    MockDownloadRequest download =
+        new MockDownloadRequest(session).handle(exporter.getExcelDownloadHandler());
+    assertThat(download.getStatus(), equalTo(200));
+    assertThat(download.getResponseHeader("Content-Type"), equalTo("application/x-ndjson"));
+    assertThat(download.getResponseHeader("Content-Disposition"), endsWith("export.jsonl\""));
+    assertThat(lines(download), contains("{\"value\":\"a\"}", "{\"value\":\"b\"}",
+        "{\"value\":\"c\"}", "{\"value\":\"d\"}", "{\"value\":\"e\"}"));
+  }
+
+  @Test
+  public void testDowngradeAppliesJsonLinesRowLimit() throws IOException {
+    exporter.setRowLimitPolicy(RowLimitPolicy.DOWNGRADE);
+    exporter.setMaxRowCount(ExportFormat.EXCEL, 2);
+    exporter.setMaxRowCount(ExportFormat.JSON_LINES, 3);
+
+    MockDownloadRequest download =
+        new MockDownloadRequest(session).handle(exporter.getExcelDownloadHandler());
+    assertThat(lines(download), contains("{\"value\":\"a\"}", "{\"value\":\"b\"}",
+        "{\"value\":\"c\"}", "{\"notice\":\"limit 3\"}"));
+  }
+
+  @Test
+  public void testStreamingFormatIsTruncated() throws IOException {
+    exporter.setRowLimitPolicy(RowLimitPolicy.DOWNGRADE);
+    exporter.setMaxRowCount(ExportFormat.JSON_LINES, 2);
+
+    MockDownloadRequest download =
+        new MockDownloadRequest(session).handle(exporter.getJsonLinesDownloadHandler());
+    assertThat(lines(download),
+        contains("{\"value\":\"a\"}", "{\"value\":\"b\"}", "{\"notice\":\"limit 2\"}"));
+  }
+
+}
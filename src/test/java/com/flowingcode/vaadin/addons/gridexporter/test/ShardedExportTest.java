@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import com.flowingcode.vaadin.addons.gridexporter.ExportFormat;
+import com.flowingcode.vaadin.addons.gridexporter.GridExportQuery;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter.GridExporterConcurrentDownloadHandler;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.stream.Stream;
+import java.util.zip.ZipInputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardedExportTest {
+
+  private Grid<String> grid;
+  private GridExporter<String> exporter;
+  private VaadinSession session;
+
+  @Before
+  public void before() {
+    grid = new Grid<>();
+    grid.addColumn(s -> s).setHeader("Value");
+    grid.setItems(new ArrayList<>(List.of("a", "b", "c", "d", "e")));
+    exporter = GridExporter.createFor(grid);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  /** Returns the rows of each CSV file in the archive, without the headers. */
+  private static Map<String, List<String>> readShards(byte[] content) throws IOException {
+    Map<String, List<String>> shards = new LinkedHashMap<>();
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(content))) {
+      for (ZipEntry entry; (entry = zip.getNextEntry()) != null;) {
+        String text = new String(zip.readAllBytes(), StandardCharsets.UTF_8).replace("\uFEFF", "");
+        List<String> rows = new ArrayList<>();
+        for (String line : text.split("\n")) {
+          rows.add(line.replace("\"", ""));
+        }
+        shards.put(entry.getName(), rows.subList(1, rows.size()));
+      }
+    }
+    return shards;
+  }
+
+  @Test
+  public void testShards() throws IOException {
+    Map<String, List<String>> shards = readShards(
+        GridExporterTestSupport.exportSharded(exporter, ExportFormat.CSV, 2, session));
+    Assert.assertEquals(List.of("shard-0", "shard-1", "shard-2"), List.copyOf(shards.keySet()));
+    Assert.assertEquals(List.of("a", "b"), shards.get("shard-0"));
+    Assert.assertEquals(List.of("c", "d"), shards.get("shard-1"));
+    Assert.assertEquals(List.of("e"), shards.get("shard-2"));
+  }
+
+  @Test
+  public void testFilterChangeBetweenShards() throws IOException {
+    // change the filter of the grid while the first shard is being rendered
+    grid.addColumn(s -> {
+      if (s.equals("b")) {
+        grid.getListDataView().setFilter(t -> t.equals("a"));
+      }
+      return "";
+    }).setHeader("Filter");
+
+    Map<String, List<String>> shards = readShards(
+        GridExporterTestSupport.exportSharded(exporter, ExportFormat.CSV, 2, session));
+    Assert.assertEquals(List.of("a,", "b,"), shards.get("shard-0"));
+    Assert.assertEquals(List.of("c,", "d,"), shards.get("shard-1"));
+    Assert.assertEquals(List.of("e,"), shards.get("shard-2"));
+  }
+
+  @Test
+  public void testColumnChangeBetweenShards() throws IOException {
+    // add a column to the grid while the first shard is being rendered
+    grid.addColumn(s -> {
+      if (s.equals("b")) {
+        grid.addColumn(t -> "new").setHeader("New");
+      }
+      return "";
+    }).setHeader("Change");
+
+    Map<String, List<String>> shards = readShards(
+        GridExporterTestSupport.exportSharded(exporter, ExportFormat.CSV, 2, session));
+    Assert.assertEquals(List.of("a,", "b,"), shards.get("shard-0"));
+    Assert.assertEquals(List.of("c,", "d,"), shards.get("shard-1"));
+    Assert.assertEquals(List.of("e,"), shards.get("shard-2"));
+  }
+
+  @Test
+  public void testLazyGridReceivesRequiredProperties() throws IOException {
+    List<Query<String, ?>> queries = new ArrayList<>();
+    grid.getColumns().get(0).setKey("value");
+    grid.setItems(query -> {
+      queries.add(query);
+      return Stream.of("a", "b", "c", "d", "e").skip(query.getOffset()).limit(query.getLimit());
+    }, query -> 5);
+
+    MockDownloadRequest download = new MockDownloadRequest(session)
+        .handle(exporter.getShardedDownloadHandler(ExportFormat.CSV, 2));
+    Map<String, List<String>> shards = readShards(download.getBody());
+    Assert.assertEquals(List.of("a", "b"), shards.get("export-001.csv"));
+    Assert.assertEquals(List.of("e"), shards.get("export-003.csv"));
+
+    Assert.assertEquals(1, queries.size());
+    Assert.assertEquals(Optional.of(List.of("value")),
+        ((GridExportQuery<?, ?>) queries.get(0)).getRequiredProperties());
+  }
+
+  @Test
+  public void testCostIsMultipliedByShardParallelism() {
+    exporter.setConcurrentDownloadCost(1.5f);
+    exporter.setShardParallelism(3);
+    GridExporterConcurrentDownloadHandler handler =
+        exporter.getShardedDownloadHandler(ExportFormat.CSV, 100);
+    Assert.assertEquals(4.5f, handler.getCost(session), 0);
+    Assert.assertEquals(1.5f, exporter.getExcelDownloadHandler().getCost(session), 0);
+  }
+
+  @Test
+  public void testCostIsCapped() {
+    exporter.setConcurrentDownloadCost(GridExporter.MAX_COST);
+    exporter.setShardParallelism(4);
+    GridExporterConcurrentDownloadHandler handler =
+        exporter.getShardedDownloadHandler(ExportFormat.CSV, 100);
+    Assert.assertEquals(GridExporter.MAX_COST, handler.getCost(session), 0);
+  }
+
+}
@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import com.flowingcode.vaadin.addons.gridexporter.FileCompression;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransferCompressionTest {
+
+  private GridExporter<String> exporter;
+  private VaadinSession session;
+  private byte[] uncompressed;
+
+  @Before
+  public void before() throws IOException {
+    Grid<String> grid = new Grid<>();
+    grid.addColumn(s -> s).setKey("value").setHeader("Value");
+    grid.setItems(List.of("a", "b", "c"));
+    exporter = GridExporter.createFor(grid);
+    exporter.setFileName("export");
+    session = GridExporterTestSupport.createSession();
+    uncompressed = download(null).getBody();
+  }
+
+  private MockDownloadRequest download(String acceptEncoding) throws IOException {
+    MockDownloadRequest request = new MockDownloadRequest(session);
+    if (acceptEncoding != null) {
+      request.withHeader("Accept-Encoding", acceptEncoding);
+    }
+    return request.handle(exporter.getCsvDownloadHandler());
+  }
+
+  private static byte[] gunzip(byte[] content) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+      return in.readAllBytes();
+    }
+  }
+
+  @Test
+  public void testTransferCompressionIsDisabledByDefault() throws IOException {
+    MockDownloadRequest download = download("gzip");
+    assertThat(download.getResponseHeader("Content-Encoding"), nullValue());
+    assertThat(download.getBody(), equalTo(uncompressed));
+  }
+
+  @Test
+  public void testGzipIsNegotiated() throws IOException {
+    exporter.setTransferCompressionEnabled(true);
+    MockDownloadRequest download = download("deflate, gzip;q=0.8, br");
+    assertThat(download.getResponseHeader("Content-Encoding"), equalTo("gzip"));
+    assertThat(download.getResponseHeader("Vary"), equalTo("Accept-Encoding"));
+    assertThat(download.getResponseHeader("Content-Type"), equalTo("text/csv"));
+    assertThat(gunzip(download.getBody()), equalTo(uncompressed));
+  }
+
+  @Test
+  public void testWildcardAcceptsGzip() throws IOException {
+    exporter.setTransferCompressionEnabled(true);
+    MockDownloadRequest download = download("*");
+    assertThat(download.getResponseHeader("Content-Encoding"), equalTo("gzip"));
+    assertThat(gunzip(download.getBody()), equalTo(uncompressed));
+  }
+
+  @Test
+  public void testGzipNotAccepted() throws IOException {
+    exporter.setTransferCompressionEnabled(true);
+    for (String acceptEncoding : new String[] {null, "", "deflate, br", "gzip;q=0", "x-gzip"}) {
+      MockDownloadRequest download = download(acceptEncoding);
+      assertThat(acceptEncoding, download.getResponseHeader("Content-Encoding"), nullValue());
+      assertThat(acceptEncoding, download.getBody(), equalTo(uncompressed));
+    }
+  }
+
+  @Test
+  public void testGzipFileIsNotCompressedAgain() throws IOException {
+    exporter.setTransferCompressionEnabled(true);
+    exporter.setTextExportCompression(FileCompression.GZIP);
+    MockDownloadRequest download = download("gzip");
+    assertThat(download.getResponseHeader("Content-Encoding"), nullValue());
+    assertThat(download.getResponseHeader("Content-Type"), equalTo("application/gzip"));
+    assertThat(download.getResponseHeader("Content-Disposition"), endsWith("export.csv.gz\""));
+    assertThat(gunzip(download.getBody()), equalTo(uncompressed));
+  }
+
+  @Test
+  public void testZipFile() throws IOException {
+    exporter.setTextExportCompression(FileCompression.ZIP);
+    MockDownloadRequest download = download(null);
+    assertThat(download.getResponseHeader("Content-Type"), equalTo("application/zip"));
+    assertThat(download.getResponseHeader("Content-Disposition"), endsWith("export.zip\""));
+    try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(download.getBody()))) {
+      ZipEntry entry = in.getNextEntry();
+      assertThat(entry.getName(), equalTo("export.csv"));
+      assertThat(in.readAllBytes(), equalTo(uncompressed));
+      assertThat(in.getNextEntry(), nullValue());
+    }
+  }
+
+}
@@ -0,0 +1,257 @@
+/*-
+ * #%L
+ * Grid Exporter Add-on
+ * %%
+ * Copyright (C) 2022 - 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.gridexporter.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import com.flowingcode.vaadin.addons.gridexporter.ConfigurableConcurrentStreamResourceWriter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporter;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterConcurrentSettings;
+import com.flowingcode.vaadin.addons.gridexporter.GridExporterTestSupport;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.server.StreamResourceWriter;
+import com.vaadin.flow.server.VaadinSession;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("serial")
+public class VirtualThreadExportTest {
+
+  private static final int TEST_TIMEOUT = 10000;
+
+  private ExecutorService executor;
+  private VaadinSession session;
+
+  private static class ConcurrentStreamResourceWriter
+      extends ConfigurableConcurrentStreamResourceWriter {
+
+    private Thread acceptingThread;
+
+    ConcurrentStreamResourceWriter(StreamResourceWriter delegate) {
+      super(delegate);
+    }
+
+    @Override
+    protected void onTimeout() {}
+
+    @Override
+    protected void onAccept() {
+      acceptingThread = Thread.currentThread();
+    }
+
+    @Override
+    protected void onFinish() {}
+  }
+
+  /** An output stream that records the thread that writes into it. */
+  private static class RecordingOutputStream extends ByteArrayOutputStream {
+
+    private Thread writingThread;
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+      writingThread = Thread.currentThread();
+      super.write(b, off, len);
+    }
+
+    @Override
+    public synchronized void write(int b) {
+      writingThread = Thread.currentThread();
+      super.write(b);
+    }
+  }
+
+  @Before
+  public void before() {
+    executor = Executors.newCachedThreadPool(task -> new Thread(task, "render"));
+    GridExporterTestSupport.setVirtualThreadExecutor(executor);
+    session = GridExporterTestSupport.createSession();
+  }
+
+  @After
+  public void after() {
+    GridExporterTestSupport.setVirtualThreadExecutor(null);
+    executor.shutdownNow();
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testRenderOnVirtualThread() throws IOException {
+    AtomicReference<Thread> renderingThread = new AtomicReference<>();
+    AtomicReference<VaadinSession> currentSession = new AtomicReference<>();
+    ConcurrentStreamResourceWriter writer = new ConcurrentStreamResourceWriter((out, s) -> {
+      renderingThread.set(Thread.currentThread());
+      currentSession.set(VaadinSession.getCurrent());
+      out.write("content".getBytes(StandardCharsets.UTF_8));
+    });
+
+    RecordingOutputStream out = new RecordingOutputStream();
+    VaadinSession.setCurrent(session);
+    try {
+      writer.accept(out, session);
+    } finally {
+      VaadinSession.setCurrent(null);
+    }
+
+    Thread requestThread = Thread.currentThread();
+    assertThat(out.toString(StandardCharsets.UTF_8), equalTo("content"));
+    assertThat(out.writingThread, sameInstance(requestThread));
+    assertThat(renderingThread.get(), not(sameInstance(requestThread)));
+    assertThat(writer.acceptingThread, sameInstance(renderingThread.get()));
+    assertThat(currentSession.get(), sameInstance(session));
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testRenderFailure() {
+    IOException failure = new IOException("failure");
+    ConcurrentStreamResourceWriter writer = new ConcurrentStreamResourceWriter((out, s) -> {
+      out.write("partial".getBytes(StandardCharsets.UTF_8));
+      throw failure;
+    });
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    IOException e = assertThrows(IOException.class, () -> writer.accept(out, session));
+    assertThat(e, sameInstance(failure));
+    assertThat(out.size(), equalTo(0));
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testInterruptRequestThread() throws InterruptedException {
+    CountDownLatch rendering = new CountDownLatch(1);
+    CountDownLatch rendered = new CountDownLatch(1);
+    AtomicBoolean renderInterrupted = new AtomicBoolean();
+    ConcurrentStreamResourceWriter writer = new ConcurrentStreamResourceWriter((out, s) -> {
+      rendering.countDown();
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        renderInterrupted.set(true);
+        throw new InterruptedIOException();
+      } finally {
+        rendered.countDown();
+      }
+    });
+
+    AtomicReference<Throwable> thrown = new AtomicReference<>();
+    AtomicBoolean requestInterrupted = new AtomicBoolean();
+    Thread requestThread = new Thread(() -> {
+      try {
+        writer.accept(new ByteArrayOutputStream(), session);
+      } catch (Throwable e) {
+        thrown.set(e);
+      }
+      requestInterrupted.set(Thread.currentThread().isInterrupted());
+    });
+    requestThread.start();
+
+    rendering.await();
+    requestThread.interrupt();
+    requestThread.join();
+    assertTrue(rendered.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS));
+
+    assertThat(thrown.get(), instanceOf(InterruptedIOException.class));
+    assertTrue(requestInterrupted.get());
+    assertTrue(renderInterrupted.get());
+  }
+
+  @Test(timeout = TEST_TIMEOUT)
+  public void testDownloadHandlerRendersOnVirtualThread() throws IOException {
+    AtomicReference<Thread> fetchingThread = new AtomicReference<>();
+    Grid<String> grid = new Grid<>();
+    grid.addColumn(s -> s).setKey("value").setHeader("Value");
+    grid.setItems(DataProvider.fromCallbacks(query -> {
+      fetchingThread.set(Thread.currentThread());
+      return IntStream.range(0, 100).mapToObj(i -> "item" + i)
+          .skip(query.getOffset()).limit(query.getLimit());
+    }, query -> 100));
+    GridExporter<String> exporter = GridExporter.createFor(grid);
+    exporter.setFileName("export");
+
+    MockDownloadRequest download =
+        new MockDownloadRequest(session).handle(exporter.getExcelDownloadHandler());
+    assertThat(fetchingThread.get().getName(), equalTo("render"));
+    assertThat(download.getResponseHeader("Content-Disposition"), containsString("export.xlsx"));
+
+    GridExporterTestSupport.setVirtualThreadExecutor(null);
+    MockDownloadRequest expected =
+        new MockDownloadRequest(session).handle(exporter.getExcelDownloadHandler());
+    assertThat(fetchingThread.get(), sameInstance(Thread.currentThread()));
+    assertThat(readCells(download.getBody()), equalTo(readCells(expected.getBody())));
+    assertThat(readCells(download.getBody()), hasItems("item0", "item99"));
+  }
+
+  private static List<String> readCells(byte[] content) throws IOException {
+    List<String> cells = new ArrayList<>();
+    try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(content))) {
+      for (Row row : workbook.getSheetAt(0)) {
+        for (Cell cell : row) {
+          cells.add(cell.toString());
+        }
+      }
+    }
+    return cells;
+  }
+
+  @Test
+  public void testSetVirtualThreadsEnabled() {
+    GridExporterTestSupport.setVirtualThreadExecutor(null);
+    try {
+      if (Runtime.version().feature() >= 21) {
+        GridExporterConcurrentSettings.setVirtualThreadsEnabled(true);
+        assertTrue(GridExporterConcurrentSettings.isVirtualThreadsEnabled());
+      } else {
+        assertThrows(UnsupportedOperationException.class,
+            () -> GridExporterConcurrentSettings.setVirtualThreadsEnabled(true));
+        assertFalse(GridExporterConcurrentSettings.isVirtualThreadsEnabled());
+      }
+    } finally {
+      GridExporterConcurrentSettings.setVirtualThreadsEnabled(false);
+    }
+    assertFalse(GridExporterConcurrentSettings.isVirtualThreadsEnabled());
+  }
+
+}